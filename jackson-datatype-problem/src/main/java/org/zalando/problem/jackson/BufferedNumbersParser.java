@@ -0,0 +1,57 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+
+/**
+ * Reads buffered tokens, in which floating point numbers are kept as exact decimals, e.g. {@code 1.50}, so that they
+ * can be written back out as they were. They're reported as doubles, just like a JSON parser does, i.e. reading from
+ * a buffer yields the same values as reading from the original input, while {@link #getDecimalValue()} and
+ * {@link #getNumberValueExact()} stay exact, e.g. for {@code USE_BIG_DECIMAL_FOR_FLOATS} or for buffering them again.
+ */
+final class BufferedNumbersParser extends JsonParserDelegate {
+
+    BufferedNumbersParser(final JsonParser tokens) {
+        super(tokens);
+    }
+
+    /**
+     * Copies the current event like {@link TokenBuffer#copyCurrentEvent(JsonParser)} does, except for floating point
+     * numbers, which are kept exactly as written rather than as doubles.
+     *
+     * @param json the parser to copy from
+     * @param buffer the buffer to copy to
+     * @throws IOException if the event can't be read
+     */
+    static void copyCurrentEvent(final JsonParser json, final TokenBuffer buffer) throws IOException {
+        if (json.currentToken() == JsonToken.VALUE_NUMBER_FLOAT && !json.isNaN()) {
+            buffer.writeNumber(json.getDecimalValue());
+        } else {
+            buffer.copyCurrentEvent(json);
+        }
+    }
+
+    @Override
+    public NumberType getNumberType() throws IOException {
+        return isFloat() ? NumberType.DOUBLE : super.getNumberType();
+    }
+
+    @Override
+    public Number getNumberValue() throws IOException {
+        return isFloat() ? getDoubleValue() : super.getNumberValue();
+    }
+
+    @Override
+    public Number getNumberValueExact() throws IOException {
+        return delegate.getNumberValueExact();
+    }
+
+    private boolean isFloat() {
+        return currentToken() == JsonToken.VALUE_NUMBER_FLOAT;
+    }
+
+}
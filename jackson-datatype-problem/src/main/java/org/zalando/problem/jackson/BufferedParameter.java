@@ -0,0 +1,75 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.zalando.problem.RawParameter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The buffered tokens of a parameter value. They are decoded using the codec of the parser they were read from, with
+ * the configuration of the read, e.g. the same {@link com.fasterxml.jackson.databind.DeserializationFeature features}
+ * that apply to parameters that are decoded eagerly. They are written back out as they are by the
+ * {@link ParametersSerializer}.
+ */
+final class BufferedParameter implements RawParameter {
+
+    private static final Object UNDECODED = new Object();
+
+    private final TokenBuffer buffer;
+    private final ObjectCodec codec;
+    private final DeserializationConfig config;
+
+    @Nullable
+    private volatile Object value = UNDECODED;
+
+    /**
+     * @param buffer the tokens of the value
+     * @param codec the codec of the parser they were read from
+     * @param config the configuration of the read
+     */
+    BufferedParameter(final TokenBuffer buffer, final ObjectCodec codec, final DeserializationConfig config) {
+        this.buffer = buffer;
+        this.codec = codec;
+        this.config = config;
+    }
+
+    @Nullable
+    @Override
+    public Object decode() {
+        @Nullable Object value = this.value;
+
+        if (value == UNDECODED) {
+            try (JsonParser json = new BufferedNumbersParser(buffer.asParser(codec))) {
+                value = read(json);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.value = value;
+        }
+
+        return value;
+    }
+
+    @Nullable
+    private Object read(final JsonParser json) throws IOException {
+        if (codec instanceof ObjectMapper) {
+            return ((ObjectMapper) codec).readerFor(Object.class).with(config).readValue(json);
+        } else if (codec instanceof ObjectReader) {
+            return ((ObjectReader) codec).forType(Object.class).with(config).readValue(json);
+        }
+        return codec.readValue(json, Object.class);
+    }
+
+    void serialize(final JsonGenerator json) throws IOException {
+        buffer.serialize(json);
+    }
+
+}
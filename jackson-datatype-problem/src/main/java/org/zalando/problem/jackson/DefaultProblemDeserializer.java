@@ -0,0 +1,449 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBase;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.CreatorProperty;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.deser.std.UntypedObjectDeserializer;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.zalando.problem.DefaultProblem;
+import org.zalando.problem.Problem;
+import org.zalando.problem.ProblemBuilder;
+import org.zalando.problem.StatusType;
+import org.zalando.problem.ThrowableProblem;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.fasterxml.jackson.core.JsonToken.END_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_NULL;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_STRING;
+import static com.fasterxml.jackson.databind.DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS;
+import static com.fasterxml.jackson.databind.DeserializationFeature.USE_BIG_INTEGER_FOR_INTS;
+import static com.fasterxml.jackson.databind.DeserializationFeature.USE_LONG_FOR_INTS;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Reads {@link DefaultProblem default problems} in a single pass over the tokens, collecting parameters as they
+ * appear and constructing the problem in one step. Polymorphic handling, i.e. buffering tokens until the
+ * {@code type} is known, only kicks in if subtypes of the requested type are registered and the {@code type} isn't
+ * the first property or maps to one of them. Subtypes that were {@link ProblemModule#registerSubtype(URI, Class)
+ * registered with the module} are dispatched to directly if the {@code type} comes first.
+ */
+final class DefaultProblemDeserializer extends StdDeserializer<DefaultProblem> implements ContextualDeserializer {
+
+    private static final String TYPE = "type";
+
+    /**
+     * The key of the per-call attribute holding the depth of the cause being read, if limited. Parser contexts can't
+     * be used instead, since buffered tokens don't keep track of their depth.
+     */
+    private static final Object CAUSE_DEPTH = new Object();
+
+    private final StatusTypeDeserializer statuses;
+
+    private final Map<String, Class<? extends Problem>> types;
+
+    private final boolean polymorphic;
+
+    /**
+     * Deserializers of registered subtypes, that are applicable to the contextual type, by type.
+     */
+    private final Map<String, JsonDeserializer<Object>> subtypes;
+
+    /**
+     * Whether parameters are read by the default deserializer, which allows to store primitives without boxing.
+     */
+    private final boolean vanilla;
+
+    /**
+     * Whether structured parameters are kept as raw tokens, see {@link ProblemModule#withRawParameters()}.
+     */
+    private final boolean raw;
+
+    private final Limits limits;
+
+    @Nullable
+    private final JsonDeserializer<Object> uris;
+
+    @Nullable
+    private final JsonDeserializer<Object> values;
+
+    @Nullable
+    private volatile JsonDeserializer<Object> causes;
+
+    DefaultProblemDeserializer(final StatusTypeDeserializer statuses,
+            final Map<URI, Class<? extends Problem>> subtypes, final boolean raw, final Limits limits) {
+        this(statuses, index(subtypes), true, emptyMap(), null, null, false, raw, limits);
+    }
+
+    private DefaultProblemDeserializer(final StatusTypeDeserializer statuses,
+            final Map<String, Class<? extends Problem>> types, final boolean polymorphic,
+            final Map<String, JsonDeserializer<Object>> subtypes,
+            @Nullable final JsonDeserializer<Object> uris, @Nullable final JsonDeserializer<Object> values,
+            final boolean vanilla, final boolean raw, final Limits limits) {
+        super(DefaultProblem.class);
+        this.statuses = statuses;
+        this.types = types;
+        this.polymorphic = polymorphic;
+        this.subtypes = subtypes;
+        this.uris = uris;
+        this.values = values;
+        this.vanilla = vanilla;
+        this.raw = raw;
+        this.limits = limits;
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public JsonDeserializer<?> createContextual(final DeserializationContext context,
+            @Nullable final BeanProperty property) throws JsonMappingException {
+
+        @Nullable final JavaType type = context.getContextualType();
+        final Class<?> base = type == null ? Problem.class : type.getRawClass();
+        final Map<String, JsonDeserializer<Object>> subtypes = new HashMap<>();
+
+        for (final Map.Entry<String, Class<? extends Problem>> entry : types.entrySet()) {
+            if (base.isAssignableFrom(entry.getValue())) {
+                subtypes.put(entry.getKey(),
+                        context.findContextualValueDeserializer(context.constructType(entry.getValue()), property));
+            }
+        }
+
+        final JsonDeserializer<Object> values =
+                context.findContextualValueDeserializer(context.constructType(Object.class), property);
+
+        return new DefaultProblemDeserializer(statuses, types,
+                hasSubtypes(context.getConfig(), base), unmodifiableMap(subtypes),
+                context.findContextualValueDeserializer(context.constructType(URI.class), property),
+                values, values instanceof UntypedObjectDeserializer.Vanilla, raw, limits);
+    }
+
+    private static Map<String, Class<? extends Problem>> index(final Map<URI, Class<? extends Problem>> subtypes) {
+        final Map<String, Class<? extends Problem>> index = new HashMap<>(subtypes.size());
+        subtypes.forEach((type, subtype) -> index.put(type.toString(), subtype));
+        return unmodifiableMap(index);
+    }
+
+    /**
+     * @return whether any concrete problem other than {@link DefaultProblem} is registered as a subtype
+     */
+    private static boolean hasSubtypes(final DeserializationConfig config, final Class<?> type) {
+        final AnnotatedClass base = config.introspectClassAnnotations(type).getClassInfo();
+
+        for (final NamedType subtype : config.getSubtypeResolver().collectAndResolveSubtypesByTypeId(config, base)) {
+            final Class<?> candidate = subtype.getType();
+
+            if (candidate != DefaultProblem.class && !Modifier.isAbstract(candidate.getModifiers())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public Object deserializeWithType(final JsonParser json, final DeserializationContext context,
+            final TypeDeserializer deserializer) throws IOException {
+
+        if (deserializer.getTypeInclusion() != JsonTypeInfo.As.EXISTING_PROPERTY ||
+                !TYPE.equals(deserializer.getPropertyName())) {
+            // not configured by our mixin, e.g. due to default typing
+            return deserializer.deserializeTypedFromObject(json, context);
+        }
+
+        if (!polymorphic) {
+            return deserialize(json, context);
+        }
+
+        @Nullable final JsonToken token = json.currentToken() == START_OBJECT ?
+                json.nextToken() :
+                json.currentToken();
+
+        if (token == END_OBJECT) {
+            return read(json, context, Problem.builder(), token);
+        }
+
+        if (token != FIELD_NAME || !TYPE.equals(json.currentName())) {
+            return deserializer.deserializeTypedFromObject(json, context);
+        }
+
+        final JsonToken value = json.nextToken();
+
+        if (value == VALUE_STRING) {
+            @Nullable final JsonDeserializer<Object> subtype = subtypes.get(json.getText());
+
+            if (subtype != null) {
+                return dispatch(json, context, subtype);
+            }
+        }
+
+        if (value.isScalarValue() && !isSubtype(deserializer.getTypeIdResolver().typeFromId(context, json.getText()))) {
+            return read(json, context, Problem.builder().withType(uri(json, context)), json.nextToken());
+        }
+
+        return deserializer.deserializeTypedFromObject(replay(json, context), context);
+    }
+
+    private static Object dispatch(final JsonParser json, final DeserializationContext context,
+            final JsonDeserializer<Object> subtype) throws IOException {
+
+        if (subtype instanceof BeanDeserializerBase) {
+            @Nullable final SettableBeanProperty property = ((BeanDeserializerBase) subtype).findProperty(TYPE);
+
+            if (property == null) {
+                json.nextToken();
+                return subtype.deserialize(json, context);
+            }
+
+            if (!(property instanceof CreatorProperty)) {
+                // sets the type after all other properties, rather than before them
+                @Nullable final Object type = property.deserialize(json, context);
+                json.nextToken();
+                final Object problem = subtype.deserialize(json, context);
+                property.set(problem, type);
+                return problem;
+            }
+        }
+
+        return subtype.deserialize(replay(json, context), context);
+    }
+
+    private static boolean isSubtype(@Nullable final JavaType type) {
+        return type != null && type.getRawClass() != DefaultProblem.class;
+    }
+
+    /**
+     * Puts the already consumed {@code type} back in front of the remaining tokens.
+     *
+     * @return a parser, positioned at the {@code type}
+     */
+    private static JsonParser replay(final JsonParser json, final DeserializationContext context) throws IOException {
+
+        final TokenBuffer buffer = new TokenBuffer(json, context);
+        buffer.writeFieldName(TYPE);
+        buffer.copyCurrentStructure(json);
+
+        final JsonParser sequence = JsonParserSequence.createFlattened(false, buffer.asParser(json), json);
+        sequence.nextToken();
+        return sequence;
+    }
+
+    @Override
+    public DefaultProblem deserialize(final JsonParser json, final DeserializationContext context)
+            throws IOException {
+
+        final JsonToken token = json.currentToken();
+
+        if (token == START_OBJECT) {
+            return read(json, context, Problem.builder(), json.nextToken());
+        } else if (token == FIELD_NAME || token == END_OBJECT) {
+            return read(json, context, Problem.builder(), token);
+        }
+
+        return (DefaultProblem) context.handleUnexpectedToken(DefaultProblem.class, json);
+    }
+
+    private DefaultProblem read(final JsonParser json, final DeserializationContext context,
+            final ProblemBuilder builder, @Nullable final JsonToken first) throws IOException {
+
+        int parameters = 0;
+
+        for (JsonToken token = first; token == FIELD_NAME; token = json.nextToken()) {
+            final String name = json.currentName();
+            json.nextToken();
+
+            switch (name) {
+                case "type":
+                    builder.withType(uri(json, context));
+                    break;
+                case "title":
+                    builder.withTitle(string(json, context));
+                    break;
+                case "status":
+                    builder.withStatus(status(json, context));
+                    break;
+                case "detail":
+                    builder.withDetail(string(json, context));
+                    break;
+                case "instance":
+                    builder.withInstance(uri(json, context));
+                    break;
+                case "cause":
+                    builder.withCause(cause(json, context));
+                    break;
+                default:
+                    limits.checkParameters(json, ++parameters);
+                    parameter(json, context, builder, name);
+                    break;
+            }
+        }
+
+        return (DefaultProblem) builder.build();
+    }
+
+    @Nullable
+    private URI uri(final JsonParser json, final DeserializationContext context) throws IOException {
+        if (json.currentToken() == VALUE_NULL) {
+            return null;
+        }
+        return (URI) resolved(uris).deserialize(json, context);
+    }
+
+    @Nullable
+    private String string(final JsonParser json, final DeserializationContext context) throws IOException {
+        final JsonToken token = json.currentToken();
+
+        if (token == VALUE_STRING) {
+            limits.checkStringLength(json);
+            return json.getText();
+        } else if (token == VALUE_NULL) {
+            return null;
+        }
+
+        return context.readValue(json, String.class);
+    }
+
+    @Nullable
+    private StatusType status(final JsonParser json, final DeserializationContext context) throws IOException {
+        if (json.currentToken() == VALUE_NULL) {
+            return null;
+        }
+        return statuses.deserialize(json, context);
+    }
+
+    @Nullable
+    private ThrowableProblem cause(final JsonParser json, final DeserializationContext context) throws IOException {
+        if (json.currentToken() == VALUE_NULL) {
+            return null;
+        }
+
+        @Nullable JsonDeserializer<Object> deserializer = causes;
+
+        if (deserializer == null) {
+            // resolved lazily, since it's (a type wrapper around) this deserializer
+            deserializer = context.findRootValueDeserializer(context.constructType(ThrowableProblem.class));
+            causes = deserializer;
+        }
+
+        if (limits.isNone()) {
+            return (ThrowableProblem) deserializer.deserialize(json, context);
+        }
+
+        final int parent = causeDepth(context);
+        final int depth = parent + 1;
+
+        limits.checkCauseDepth(json, depth);
+        // the outermost problem is at depth 1
+        limits.checkDepth(json, depth + 1);
+
+        context.setAttribute(CAUSE_DEPTH, depth);
+
+        try {
+            return (ThrowableProblem) deserializer.deserialize(json, context);
+        } finally {
+            context.setAttribute(CAUSE_DEPTH, parent);
+        }
+    }
+
+    private static int causeDepth(final DeserializationContext context) {
+        @Nullable final Integer depth = (Integer) context.getAttribute(CAUSE_DEPTH);
+        return depth == null ? 0 : depth;
+    }
+
+    private void parameter(final JsonParser json, final DeserializationContext context,
+            final ProblemBuilder builder, final String name) throws IOException {
+
+        final JsonDeserializer<Object> deserializer = resolved(values);
+
+        if (raw && json.currentToken().isStructStart() && json.getCodec() != null) {
+            builder.with(name, new BufferedParameter(buffer(json, context), json.getCodec(), context.getConfig()));
+            return;
+        }
+
+        if (limits.isDepthLimited() && json.currentToken().isStructStart()) {
+            // the default deserializers recurse without any bound, i.e. the depth has to be checked up front
+            try (JsonParser tokens = new BufferedNumbersParser(buffer(json, context).asParser(json))) {
+                tokens.nextToken();
+                builder.with(name, deserializer.deserialize(tokens, context));
+            }
+            return;
+        }
+
+        if (vanilla) {
+            // same results as the vanilla deserializer, but primitives are stored without boxing
+            switch (json.currentToken()) {
+                case VALUE_STRING:
+                    builder.with(name, (Object) json.getText());
+                    return;
+                case VALUE_NUMBER_INT:
+                    if (context.hasSomeOfFeatures(USE_BIG_INTEGER_FOR_INTS.getMask() | USE_LONG_FOR_INTS.getMask())) {
+                        break;
+                    }
+                    switch (json.getNumberType()) {
+                        case INT:
+                            builder.with(name, json.getIntValue());
+                            return;
+                        case LONG:
+                            builder.with(name, json.getLongValue());
+                            return;
+                        default:
+                            break;
+                    }
+                    break;
+                case VALUE_NUMBER_FLOAT:
+                    if (json.getNumberType() == JsonParser.NumberType.DOUBLE && !context.isEnabled(USE_BIG_DECIMAL_FOR_FLOATS)) {
+                        builder.with(name, json.getDoubleValue());
+                        return;
+                    }
+                    break;
+                case VALUE_TRUE:
+                case VALUE_FALSE:
+                    builder.with(name, json.getBooleanValue());
+                    return;
+                default:
+                    break;
+            }
+        }
+
+        if (json.currentToken() == VALUE_NULL) {
+            builder.with(name, (Object) null);
+        } else {
+            builder.with(name, deserializer.deserialize(json, context));
+        }
+    }
+
+    private TokenBuffer buffer(final JsonParser json, final DeserializationContext context) throws IOException {
+        // parameters are members of the problem, which is one level deeper than its cause depth
+        return limits.buffer(json, context, causeDepth(context) + 1);
+    }
+
+    private static JsonDeserializer<Object> resolved(@Nullable final JsonDeserializer<Object> deserializer) {
+        if (deserializer == null) {
+            throw new IllegalStateException("Not contextualized");
+        }
+        return deserializer;
+    }
+
+}
@@ -0,0 +1,131 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.zalando.problem.DefaultProblem;
+import org.zalando.problem.Problem;
+import org.zalando.problem.StatusType;
+import org.zalando.problem.ThrowableProblem;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Writes {@link DefaultProblem default problems} straight to the generator, producing the same output as the
+ * {@link ProblemMixIn mixin} based bean serializer, i.e. empty values are omitted and the {@link Problem#DEFAULT_TYPE
+ * default type} is not written. Other problem classes, which may declare additional bean properties, are still
+ * serialized using the mixins.
+ */
+final class DefaultProblemSerializer extends JsonSerializer<DefaultProblem> {
+
+    private static final SerializableString TYPE = new SerializedString("type");
+    private static final SerializableString TITLE = new SerializedString("title");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString DETAIL = new SerializedString("detail");
+    private static final SerializableString INSTANCE = new SerializedString("instance");
+    private static final SerializableString CAUSE = new SerializedString("cause");
+    private static final SerializableString STACKTRACE = new SerializedString("stacktrace");
+    private static final SerializableString STACKTRACE_SAMPLED_OUT = new SerializedString("stacktraceSampledOut");
+
+    private final ParametersSerializer parameters = new ParametersSerializer();
+    private final boolean stackTraces;
+    private final StackTraceSerializer frames;
+
+    DefaultProblemSerializer(final boolean stackTraces, final StackTraceSerializer frames) {
+        this.stackTraces = stackTraces;
+        this.frames = frames;
+    }
+
+    @Override
+    public Class<DefaultProblem> handledType() {
+        return DefaultProblem.class;
+    }
+
+    @Override
+    public void serialize(final DefaultProblem problem, final JsonGenerator json,
+            final SerializerProvider provider) throws IOException {
+
+        json.writeStartObject(problem);
+        writeFields(problem, json, provider);
+        json.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(final DefaultProblem problem, final JsonGenerator json,
+            final SerializerProvider provider, final TypeSerializer serializer) throws IOException {
+
+        // the type id is an existing property, i.e. this neither writes nor wraps anything but the object itself
+        final WritableTypeId id = serializer.writeTypePrefix(json,
+                serializer.typeId(problem, JsonToken.START_OBJECT));
+        writeFields(problem, json, provider);
+        serializer.writeTypeSuffix(json, id);
+    }
+
+    private void writeFields(final DefaultProblem problem, final JsonGenerator json,
+            final SerializerProvider provider) throws IOException {
+
+        @Nullable final URI type = problem.getType();
+        if (!Problem.DEFAULT_TYPE.equals(type)) {
+            writeURI(json, TYPE, type);
+        }
+
+        writeString(json, TITLE, problem.getTitle());
+
+        @Nullable final StatusType status = problem.getStatus();
+        if (status != null) {
+            json.writeFieldName(STATUS);
+            json.writeNumber(status.getStatusCode());
+        }
+
+        writeString(json, DETAIL, problem.getDetail());
+        writeURI(json, INSTANCE, problem.getInstance());
+
+        @Nullable final ThrowableProblem cause = problem.getCause();
+        if (cause != null) {
+            json.writeFieldName(CAUSE);
+            provider.findTypedValueSerializer(cause.getClass(), true, null)
+                    .serialize(cause, json, provider);
+        }
+
+        if (stackTraces) {
+            final StackTraceElement[] stackTrace = problem.getStackTrace();
+
+            if (!frames.isEmpty(provider, stackTrace)) {
+                json.writeFieldName(STACKTRACE);
+                frames.serialize(stackTrace, json, provider);
+            }
+
+            if (problem.isStackTraceSampledOut()) {
+                json.writeFieldName(STACKTRACE_SAMPLED_OUT);
+                json.writeBoolean(true);
+            }
+        }
+
+        parameters.serialize(problem.getParameters(), json, provider);
+    }
+
+    private static void writeString(final JsonGenerator json, final SerializableString name,
+            @Nullable final String value) throws IOException {
+
+        if (value != null && !value.isEmpty()) {
+            json.writeFieldName(name);
+            json.writeString(value);
+        }
+    }
+
+    private static void writeURI(final JsonGenerator json, final SerializableString name,
+            @Nullable final URI value) throws IOException {
+
+        if (value != null) {
+            writeString(json, name, value.toString());
+        }
+    }
+
+}
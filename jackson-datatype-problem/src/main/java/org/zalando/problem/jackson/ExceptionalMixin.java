@@ -4,10 +4,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.annotation.JsonSerialize;
-import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import org.zalando.problem.ThrowableProblem;
 
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_DEFAULT;
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -22,11 +21,15 @@ interface ExceptionalMixin {
     @JsonInclude(NON_NULL)
     ThrowableProblem getCause();
 
-    // decision about inclusion is up to derived mixins
+    // decision about inclusion is up to derived mixins, serialized using StackTraceSerializer
     @JsonProperty("stacktrace")
-    @JsonSerialize(contentUsing = ToStringSerializer.class)
     StackTraceElement[] getStackTrace();
 
+    // only written if stack traces are, see derived mixins
+    @JsonProperty("stacktraceSampledOut")
+    @JsonInclude(NON_DEFAULT)
+    boolean isStackTraceSampledOut();
+
     @JsonIgnore
     Throwable[] getSuppressed();
 
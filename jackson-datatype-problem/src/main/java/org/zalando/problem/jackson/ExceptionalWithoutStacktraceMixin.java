@@ -10,4 +10,8 @@ interface ExceptionalWithoutStacktraceMixin extends ExceptionalMixin {
     @JsonIgnore
     StackTraceElement[] getStackTrace();
 
+    @Override
+    @JsonIgnore
+    boolean isStackTraceSampledOut();
+
 }
@@ -0,0 +1,136 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+
+/**
+ * Limits for reading {@link org.zalando.problem.DefaultProblem default problems} from untrusted sources. A limit of
+ * {@code 0} disables the respective check.
+ *
+ * @see ProblemModule#withMaxDepth(int)
+ * @see ProblemModule#withMaxCauseDepth(int)
+ * @see ProblemModule#withMaxParameters(int)
+ * @see ProblemModule#withMaxStringLength(int)
+ */
+final class Limits {
+
+    static final Limits NONE = new Limits(0, 0, 0, 0);
+
+    private final int depth;
+    private final int causes;
+    private final int parameters;
+    private final int length;
+
+    private Limits(final int depth, final int causes, final int parameters, final int length) {
+        this.depth = depth;
+        this.causes = causes;
+        this.parameters = parameters;
+        this.length = length;
+    }
+
+    Limits withMaxDepth(final int depth) {
+        return new Limits(nonNegative(depth, "Max depth"), causes, parameters, length);
+    }
+
+    Limits withMaxCauseDepth(final int causes) {
+        return new Limits(depth, nonNegative(causes, "Max cause depth"), parameters, length);
+    }
+
+    Limits withMaxParameters(final int parameters) {
+        return new Limits(depth, causes, nonNegative(parameters, "Max parameters"), length);
+    }
+
+    Limits withMaxStringLength(final int length) {
+        return new Limits(depth, causes, parameters, nonNegative(length, "Max string length"));
+    }
+
+    private static int nonNegative(final int limit, final String name) {
+        if (limit < 0) {
+            throw new IllegalArgumentException(name + " must not be negative");
+        }
+        return limit;
+    }
+
+    boolean isNone() {
+        return depth == 0 && causes == 0;
+    }
+
+    boolean isDepthLimited() {
+        return depth > 0;
+    }
+
+    /**
+     * @param json the current parser
+     * @param depth the nesting depth of the current object or array, the outermost problem being at depth 1
+     * @throws ProblemLimitException if it's nested too deeply
+     */
+    void checkDepth(final JsonParser json, final int depth) throws ProblemLimitException {
+        if (this.depth > 0 && depth > this.depth) {
+            throw new ProblemLimitException(json, "Nesting depth exceeds the maximum of " + this.depth);
+        }
+    }
+
+    void checkCauseDepth(final JsonParser json, final int depth) throws ProblemLimitException {
+        if (causes > 0 && depth > causes) {
+            throw new ProblemLimitException(json, "Cause depth exceeds the maximum of " + causes);
+        }
+    }
+
+    void checkParameters(final JsonParser json, final int count) throws ProblemLimitException {
+        if (parameters > 0 && count > parameters) {
+            throw new ProblemLimitException(json, "Number of parameters exceeds the maximum of " + parameters);
+        }
+    }
+
+    /**
+     * @param json a parser, positioned at a string
+     * @throws IOException if the string is too long
+     */
+    void checkStringLength(final JsonParser json) throws IOException {
+        if (length > 0 && json.getTextLength() > length) {
+            throw new ProblemLimitException(json, "String length exceeds the maximum of " + length);
+        }
+    }
+
+    /**
+     * Buffers the current value, checking the depth of every object and array in it before it's read any further.
+     *
+     * @param json a parser, positioned at the first token of the value
+     * @param context the current context
+     * @param parent the nesting depth of the object the value is a member of
+     * @return the buffered value, the parser being positioned at its last token
+     * @throws IOException if the value can't be read or is nested too deeply
+     */
+    TokenBuffer buffer(final JsonParser json, final DeserializationContext context, final int parent)
+            throws IOException {
+
+        final TokenBuffer buffer = new TokenBuffer(json, context);
+
+        if (depth == 0) {
+            buffer.copyCurrentStructure(json);
+            return buffer;
+        }
+
+        int level = 0;
+
+        do {
+            final JsonToken token = json.currentToken();
+
+            if (token.isStructStart()) {
+                level++;
+                checkDepth(json, parent + level);
+            } else if (token.isStructEnd()) {
+                level--;
+            }
+
+            BufferedNumbersParser.copyCurrentEvent(json, buffer);
+        } while (level > 0 && json.nextToken() != null);
+
+        return buffer;
+    }
+
+}
@@ -0,0 +1,213 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.zalando.problem.ParameterVisitor;
+import org.zalando.problem.RawParameter;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.fasterxml.jackson.databind.SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS;
+
+/**
+ * Writes parameters as fields of the enclosing problem, i.e. it's meant to be used for a
+ * {@link com.fasterxml.jackson.annotation.JsonAnyGetter}. Primitive parameters are written without boxing,
+ * {@link BufferedParameter buffered} ones without decoding them. Values are left out according to the configured
+ * content inclusion of maps, e.g. a global {@link JsonInclude.Include#NON_NULL NON_NULL}, just like the
+ * {@link com.fasterxml.jackson.databind.ser.std.MapSerializer MapSerializer} of a plain any-getter would.
+ */
+final class ParametersSerializer extends JsonSerializer<Map<String, Object>> {
+
+    @Override
+    public void serialize(final Map<String, Object> parameters, final JsonGenerator json,
+            final SerializerProvider provider) throws IOException {
+
+        final ParameterVisitor<IOException> writer = new FieldWriter(json, provider, Inclusion.of(provider));
+
+        if (provider.isEnabled(ORDER_MAP_ENTRIES_BY_KEYS)) {
+            writeSorted(parameters, writer);
+        } else {
+            ParameterVisitor.visitAll(parameters, writer);
+        }
+    }
+
+    /**
+     * Sorts parameters by key, with a null key first, while keeping raw parameters as they are.
+     */
+    private static void writeSorted(final Map<String, Object> parameters, final ParameterVisitor<IOException> writer)
+            throws IOException {
+
+        final Map<String, Object> sorted = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        ParameterVisitor.visitAll(parameters, new ParameterVisitor<RuntimeException>() {
+
+            @Override
+            public void visit(final String key, @Nullable final Object value) {
+                sorted.put(key, value);
+            }
+
+            @Override
+            public void visitRaw(final String key, final RawParameter value) {
+                sorted.put(key, value);
+            }
+
+        });
+
+        for (final Map.Entry<String, Object> entry : sorted.entrySet()) {
+            if (entry.getValue() instanceof RawParameter) {
+                writer.visitRaw(entry.getKey(), (RawParameter) entry.getValue());
+            } else {
+                writer.visit(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private static final class FieldWriter implements ParameterVisitor<IOException> {
+
+        private final JsonGenerator json;
+        private final SerializerProvider provider;
+        private final Inclusion inclusion;
+
+        FieldWriter(final JsonGenerator json, final SerializerProvider provider, final Inclusion inclusion) {
+            this.json = json;
+            this.provider = provider;
+            this.inclusion = inclusion;
+        }
+
+        @Override
+        public void visit(final String key, @Nullable final Object value) throws IOException {
+            if (inclusion.includes(provider, value)) {
+                writeName(key);
+                provider.defaultSerializeValue(value, json);
+            }
+        }
+
+        @Override
+        public void visitInt(final String key, final int value) throws IOException {
+            if (inclusion.filter == null) {
+                writeName(key);
+                json.writeNumber(value);
+            } else {
+                visit(key, value);
+            }
+        }
+
+        @Override
+        public void visitLong(final String key, final long value) throws IOException {
+            if (inclusion.filter == null) {
+                writeName(key);
+                json.writeNumber(value);
+            } else {
+                visit(key, value);
+            }
+        }
+
+        @Override
+        public void visitDouble(final String key, final double value) throws IOException {
+            if (inclusion.filter == null) {
+                writeName(key);
+                json.writeNumber(value);
+            } else {
+                visit(key, value);
+            }
+        }
+
+        @Override
+        public void visitBoolean(final String key, final boolean value) throws IOException {
+            if (inclusion.filter == null) {
+                writeName(key);
+                json.writeBoolean(value);
+            } else {
+                visit(key, value);
+            }
+        }
+
+        @Override
+        public void visitRaw(final String key, final RawParameter value) throws IOException {
+            // whether structured values are empty or match a filter is only known after decoding them
+            if (value instanceof BufferedParameter && !inclusion.empty && inclusion.filter == null) {
+                writeName(key);
+                ((BufferedParameter) value).serialize(json);
+            } else {
+                visit(key, value.decode());
+            }
+        }
+
+        /**
+         * Writes a null key using the configured null key serializer, which fails by default, like for any map.
+         */
+        private void writeName(@Nullable final String key) throws IOException {
+            if (key == null) {
+                provider.findNullKeySerializer(provider.constructType(String.class), null)
+                        .serialize(null, json, provider);
+            } else {
+                json.writeFieldName(key);
+            }
+        }
+
+    }
+
+    /**
+     * The content inclusion of maps, resolved the same way the {@code MapSerializer} does for values of type
+     * {@link Object}, for which {@code NON_DEFAULT} and {@code NON_ABSENT} are equivalent to {@code NON_NULL}.
+     * Primitives are never null or empty, i.e. only a custom filter may exclude them.
+     */
+    private static final class Inclusion {
+
+        private static final Inclusion ALWAYS = new Inclusion(false, false, null);
+        private static final Inclusion NON_NULL = new Inclusion(true, false, null);
+        private static final Inclusion NON_EMPTY = new Inclusion(true, true, null);
+
+        private final boolean nulls;
+        private final boolean empty;
+
+        @Nullable
+        private final Object filter;
+
+        private Inclusion(final boolean nulls, final boolean empty, @Nullable final Object filter) {
+            this.nulls = nulls;
+            this.empty = empty;
+            this.filter = filter;
+        }
+
+        static Inclusion of(final SerializerProvider provider) throws JsonMappingException {
+            final JsonInclude.Value value = provider.getConfig().getDefaultInclusion(Map.class, Map.class);
+
+            switch (value.getContentInclusion()) {
+                case NON_NULL:
+                case NON_ABSENT:
+                case NON_DEFAULT:
+                    return NON_NULL;
+                case NON_EMPTY:
+                    return NON_EMPTY;
+                case CUSTOM:
+                    @Nullable final Object filter = provider.includeFilterInstance(null, value.getContentFilter());
+                    return filter == null ?
+                            NON_NULL :
+                            new Inclusion(provider.includeFilterSuppressNulls(filter), false, filter);
+                default:
+                    return ALWAYS;
+            }
+        }
+
+        boolean includes(final SerializerProvider provider, @Nullable final Object value) throws IOException {
+            if (value == null) {
+                return !nulls;
+            } else if (filter != null) {
+                return !filter.equals(value);
+            } else if (empty) {
+                return !provider.findValueSerializer(value.getClass()).isEmpty(provider, value);
+            }
+            return true;
+        }
+
+    }
+
+}
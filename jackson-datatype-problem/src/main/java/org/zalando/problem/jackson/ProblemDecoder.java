@@ -0,0 +1,195 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.apiguardian.api.API;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.zalando.problem.Problem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_TRAILING_TOKENS;
+import static java.util.Objects.requireNonNull;
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
+
+/**
+ * Decodes a single problem from a body that arrives in chunks, e.g. from a non-blocking HTTP client, without
+ * aggregating the body first:
+ *
+ * <pre>{@code
+ * ProblemDecoder decoder = new ProblemDecoder(mapper);
+ *
+ * // for every chunk
+ * decoder.feed(chunk);
+ *
+ * // at the end of the body
+ * Problem problem = decoder.end();
+ * }</pre>
+ *
+ * Chunks are parsed as soon as they are fed, using a non-blocking parser of the mapper's factory, and may be reused
+ * by the caller afterwards. Only the parsed tokens of the problem are kept until it's complete. It's then read
+ * using the given mapper, i.e. including the {@link ProblemModule module's} status types and subtypes.
+ *
+ * Decoders are stateful and not thread-safe. Create one per body.
+ */
+@API(status = EXPERIMENTAL)
+public final class ProblemDecoder {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final ObjectReader reader;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    @Nullable
+    private TokenBuffer buffer;
+
+    @Nullable
+    private byte[] scratch;
+
+    private int depth;
+
+    @Nullable
+    private Problem problem;
+
+    /**
+     * @param mapper the mapper to read the problem with
+     * @throws IOException if the non-blocking parser can't be created
+     */
+    public ProblemDecoder(final ObjectMapper mapper) throws IOException {
+        this.reader = requireNonNull(mapper, "Mapper").readerFor(Problem.class);
+        this.parser = mapper.getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+
+        this.buffer = new TokenBuffer(parser);
+    }
+
+    /**
+     * @param chunk the next chunk of the body
+     * @return the problem, once it is complete, otherwise {@code null}
+     * @throws IOException if the body is malformed or can't be read as a problem
+     */
+    @Nullable
+    public Problem feed(final byte[] chunk) throws IOException {
+        return feed(chunk, 0, chunk.length);
+    }
+
+    /**
+     * @param chunk the array holding the next chunk of the body
+     * @param offset the offset of the chunk within the array
+     * @param length the length of the chunk
+     * @return the problem, once it is complete, otherwise {@code null}
+     * @throws IOException if the body is malformed or can't be read as a problem
+     */
+    @Nullable
+    public Problem feed(final byte[] chunk, final int offset, final int length) throws IOException {
+        feeder.feedInput(chunk, offset, offset + length);
+        return drain();
+    }
+
+    /**
+     * Consumes all remaining bytes of the given buffer.
+     *
+     * @param chunk the next chunk of the body
+     * @return the problem, once it is complete, otherwise {@code null}
+     * @throws IOException if the body is malformed or can't be read as a problem
+     */
+    @Nullable
+    public Problem feed(final ByteBuffer chunk) throws IOException {
+        if (chunk.hasArray()) {
+            final int length = chunk.remaining();
+            feed(chunk.array(), chunk.arrayOffset() + chunk.position(), length);
+            chunk.position(chunk.position() + length);
+            return problem;
+        }
+
+        // chunks are consumed completely before returning, i.e. the copy can be reused for direct buffers
+        @Nullable byte[] scratch = this.scratch;
+        if (scratch == null) {
+            scratch = new byte[CHUNK_SIZE];
+            this.scratch = scratch;
+        }
+
+        while (chunk.hasRemaining()) {
+            final int length = Math.min(chunk.remaining(), scratch.length);
+            chunk.get(scratch, 0, length);
+            feed(scratch, 0, length);
+        }
+
+        return problem;
+    }
+
+    /**
+     * Signals the end of the body.
+     *
+     * @return the problem
+     * @throws IOException if the body is empty, incomplete, malformed or can't be read as a problem
+     */
+    public Problem end() throws IOException {
+        feeder.endOfInput();
+
+        try {
+            @Nullable final Problem problem = drain();
+
+            if (problem == null) {
+                throw MismatchedInputException.from(parser, Problem.class,
+                        "No content to map due to end-of-input");
+            }
+
+            return problem;
+        } finally {
+            parser.close();
+        }
+    }
+
+    @Nullable
+    private Problem drain() throws IOException {
+        @Nullable JsonToken token;
+
+        while ((token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+            @Nullable final TokenBuffer buffer = this.buffer;
+
+            if (buffer == null) {
+                if (reader.isEnabled(FAIL_ON_TRAILING_TOKENS)) {
+                    throw MismatchedInputException.from(parser, Problem.class, String.format(
+                            "Trailing token (of type %s) found after value", token));
+                }
+                continue;
+            }
+
+            BufferedNumbersParser.copyCurrentEvent(parser, buffer);
+
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+
+            if (depth == 0) {
+                this.buffer = null;
+                this.problem = read(buffer);
+            }
+        }
+
+        return problem;
+    }
+
+    private Problem read(final TokenBuffer buffer) throws IOException {
+        try (JsonParser tokens = new BufferedNumbersParser(buffer.asParser(reader))) {
+            @Nullable final Problem problem = reader.readValue(tokens);
+
+            if (problem == null) {
+                throw MismatchedInputException.from(parser, Problem.class, "Expected problem, but got null");
+            }
+
+            return problem;
+        }
+    }
+
+}
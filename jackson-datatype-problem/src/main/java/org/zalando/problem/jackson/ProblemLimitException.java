@@ -0,0 +1,21 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+/**
+ * Signals that a problem exceeds one of the configured {@link Limits limits}. It's thrown for untrusted input, possibly
+ * at a high rate, and doesn't fill in its stack trace, which would only point to the check that failed.
+ */
+final class ProblemLimitException extends JsonMappingException {
+
+    ProblemLimitException(final JsonParser json, final String message) {
+        super(json, message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+}
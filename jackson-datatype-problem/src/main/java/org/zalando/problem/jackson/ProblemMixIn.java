@@ -44,6 +44,7 @@ interface ProblemMixIn extends Problem {
     URI getInstance();
 
     @JsonAnyGetter
+    @JsonSerialize(using = ParametersSerializer.class)
     @Override
     Map<String, Object> getParameters();
 
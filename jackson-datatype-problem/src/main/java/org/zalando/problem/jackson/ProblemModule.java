@@ -3,25 +3,37 @@ package org.zalando.problem.jackson;
 import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.core.util.VersionUtil;
 import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import org.apiguardian.api.API;
+import org.zalando.problem.AbstractThrowableProblem;
 import org.zalando.problem.DefaultProblem;
 import org.zalando.problem.Exceptional;
 import org.zalando.problem.Problem;
 import org.zalando.problem.Status;
+import org.zalando.problem.StatusRegistry;
 import org.zalando.problem.StatusType;
+import org.zalando.problem.ThrowableProblem;
 
-import java.util.Collections;
-import java.util.HashMap;
+import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
 import static org.apiguardian.api.API.Status.STABLE;
 
 @API(status = STABLE)
 public final class ProblemModule extends Module {
 
     private final boolean stackTraces;
-    private final Map<Integer, StatusType> statuses;
+    private final int maxFrames;
+    private final boolean rawParameters;
+    private final Limits limits;
+    private final StatusRegistry statuses;
+    private final Map<URI, Class<? extends Problem>> subtypes;
 
     /**
      * TODO document
@@ -43,12 +55,28 @@ public final class ProblemModule extends Module {
     public <E extends Enum<?> & StatusType> ProblemModule(final Class<? extends E>... types)
             throws IllegalArgumentException {
 
-        this(false, buildIndex(types));
+        this(false, 0, false, Limits.NONE, StatusRegistry.of(types), emptyMap());
     }
 
-    private ProblemModule(final boolean stackTraces, final Map<Integer, StatusType> statuses) {
+    /**
+     * Creates a module that resolves status codes using the given registry, which may contain any kind of
+     * {@link StatusType} and can be shared with other modules.
+     *
+     * @param statuses the status registry
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemModule(final StatusRegistry statuses) {
+        this(false, 0, false, Limits.NONE, requireNonNull(statuses, "Statuses"), emptyMap());
+    }
+
+    private ProblemModule(final boolean stackTraces, final int maxFrames, final boolean rawParameters,
+            final Limits limits, final StatusRegistry statuses, final Map<URI, Class<? extends Problem>> subtypes) {
         this.stackTraces = stackTraces;
+        this.maxFrames = maxFrames;
+        this.rawParameters = rawParameters;
+        this.limits = limits;
         this.statuses = statuses;
+        this.subtypes = unmodifiableMap(subtypes);
     }
 
 
@@ -75,35 +103,154 @@ public final class ProblemModule extends Module {
         module.setMixInAnnotation(DefaultProblem.class, AbstractThrowableProblemMixIn.class);
         module.setMixInAnnotation(Problem.class, ProblemMixIn.class);
 
+        final StackTraceSerializer frames = new StackTraceSerializer(maxFrames);
+        module.setSerializerModifier(new StackTraceSerializerModifier(frames));
+        module.addSerializer(DefaultProblem.class, new DefaultProblemSerializer(stackTraces, frames));
+
+        final StatusTypeDeserializer deserializer = new StatusTypeDeserializer(statuses);
+        final DefaultProblemDeserializer problems = new DefaultProblemDeserializer(deserializer, subtypes,
+                rawParameters, limits);
+
+        subtypes.forEach((type, subtype) -> module.registerSubtypes(new NamedType(subtype, type.toString())));
+
         module.addSerializer(StatusType.class, new StatusTypeSerializer());
-        module.addDeserializer(StatusType.class, new StatusTypeDeserializer(statuses));
+        module.addDeserializer(StatusType.class, deserializer);
+
+        module.addDeserializer(DefaultProblem.class, problems);
+        module.addDeserializer(AbstractThrowableProblem.class, problems);
+        module.addDeserializer(ThrowableProblem.class, problems);
+        module.addDeserializer(Exceptional.class, problems);
+        module.addDeserializer(Problem.class, problems);
 
         module.setupModule(context);
     }
 
-    @SafeVarargs
-    private static <E extends Enum<?> & StatusType> Map<Integer, StatusType> buildIndex(
-            final Class<? extends E>... types) {
-        final Map<Integer, StatusType> index = new HashMap<>();
-
-        for (final Class<? extends E> type : types) {
-            for (final E status : type.getEnumConstants()) {
-                if (index.containsKey(status.getStatusCode())) {
-                    throw new IllegalArgumentException("Duplicate status codes are not allowed");
-                }
-                index.put(status.getStatusCode(), status);
-            }
+    public ProblemModule withStackTraces() {
+        return withStackTraces(true);
+    }
+
+    public ProblemModule withStackTraces(final boolean stackTraces) {
+        return new ProblemModule(stackTraces, maxFrames, rawParameters, limits, statuses, subtypes);
+    }
+
+    /**
+     * Limits serialized stack traces to their top {@code maxFrames} frames. This has no effect unless
+     * {@link #withStackTraces() stack traces} are enabled.
+     *
+     * @param maxFrames the maximum number of frames to serialize, {@code 0} serializes complete stack traces
+     * @return a copy of this module with the given maximum number of frames
+     * @throws IllegalArgumentException if maxFrames is negative
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemModule withMaxStackTraceFrames(final int maxFrames) throws IllegalArgumentException {
+        if (maxFrames < 0) {
+            throw new IllegalArgumentException("Max frames must not be negative");
         }
+        return new ProblemModule(stackTraces, maxFrames, rawParameters, limits, statuses, subtypes);
+    }
 
-        return Collections.unmodifiableMap(index);
+    @API(status = EXPERIMENTAL)
+    public ProblemModule withRawParameters() {
+        return withRawParameters(true);
     }
 
-    public ProblemModule withStackTraces() {
-        return withStackTraces(true);
+    /**
+     * Keeps object and array parameters of deserialized {@link DefaultProblem default problems} as raw tokens. They
+     * are only decoded when being accessed through {@link Problem#getParameters()} and written back out without
+     * decoding them, which is cheaper if problems are mostly passed through.
+     *
+     * @param rawParameters whether to keep object and array parameters as raw tokens
+     * @return a copy of this module
+     * @see org.zalando.problem.RawParameter
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemModule withRawParameters(final boolean rawParameters) {
+        return new ProblemModule(stackTraces, maxFrames, rawParameters, limits, statuses, subtypes);
     }
 
-    public ProblemModule withStackTraces(final boolean stackTraces) {
-        return new ProblemModule(stackTraces, statuses);
+    /**
+     * Limits the nesting depth of objects and arrays when reading problems, including causes and parameters. Problems
+     * that exceed it are rejected before reading any further, with an exception that has no stack trace.
+     *
+     * @param maxDepth the maximum nesting depth, {@code 0} disables the limit
+     * @return a copy of this module with the given maximum depth
+     * @throws IllegalArgumentException if maxDepth is negative
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemModule withMaxDepth(final int maxDepth) throws IllegalArgumentException {
+        return withLimits(limits.withMaxDepth(maxDepth));
+    }
+
+    /**
+     * Limits the number of causes, i.e. the length of the causal chain, when reading problems.
+     *
+     * @param maxCauseDepth the maximum number of nested causes, {@code 0} disables the limit
+     * @return a copy of this module with the given maximum cause depth
+     * @throws IllegalArgumentException if maxCauseDepth is negative
+     * @see #withMaxDepth(int)
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemModule withMaxCauseDepth(final int maxCauseDepth) throws IllegalArgumentException {
+        return withLimits(limits.withMaxCauseDepth(maxCauseDepth));
+    }
+
+    /**
+     * Limits the number of parameters, i.e. members other than the standard ones, per problem when reading
+     * {@link DefaultProblem default problems}.
+     *
+     * @param maxParameters the maximum number of parameters, {@code 0} disables the limit
+     * @return a copy of this module with the given maximum number of parameters
+     * @throws IllegalArgumentException if maxParameters is negative
+     * @see #withMaxDepth(int)
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemModule withMaxParameters(final int maxParameters) throws IllegalArgumentException {
+        return withLimits(limits.withMaxParameters(maxParameters));
+    }
+
+    /**
+     * Limits the length of {@link Problem#getTitle() titles} and {@link Problem#getDetail() details} when reading
+     * {@link DefaultProblem default problems}.
+     *
+     * @param maxStringLength the maximum number of characters, {@code 0} disables the limit
+     * @return a copy of this module with the given maximum string length
+     * @throws IllegalArgumentException if maxStringLength is negative
+     * @see #withMaxDepth(int)
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemModule withMaxStringLength(final int maxStringLength) throws IllegalArgumentException {
+        return withLimits(limits.withMaxStringLength(maxStringLength));
+    }
+
+    private ProblemModule withLimits(final Limits limits) {
+        return new ProblemModule(stackTraces, maxFrames, rawParameters, limits, statuses, subtypes);
+    }
+
+    /**
+     * Registers a subtype for the given problem type, i.e. problems of that type will be read as instances of it.
+     * Reading them doesn't require buffering if the {@code type} is the first property. This is an alternative to
+     * {@link com.fasterxml.jackson.databind.ObjectMapper#registerSubtypes(Class[]) registering subtypes} with a
+     * {@link com.fasterxml.jackson.annotation.JsonTypeName type name}.
+     *
+     * @param type the problem type
+     * @param subtype the problem class
+     * @return a copy of this module with the given subtype registered
+     * @throws IllegalArgumentException if there is already a subtype registered for the given type
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemModule registerSubtype(final URI type, final Class<? extends Problem> subtype)
+            throws IllegalArgumentException {
+
+        requireNonNull(type, "Type");
+        requireNonNull(subtype, "Subtype");
+
+        if (subtypes.containsKey(type)) {
+            throw new IllegalArgumentException("Duplicate subtype for " + type);
+        }
+
+        final Map<URI, Class<? extends Problem>> map = new LinkedHashMap<>(subtypes);
+        map.put(type, subtype);
+        return new ProblemModule(stackTraces, maxFrames, rawParameters, limits, statuses, map);
     }
 
 }
@@ -0,0 +1,240 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apiguardian.api.API;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.fasterxml.jackson.core.JsonToken.END_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_NUMBER_FLOAT;
+import static java.util.Objects.requireNonNull;
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
+
+/**
+ * Rewrites serialized problems by copying their tokens from a parser to a generator, without deserializing them,
+ * e.g. to pass problems of upstream services through a gateway:
+ *
+ * <pre>{@code
+ * ProblemRewriter rewriter = new ProblemRewriter()
+ *     .withMember("instance", URI.create("/orders/4711"))
+ *     .withMember("gateway", "eu-central-1")
+ *     .withoutStackTraces();
+ *
+ * rewriter.rewrite(factory.createParser(upstream), factory.createGenerator(downstream));
+ * }</pre>
+ *
+ * Members are replaced in place or, if the problem doesn't have them, appended. Their values are written using the
+ * generator's codec. Causes and stack traces are dropped at every level of the causal chain, all other changes only
+ * apply to the outermost problem.
+ *
+ * Rewriters are immutable, every {@code with...} method returns a modified copy.
+ */
+@API(status = EXPERIMENTAL)
+public final class ProblemRewriter {
+
+    private static final String CAUSE = "cause";
+    private static final String STACKTRACE = "stacktrace";
+    private static final String STACKTRACE_SAMPLED_OUT = "stacktraceSampledOut";
+
+    private final Map<String, Object> members;
+    private final Set<String> removals;
+    private final boolean causes;
+    private final boolean stackTraces;
+
+    public ProblemRewriter() {
+        this(Collections.emptyMap(), Collections.emptySet(), true, true);
+    }
+
+    private ProblemRewriter(final Map<String, Object> members, final Set<String> removals,
+            final boolean causes, final boolean stackTraces) {
+        this.members = members;
+        this.removals = removals;
+        this.causes = causes;
+        this.stackTraces = stackTraces;
+    }
+
+    /**
+     * @param name the member's name
+     * @param value the member's value
+     * @return a copy of this rewriter that replaces or adds the given member
+     */
+    public ProblemRewriter withMember(final String name, @Nullable final Object value) {
+        requireNonNull(name, "Name");
+
+        final Map<String, Object> members = new LinkedHashMap<>(this.members);
+        members.put(name, value);
+
+        final Set<String> removals = new HashSet<>(this.removals);
+        removals.remove(name);
+
+        return new ProblemRewriter(Collections.unmodifiableMap(members), Collections.unmodifiableSet(removals),
+                causes, stackTraces);
+    }
+
+    /**
+     * @param name the member's name
+     * @return a copy of this rewriter that drops the given member
+     */
+    public ProblemRewriter withoutMember(final String name) {
+        requireNonNull(name, "Name");
+
+        final Map<String, Object> members = new LinkedHashMap<>(this.members);
+        members.remove(name);
+
+        final Set<String> removals = new HashSet<>(this.removals);
+        removals.add(name);
+
+        return new ProblemRewriter(Collections.unmodifiableMap(members), Collections.unmodifiableSet(removals),
+                causes, stackTraces);
+    }
+
+    /**
+     * @return a copy of this rewriter that drops causes
+     */
+    public ProblemRewriter withoutCauses() {
+        return new ProblemRewriter(members, removals, false, stackTraces);
+    }
+
+    /**
+     * @return a copy of this rewriter that drops stack traces, including those of causes
+     */
+    public ProblemRewriter withoutStackTraces() {
+        return new ProblemRewriter(members, removals, causes, false);
+    }
+
+    /**
+     * Copies the next problem from the given parser to the given generator. Neither of them is closed or flushed.
+     *
+     * @param parser the parser, either before or at the start of the problem
+     * @param generator the generator
+     * @throws IOException if reading or writing fails or if the input isn't an object
+     */
+    public void rewrite(final JsonParser parser, final JsonGenerator generator) throws IOException {
+        final JsonToken token = parser.hasCurrentToken() ? parser.currentToken() : parser.nextToken();
+
+        if (token != START_OBJECT) {
+            throw new JsonParseException(parser, "Expected problem object, but got " + token);
+        }
+
+        final Set<String> written = members.isEmpty() ? Collections.emptySet() : new HashSet<>(members.size());
+        generator.writeStartObject();
+
+        @Nullable String name;
+
+        while ((name = nextName(parser)) != null) {
+            if (members.containsKey(name)) {
+                parser.skipChildren();
+                generator.writeFieldName(name);
+                generator.writeObject(members.get(name));
+                written.add(name);
+            } else if (removals.contains(name) || isDropped(name)) {
+                parser.skipChildren();
+            } else {
+                copy(name, parser, generator);
+            }
+        }
+
+        for (final Map.Entry<String, Object> member : members.entrySet()) {
+            if (!written.contains(member.getKey())) {
+                generator.writeFieldName(member.getKey());
+                generator.writeObject(member.getValue());
+            }
+        }
+
+        generator.writeEndObject();
+    }
+
+    /**
+     * @return the name of the next member, the parser being positioned at its value, or {@code null} at the end of
+     * the object
+     */
+    @Nullable
+    private static String nextName(final JsonParser parser) throws IOException {
+        final JsonToken token = parser.nextToken();
+
+        if (token == END_OBJECT) {
+            return null;
+        } else if (token != FIELD_NAME) {
+            throw new JsonParseException(parser, "Expected member or end of problem, but got " + token);
+        }
+
+        final String name = parser.currentName();
+        parser.nextToken();
+        return name;
+    }
+
+    private boolean isDropped(final String name) {
+        switch (name) {
+            case CAUSE:
+                return !causes;
+            case STACKTRACE:
+            case STACKTRACE_SAMPLED_OUT:
+                return !stackTraces;
+            default:
+                return false;
+        }
+    }
+
+    private void copy(final String name, final JsonParser parser, final JsonGenerator generator)
+            throws IOException {
+
+        generator.writeFieldName(name);
+
+        if (!stackTraces && CAUSE.equals(name) && parser.currentToken() == START_OBJECT) {
+            copyCause(parser, generator);
+        } else {
+            copyStructure(parser, generator);
+        }
+    }
+
+    /**
+     * Like {@link JsonGenerator#copyCurrentStructure(JsonParser)}, but keeps floating point numbers as written.
+     */
+    private static void copyStructure(final JsonParser parser, final JsonGenerator generator) throws IOException {
+        int depth = 0;
+
+        do {
+            final JsonToken token = parser.currentToken();
+
+            if (token == VALUE_NUMBER_FLOAT) {
+                generator.writeNumber(parser.getText());
+            } else {
+                generator.copyCurrentEvent(parser);
+            }
+
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+        } while (depth > 0 && parser.nextToken() != null);
+    }
+
+    private void copyCause(final JsonParser parser, final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+
+        @Nullable String name;
+
+        while ((name = nextName(parser)) != null) {
+            if (isDropped(name)) {
+                parser.skipChildren();
+            } else {
+                copy(name, parser, generator);
+            }
+        }
+
+        generator.writeEndObject();
+    }
+
+}
@@ -0,0 +1,223 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.ser.SerializerFactory;
+import org.apiguardian.api.API;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.zalando.problem.Problem;
+import org.zalando.problem.StatusType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Objects.requireNonNull;
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
+
+/**
+ * Writes problems using an {@link ObjectMapper}. {@link #cache(Problem) Cached} problems, e.g.
+ * {@link Problem#shared(org.zalando.problem.Status) shared} ones, are serialized once and their encoded bytes are
+ * copied to the output afterwards.
+ *
+ * Cached bytes are encoded again if the mapper got reconfigured or any of the problem's type, title, status, detail,
+ * instance, cause or parameters changed in the meantime. Other properties, e.g. of custom problems, are expected to
+ * be immutable.
+ */
+@API(status = EXPERIMENTAL)
+public final class ProblemWriter {
+
+    private final ObjectMapper mapper;
+
+    @Nullable
+    private volatile Configuration configuration;
+
+    /**
+     * Copied on write, since problems are expected to be cached up front and looked up very often afterwards.
+     */
+    private volatile Map<Problem, AtomicReference<Encoded>> cache = new IdentityHashMap<>();
+
+    public ProblemWriter(final ObjectMapper mapper) {
+        this.mapper = requireNonNull(mapper, "Mapper");
+    }
+
+    /**
+     * Encodes the given problem and keeps the result for subsequent writes.
+     *
+     * @param problem the problem to cache
+     * @return this writer
+     * @throws IOException if the problem can't be serialized
+     */
+    public ProblemWriter cache(final Problem problem) throws IOException {
+        requireNonNull(problem, "Problem");
+        final AtomicReference<Encoded> reference = new AtomicReference<>(encode(problem, configuration()));
+
+        synchronized (this) {
+            final Map<Problem, AtomicReference<Encoded>> copy = new IdentityHashMap<>(cache);
+            copy.putIfAbsent(problem, reference);
+            cache = copy;
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes the given problem to the stream, without closing it.
+     *
+     * @param stream the target stream
+     * @param problem the problem to write
+     * @throws IOException if writing fails
+     */
+    public void writeValue(final OutputStream stream, final Problem problem) throws IOException {
+        final Configuration configuration = configuration();
+        @Nullable final AtomicReference<Encoded> reference = cache.get(problem);
+
+        if (reference == null) {
+            configuration.writer.writeValue(stream, problem);
+        } else {
+            stream.write(encoded(reference, problem, configuration).bytes);
+        }
+    }
+
+    /**
+     * @param problem the problem to write
+     * @return the encoded problem
+     * @throws IOException if writing fails
+     */
+    public byte[] writeValueAsBytes(final Problem problem) throws IOException {
+        final Configuration configuration = configuration();
+        @Nullable final AtomicReference<Encoded> reference = cache.get(problem);
+
+        if (reference == null) {
+            return configuration.writer.writeValueAsBytes(problem);
+        }
+
+        return encoded(reference, problem, configuration).bytes.clone();
+    }
+
+    /**
+     * @param problem the problem to write
+     * @return a read-only buffer of the encoded problem, which is shared for cached problems
+     * @throws IOException if writing fails
+     */
+    public ByteBuffer writeValueAsByteBuffer(final Problem problem) throws IOException {
+        final Configuration configuration = configuration();
+        @Nullable final AtomicReference<Encoded> reference = cache.get(problem);
+
+        if (reference == null) {
+            return ByteBuffer.wrap(configuration.writer.writeValueAsBytes(problem)).asReadOnlyBuffer();
+        }
+
+        return encoded(reference, problem, configuration).buffer.duplicate();
+    }
+
+    private Encoded encoded(final AtomicReference<Encoded> reference, final Problem problem,
+            final Configuration configuration) throws IOException {
+
+        final Encoded encoded = reference.get();
+
+        if (encoded.configuration == configuration && encoded.matches(problem)) {
+            return encoded;
+        }
+
+        final Encoded current = encode(problem, configuration);
+        reference.set(current);
+        return current;
+    }
+
+    private static Encoded encode(final Problem problem, final Configuration configuration) throws IOException {
+        return new Encoded(configuration, problem, configuration.writer.writeValueAsBytes(problem));
+    }
+
+    /**
+     * Mappers replace their serialization config and serializer factory when being reconfigured, i.e. a change of
+     * either invalidates all encoded problems.
+     */
+    private Configuration configuration() {
+        @Nullable final Configuration current = configuration;
+        final SerializationConfig config = mapper.getSerializationConfig();
+        final SerializerFactory factory = mapper.getSerializerFactory();
+
+        if (current != null && current.config == config && current.factory == factory) {
+            return current;
+        }
+
+        final Configuration configuration = new Configuration(config, factory,
+                mapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+        this.configuration = configuration;
+        return configuration;
+    }
+
+    private static final class Configuration {
+
+        private final SerializationConfig config;
+        private final SerializerFactory factory;
+        private final ObjectWriter writer;
+
+        private Configuration(final SerializationConfig config, final SerializerFactory factory,
+                final ObjectWriter writer) {
+            this.config = config;
+            this.factory = factory;
+            this.writer = writer;
+        }
+
+    }
+
+    private static final class Encoded {
+
+        private final Configuration configuration;
+        private final byte[] bytes;
+        private final ByteBuffer buffer;
+
+        @Nullable
+        private final URI type;
+        @Nullable
+        private final String title;
+        @Nullable
+        private final StatusType status;
+        @Nullable
+        private final String detail;
+        @Nullable
+        private final URI instance;
+        @Nullable
+        private final Throwable cause;
+        private final Map<String, Object> parameters;
+
+        private Encoded(final Configuration configuration, final Problem problem, final byte[] bytes) {
+            this.configuration = configuration;
+            this.bytes = bytes;
+            this.buffer = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+            this.type = problem.getType();
+            this.title = problem.getTitle();
+            this.status = problem.getStatus();
+            this.detail = problem.getDetail();
+            this.instance = problem.getInstance();
+            this.cause = causeOf(problem);
+            this.parameters = problem.getParameters();
+        }
+
+        private boolean matches(final Problem problem) {
+            return Objects.equals(type, problem.getType())
+                    && Objects.equals(title, problem.getTitle())
+                    && Objects.equals(status, problem.getStatus())
+                    && Objects.equals(detail, problem.getDetail())
+                    && Objects.equals(instance, problem.getInstance())
+                    && cause == causeOf(problem)
+                    && Objects.equals(parameters, problem.getParameters());
+        }
+
+        @Nullable
+        private static Throwable causeOf(final Problem problem) {
+            return problem instanceof Throwable ? ((Throwable) problem).getCause() : null;
+        }
+
+    }
+
+}
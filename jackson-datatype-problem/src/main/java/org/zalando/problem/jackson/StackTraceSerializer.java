@@ -0,0 +1,71 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import org.zalando.problem.StackTraceFormatter;
+
+import java.io.IOException;
+
+import static com.fasterxml.jackson.databind.SerializationFeature.WRITE_SINGLE_ELEM_ARRAYS_UNWRAPPED;
+
+/**
+ * Writes the top frames of a stack trace as an array of strings, using the {@link StackTraceFormatter shared} string
+ * forms of its frames.
+ */
+final class StackTraceSerializer extends JsonSerializer<StackTraceElement[]> {
+
+    private final int maxFrames;
+
+    StackTraceSerializer(final int maxFrames) {
+        this.maxFrames = maxFrames;
+    }
+
+    @Override
+    public Class<StackTraceElement[]> handledType() {
+        return StackTraceElement[].class;
+    }
+
+    @Override
+    public boolean isEmpty(final SerializerProvider provider, final StackTraceElement[] stackTrace) {
+        return StackTraceFormatter.length(stackTrace, maxFrames) == 0;
+    }
+
+    @Override
+    public void serialize(final StackTraceElement[] stackTrace, final JsonGenerator json,
+            final SerializerProvider provider) throws IOException {
+
+        final int length = StackTraceFormatter.length(stackTrace, maxFrames);
+
+        if (length == 1 && provider.isEnabled(WRITE_SINGLE_ELEM_ARRAYS_UNWRAPPED)) {
+            json.writeString(StackTraceFormatter.format(stackTrace[0]));
+            return;
+        }
+
+        json.writeStartArray(stackTrace, length);
+        writeFrames(stackTrace, length, json);
+        json.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(final StackTraceElement[] stackTrace, final JsonGenerator json,
+            final SerializerProvider provider, final TypeSerializer serializer) throws IOException {
+
+        final WritableTypeId id = serializer.writeTypePrefix(json,
+                serializer.typeId(stackTrace, JsonToken.START_ARRAY));
+        writeFrames(stackTrace, StackTraceFormatter.length(stackTrace, maxFrames), json);
+        serializer.writeTypeSuffix(json, id);
+    }
+
+    private static void writeFrames(final StackTraceElement[] stackTrace, final int length,
+            final JsonGenerator json) throws IOException {
+
+        for (int i = 0; i < length; i++) {
+            json.writeString(StackTraceFormatter.format(stackTrace[i]));
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import org.zalando.problem.Exceptional;
+
+import java.util.List;
+
+/**
+ * Assigns the module's {@link StackTraceSerializer} to the {@code stacktrace} property declared by the
+ * {@link ExceptionalMixin mixin}, since annotations can't carry the module's configuration.
+ */
+final class StackTraceSerializerModifier extends BeanSerializerModifier {
+
+    private final JsonSerializer<Object> serializer;
+
+    @SuppressWarnings("unchecked")
+    StackTraceSerializerModifier(final StackTraceSerializer serializer) {
+        this.serializer = (JsonSerializer<Object>) (JsonSerializer<?>) serializer;
+    }
+
+    @Override
+    public List<BeanPropertyWriter> changeProperties(final SerializationConfig config,
+            final BeanDescription description, final List<BeanPropertyWriter> properties) {
+
+        if (Exceptional.class.isAssignableFrom(description.getBeanClass())) {
+            for (final BeanPropertyWriter property : properties) {
+                if ("stacktrace".equals(property.getName()) &&
+                        property.getType().hasRawClass(StackTraceElement[].class) &&
+                        !property.hasSerializer()) {
+                    property.assignSerializer(serializer);
+                }
+            }
+        }
+
+        return properties;
+    }
+
+}
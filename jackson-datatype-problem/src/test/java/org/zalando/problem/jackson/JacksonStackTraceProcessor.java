@@ -20,7 +20,9 @@ public final class JacksonStackTraceProcessor implements StackTraceProcessor {
                         "sun.reflect", 
                         "java.lang.reflect", 
                         "jdk.internal.reflect",
-                        "com.fasterxml.jackson").negate())
+                        "com.fasterxml.jackson",
+                        "org.zalando.problem.ProblemBuilder",
+                        "org.zalando.problem.jackson.DefaultProblemDeserializer").negate())
                 .findFirst()
                 .map(elements::indexOf)
                 .map(subList(elements))
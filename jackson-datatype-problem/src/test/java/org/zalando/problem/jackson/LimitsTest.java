@@ -0,0 +1,149 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.zalando.problem.Problem;
+import org.zalando.problem.ThrowableProblem;
+
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hobsoft.hamcrest.compose.ComposeMatchers.hasFeature;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class LimitsTest {
+
+    @Test
+    void shouldNotLimitByDefault() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule());
+
+        final Problem problem = mapper.readValue("{\"title\":\"" + repeat("a", 10_000) + "\"," +
+                "\"values\":" + nested(500) + "," +
+                "\"cause\":" + causes(100) + "}", Problem.class);
+
+        assertThat(problem.getParameters(), hasKey("values"));
+    }
+
+    @Test
+    void shouldRejectDeeplyNestedParameters() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule().withMaxDepth(3));
+
+        assertThat(mapper.readValue("{\"values\":" + nested(2) + "}", Problem.class).getParameters(),
+                hasKey("values"));
+
+        final JsonMappingException exception = assertThrows(JsonMappingException.class, () ->
+                mapper.readValue("{\"values\":" + nested(500) + "}", Problem.class));
+
+        assertThat(exception.getMessage(), containsString("Nesting depth exceeds the maximum of 3"));
+        assertThat(exception.getStackTrace(), is(arrayWithSize(0)));
+    }
+
+    @Test
+    void shouldRejectDeeplyNestedRawParameters() {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule()
+                .withRawParameters()
+                .withMaxDepth(3));
+
+        assertThrows(JsonMappingException.class, () ->
+                mapper.readValue("{\"values\":" + nested(3) + "}", Problem.class));
+    }
+
+    @Test
+    void shouldRejectDeeplyNestedCauses() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule().withMaxDepth(3));
+
+        final ThrowableProblem problem = mapper.readValue("{\"cause\":" + causes(2) + "}", ThrowableProblem.class);
+        assertThat(problem.getCause(), hasFeature("cause", ThrowableProblem::getCause, is(notNullValue())));
+
+        assertThrows(JsonMappingException.class, () ->
+                mapper.readValue("{\"cause\":" + causes(3) + "}", Problem.class));
+    }
+
+    @Test
+    void shouldRejectLongCausalChains() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule().withMaxCauseDepth(2));
+
+        mapper.readValue("{\"cause\":" + causes(2) + "}", Problem.class);
+
+        final JsonMappingException exception = assertThrows(JsonMappingException.class, () ->
+                mapper.readValue("{\"cause\":" + causes(3) + "}", Problem.class));
+
+        assertThat(exception.getMessage(), containsString("Cause depth exceeds the maximum of 2"));
+    }
+
+    @Test
+    void shouldCountCausesPerCall() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule().withMaxCauseDepth(2));
+
+        for (int i = 0; i < 3; i++) {
+            mapper.readValue("{\"cause\":" + causes(2) + "}", Problem.class);
+        }
+    }
+
+    @Test
+    void shouldRejectTooManyParameters() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule().withMaxParameters(2));
+
+        mapper.readValue("{\"title\":\"Bad\",\"status\":400,\"a\":1,\"b\":2}", Problem.class);
+
+        final JsonMappingException exception = assertThrows(JsonMappingException.class, () ->
+                mapper.readValue("{\"title\":\"Bad\",\"a\":1,\"b\":2,\"c\":3}", Problem.class));
+
+        assertThat(exception.getMessage(), containsString("Number of parameters exceeds the maximum of 2"));
+    }
+
+    @Test
+    void shouldRejectLongTitlesAndDetails() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule().withMaxStringLength(5));
+
+        mapper.readValue("{\"title\":\"Bad\",\"detail\":\"Worse\",\"long\":\"Not limited\"}", Problem.class);
+
+        assertThrows(JsonMappingException.class, () ->
+                mapper.readValue("{\"title\":\"Too bad\"}", Problem.class));
+        assertThrows(JsonMappingException.class, () ->
+                mapper.readValue("{\"detail\":\"Much worse\"}", Problem.class));
+    }
+
+    @Test
+    void shouldLimitDecodedProblems() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule().withMaxDepth(3));
+        final ProblemDecoder decoder = new ProblemDecoder(mapper);
+
+        assertThrows(JsonMappingException.class, () ->
+                decoder.feed(("{\"values\":" + nested(3) + "}").getBytes(UTF_8)));
+    }
+
+    @Test
+    void shouldThrowForNegativeLimits() {
+        final ProblemModule module = new ProblemModule();
+
+        assertThrows(IllegalArgumentException.class, () -> module.withMaxDepth(-1));
+        assertThrows(IllegalArgumentException.class, () -> module.withMaxCauseDepth(-1));
+        assertThrows(IllegalArgumentException.class, () -> module.withMaxParameters(-1));
+        assertThrows(IllegalArgumentException.class, () -> module.withMaxStringLength(-1));
+    }
+
+    private static String nested(final int depth) {
+        return repeat("[", depth) + repeat("]", depth);
+    }
+
+    private static String causes(final int depth) {
+        return repeat("{\"title\":\"Cause\",\"cause\":", depth - 1) + "{\"title\":\"Cause\"}" + repeat("}", depth - 1);
+    }
+
+    private static String repeat(final String value, final int times) {
+        final StringBuilder builder = new StringBuilder(value.length() * times);
+        for (int i = 0; i < times; i++) {
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+
+}
@@ -7,11 +7,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.zalando.problem.Status;
+import org.zalando.problem.StatusRegistry;
 import org.zalando.problem.StatusType;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -19,13 +18,16 @@ import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 
 public class MyTest {
 
+    /**
+     * The type of statuses that registries create for unregistered codes.
+     */
+    private static final Class<? extends StatusType> UNKNOWN_STATUS =
+            StatusRegistry.of(new StatusType[0]).resolve(999).getClass();
+
     @Test
-    @DisplayName("11.1 Input Status Code is in the Map")
+    @DisplayName("11.1 Input Status Code is in the Registry")
     void TestDeserializeWithKnownStatusCode() throws IOException {
-        Map<Integer, StatusType> statusMap = new HashMap<>();
-        statusMap.put(400, Status.BAD_REQUEST);
-
-        StatusTypeDeserializer deserializer = new StatusTypeDeserializer(statusMap);
+        StatusTypeDeserializer deserializer = new StatusTypeDeserializer(StatusRegistry.of(Status.BAD_REQUEST));
         ObjectMapper mapper = new ObjectMapper();
 
         SimpleModule module = new SimpleModule();
@@ -40,14 +42,10 @@ public class MyTest {
     }
 
     @Test
-    @DisplayName("11.2 Multiple Input Status Code is in the Map")
+    @DisplayName("11.2 Multiple Input Status Code is in the Registry")
     void TestDeserializeWithMultipleKnownStatusCodes() throws IOException {
-        Map<Integer, StatusType> statusMap = new HashMap<>();
-        statusMap.put(200, Status.OK);
-        statusMap.put(402, Status.PAYMENT_REQUIRED);
-        statusMap.put(500, Status.INTERNAL_SERVER_ERROR);
-
-        StatusTypeDeserializer deserializer = new StatusTypeDeserializer(statusMap);
+        StatusTypeDeserializer deserializer = new StatusTypeDeserializer(
+                StatusRegistry.of(Status.OK, Status.PAYMENT_REQUIRED, Status.INTERNAL_SERVER_ERROR));
         ObjectMapper mapper = new ObjectMapper();
 
         SimpleModule module = new SimpleModule();
@@ -72,12 +70,9 @@ public class MyTest {
 
 
     @Test
-    @DisplayName("11.3 Input Status Code is not in the Map")
+    @DisplayName("11.3 Input Status Code is not in the Registry")
     void TestDeserializeWithUnknownStatusCode() throws IOException {
-        Map<Integer, StatusType> statusMap = new HashMap<>();
-        statusMap.put(400, Status.BAD_REQUEST);
-
-        StatusTypeDeserializer deserializer = new StatusTypeDeserializer(statusMap);
+        StatusTypeDeserializer deserializer = new StatusTypeDeserializer(StatusRegistry.of(Status.BAD_REQUEST));
         ObjectMapper mapper = new ObjectMapper();
 
         SimpleModule module = new SimpleModule();
@@ -89,18 +84,16 @@ public class MyTest {
 
         assertEquals(404, result1.getStatusCode());
         assertEquals("Unknown", result1.getReasonPhrase());
-        assertInstanceOf(UnknownStatus.class, result1);
+        assertInstanceOf(UNKNOWN_STATUS, result1);
         assertEquals(500, result2.getStatusCode());
         assertEquals("Unknown", result2.getReasonPhrase());
-        assertInstanceOf(UnknownStatus.class, result2);
+        assertInstanceOf(UNKNOWN_STATUS, result2);
     }
 
     @Test
-    @DisplayName("11.4 The Map is empty")
+    @DisplayName("11.4 The Registry is empty")
     void TestDeserializeWithEmptyMap() throws IOException {
-        Map<Integer, StatusType> emptyMap = new HashMap<>();
-
-        StatusTypeDeserializer deserializer = new StatusTypeDeserializer(emptyMap);
+        StatusTypeDeserializer deserializer = new StatusTypeDeserializer(StatusRegistry.of(new StatusType[0]));
         ObjectMapper mapper = new ObjectMapper();
 
         SimpleModule module = new SimpleModule();
@@ -111,6 +104,6 @@ public class MyTest {
 
         assertEquals(200, result.getStatusCode());
         assertEquals("Unknown", result.getReasonPhrase());
-        assertInstanceOf(UnknownStatus.class, result);
+        assertInstanceOf(UNKNOWN_STATUS, result);
     }
 }
@@ -0,0 +1,193 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+import org.zalando.problem.Problem;
+import org.zalando.problem.ThrowableProblem;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_TRAILING_TOKENS;
+import static com.fasterxml.jackson.databind.DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasToString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hobsoft.hamcrest.compose.ComposeMatchers.hasFeature;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class ProblemDecoderTest {
+
+    private static final String JSON = "{" +
+            "\"type\":\"https://example.org/preauthorization-failed\"," +
+            "\"title\":\"Preauthorization Failed\"," +
+            "\"status\":400," +
+            "\"detail\":\"Zahlung für Bestellung № 4711 abgelehnt\"," +
+            "\"cause\":{\"title\":\"Expired Credit Card\",\"status\":400}," +
+            "\"amount\":12.5," +
+            "\"items\":[\"B00027Y5QG\",{\"count\":2}]" +
+            "}";
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule());
+
+    @Test
+    void shouldDecodeByteByByte() throws IOException {
+        final byte[] body = JSON.getBytes(UTF_8);
+        final ProblemDecoder unit = new ProblemDecoder(mapper);
+
+        for (int i = 0; i < body.length - 1; i++) {
+            assertThat(unit.feed(body, i, 1), is(nullValue()));
+        }
+
+        final Problem problem = unit.feed(body, body.length - 1, 1);
+
+        assertThat(problem, is(notNullValue()));
+        assertThat(unit.end(), is(sameInstance(problem)));
+
+        final Problem expected = mapper.readValue(JSON, Problem.class);
+
+        assertThat(problem, hasFeature("type", Problem::getType, is(expected.getType())));
+        assertThat(problem, hasFeature("title", Problem::getTitle, is(expected.getTitle())));
+        assertThat(problem, hasFeature("status", Problem::getStatus, is(expected.getStatus())));
+        assertThat(problem, hasFeature("detail", Problem::getDetail, is(expected.getDetail())));
+        assertThat(problem, hasFeature("parameters", Problem::getParameters, is(expected.getParameters())));
+        assertThat(((ThrowableProblem) problem).getCause(), hasToString(String.valueOf(
+                ((ThrowableProblem) expected).getCause())));
+    }
+
+    @Test
+    void shouldDecodeByteBuffers() throws IOException {
+        final byte[] body = JSON.getBytes(UTF_8);
+        final int half = body.length / 2;
+
+        final ByteBuffer first = ByteBuffer.allocateDirect(half);
+        first.put(body, 0, half).flip();
+        final ByteBuffer second = ByteBuffer.wrap(body, half, body.length - half).slice().asReadOnlyBuffer();
+
+        final ProblemDecoder unit = new ProblemDecoder(mapper);
+
+        assertThat(unit.feed(first), is(nullValue()));
+        assertThat(first.hasRemaining(), is(false));
+        assertThat(unit.feed(second), is(notNullValue()));
+        assertThat(second.hasRemaining(), is(false));
+
+        assertThat(unit.end(), hasFeature("title", Problem::getTitle, is("Preauthorization Failed")));
+    }
+
+    @Test
+    void shouldDispatchToRegisteredSubtype() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule()
+                .registerSubtype(URI.create(InsufficientFundsProblem.TYPE_VALUE), InsufficientFundsProblem.class));
+
+        final ProblemDecoder unit = new ProblemDecoder(mapper);
+        unit.feed(("{\"type\":\"" + InsufficientFundsProblem.TYPE_VALUE + "\",").getBytes(UTF_8));
+        unit.feed("\"balance\":10,\"debit\":-20}".getBytes(UTF_8));
+
+        final Problem problem = unit.end();
+
+        assertThat(problem, is(instanceOf(InsufficientFundsProblem.class)));
+        assertThat((InsufficientFundsProblem) problem,
+                hasFeature("balance", InsufficientFundsProblem::getBalance, is(10)));
+    }
+
+    @Test
+    void shouldUseStatusTypesOfModule() throws IOException {
+        final ProblemDecoder unit = new ProblemDecoder(new ObjectMapper()
+                .registerModule(new ProblemModule(CustomStatus.class)));
+
+        unit.feed("{\"status\":200}".getBytes(UTF_8));
+
+        assertThat(unit.end().getStatus(), is(CustomStatus.OK));
+    }
+
+    @Test
+    void shouldUseBigDecimalsIfEnabled() throws IOException {
+        final ProblemDecoder unit = new ProblemDecoder(new ObjectMapper()
+                .registerModule(new ProblemModule())
+                .enable(USE_BIG_DECIMAL_FOR_FLOATS));
+
+        unit.feed("{\"amount\":0.1000000000000000000001}".getBytes(UTF_8));
+
+        assertThat(unit.end().getParameters(), hasEntry("amount", new BigDecimal("0.1000000000000000000001")));
+    }
+
+    @Test
+    void shouldKeepRawParameters() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule().withRawParameters());
+        final String json = "{\"title\":\"Invalid\",\"violations\":[{\"amount\":1.50}]}";
+
+        final ProblemDecoder unit = new ProblemDecoder(mapper);
+        unit.feed(json.getBytes(UTF_8));
+        final Problem problem = unit.end();
+
+        assertThat(mapper.writeValueAsString(problem), is(json));
+        assertThat(problem.getParameters(), hasEntry("violations",
+                mapper.readValue("[{\"amount\":1.50}]", List.class)));
+    }
+
+    @Test
+    void shouldDecodeFloatsAsDoubles() throws IOException {
+        final ProblemDecoder unit = new ProblemDecoder(new ObjectMapper()
+                .registerModule(new ProblemModule().withMaxDepth(8)));
+
+        unit.feed("{\"amount\":1.50,\"debug\":{\"amount\":1.50}}".getBytes(UTF_8));
+        final Problem problem = unit.end();
+
+        assertThat(problem.getParameters(), hasEntry("amount", 1.5));
+        assertThat(problem.getParameters(), hasEntry("debug", singletonMap("amount", 1.5)));
+    }
+
+    @Test
+    void shouldFailOnEmptyBody() throws IOException {
+        final ProblemDecoder unit = new ProblemDecoder(mapper);
+        unit.feed(" ".getBytes(UTF_8));
+
+        assertThrows(MismatchedInputException.class, unit::end);
+    }
+
+    @Test
+    void shouldFailOnIncompleteBody() throws IOException {
+        final ProblemDecoder unit = new ProblemDecoder(mapper);
+        unit.feed("{\"title\":\"Bad".getBytes(UTF_8));
+
+        assertThrows(JsonParseException.class, unit::end);
+    }
+
+    @Test
+    void shouldFailOnNull() throws IOException {
+        final ProblemDecoder unit = new ProblemDecoder(mapper);
+        unit.feed("null".getBytes(UTF_8));
+
+        assertThrows(MismatchedInputException.class, unit::end);
+    }
+
+    @Test
+    void shouldIgnoreTrailingTokensByDefault() throws IOException {
+        final ProblemDecoder unit = new ProblemDecoder(mapper);
+        unit.feed("{\"title\":\"Bad\"} {}".getBytes(UTF_8));
+
+        assertThat(unit.end(), hasFeature("title", Problem::getTitle, is("Bad")));
+    }
+
+    @Test
+    void shouldFailOnTrailingTokensIfEnabled() throws IOException {
+        final ProblemDecoder unit = new ProblemDecoder(new ObjectMapper()
+                .registerModule(new ProblemModule())
+                .enable(FAIL_ON_TRAILING_TOKENS));
+
+        assertThrows(MismatchedInputException.class, () -> unit.feed("{\"title\":\"Bad\"} {}".getBytes(UTF_8)));
+    }
+
+}
@@ -1,11 +1,18 @@
 package org.zalando.problem.jackson;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
 import org.junit.jupiter.api.Test;
+import org.zalando.problem.AbstractThrowableProblem;
 import org.zalando.problem.DefaultProblem;
 import org.zalando.problem.Exceptional;
 import org.zalando.problem.Problem;
+import org.zalando.problem.StackTracePolicy;
 import org.zalando.problem.Status;
 import org.zalando.problem.StatusType;
 import org.zalando.problem.ThrowableProblem;
@@ -13,13 +20,23 @@ import org.zalando.problem.ThrowableProblem;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URL;
 import java.util.List;
 import java.util.Objects;
 
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.ALWAYS;
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_EMPTY;
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+import static com.fasterxml.jackson.databind.DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS;
+import static com.fasterxml.jackson.databind.DeserializationFeature.USE_LONG_FOR_INTS;
+import static com.fasterxml.jackson.databind.SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS;
 import static com.jayway.jsonassert.JsonAssert.with;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasSize;
@@ -70,6 +87,159 @@ final class ProblemMixInTest {
                 .assertThat("$.product", is("B00027Y5QG"));
     }
 
+    @Test
+    void shouldSerializePrimitiveProperties() throws JsonProcessingException {
+        final Problem primitives = Problem.builder()
+                .withType(URI.create("https://example.org/out-of-stock"))
+                .with("retryAfter", 30)
+                .with("offset", Long.MAX_VALUE)
+                .with("balance", -0.5)
+                .with("blocked", true)
+                .build();
+
+        final Problem boxed = Problem.builder()
+                .withType(URI.create("https://example.org/out-of-stock"))
+                .with("retryAfter", (Object) 30)
+                .with("offset", (Object) Long.MAX_VALUE)
+                .with("balance", (Object) (-0.5))
+                .with("blocked", (Object) true)
+                .build();
+
+        final String json = mapper.writeValueAsString(primitives);
+
+        assertThat(json, is(mapper.writeValueAsString(boxed)));
+        with(json)
+                .assertThat("$.retryAfter", is(30))
+                .assertThat("$.offset", is(Long.MAX_VALUE))
+                .assertThat("$.balance", is(-0.5))
+                .assertThat("$.blocked", is(true));
+    }
+
+    @Test
+    void shouldOmitNullParametersIfConfigured() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new ProblemModule())
+                .setDefaultPropertyInclusion(JsonInclude.Value.construct(ALWAYS, NON_NULL));
+
+        final Problem problem = Problem.builder()
+                .with("product", (Object) null)
+                .with("quantity", 0)
+                .with("tags", emptyList())
+                .build();
+
+        assertThat(mapper.writeValueAsString(problem), is("{\"quantity\":0,\"tags\":[]}"));
+    }
+
+    @Test
+    void shouldOmitEmptyParametersIfConfigured() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new ProblemModule())
+                .setDefaultPropertyInclusion(JsonInclude.Value.construct(ALWAYS, NON_EMPTY));
+
+        final Problem problem = mapper.readValue(
+                "{\"product\":null,\"quantity\":0,\"tags\":[],\"order\":{\"id\":1}}", Problem.class);
+
+        with(mapper.writeValueAsString(problem))
+                .assertThat("$.*", hasSize(2))
+                .assertThat("$.quantity", is(0))
+                .assertThat("$.order.id", is(1));
+    }
+
+    @Test
+    void shouldSerializeFieldsInOrder() throws JsonProcessingException {
+        final Problem problem = Problem.builder()
+                .withType(URI.create("https://example.org/out-of-stock"))
+                .withTitle("Out of Stock")
+                .withStatus(BAD_REQUEST)
+                .withDetail("Item B00027Y5QG is no longer available")
+                .withInstance(URI.create("https://example.org/orders/1"))
+                .withCause(Problem.valueOf(Status.NOT_FOUND))
+                .with("product", "B00027Y5QG")
+                .build();
+
+        assertThat(mapper.writeValueAsString(problem), is("{" +
+                "\"type\":\"https://example.org/out-of-stock\"," +
+                "\"title\":\"Out of Stock\"," +
+                "\"status\":400," +
+                "\"detail\":\"Item B00027Y5QG is no longer available\"," +
+                "\"instance\":\"https://example.org/orders/1\"," +
+                "\"cause\":{\"title\":\"Not Found\",\"status\":404}," +
+                "\"product\":\"B00027Y5QG\"}"));
+    }
+
+    @Test
+    void shouldSortRawParametersWithoutDecodingThem() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new ProblemModule().withRawParameters())
+                .enable(ORDER_MAP_ENTRIES_BY_KEYS);
+
+        final Problem problem = mapper.readValue("{\"debug\":{\"amount\":1.50},\"count\":2,\"a\":[]}",
+                Problem.class);
+
+        assertThat(mapper.writeValueAsString(problem), is("{\"a\":[],\"count\":2,\"debug\":{\"amount\":1.50}}"));
+    }
+
+    @Test
+    void shouldSortNullKeyFirst() throws JsonProcessingException {
+        final ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new ProblemModule())
+                .enable(ORDER_MAP_ENTRIES_BY_KEYS);
+
+        mapper.getSerializerProvider().setNullKeySerializer(new JsonSerializer<Object>() {
+            @Override
+            public void serialize(final Object value, final JsonGenerator json, final SerializerProvider provider)
+                    throws IOException {
+                json.writeFieldName("");
+            }
+        });
+
+        final Problem problem = Problem.builder()
+                .with("product", "B00027Y5QG")
+                .with(null, 42)
+                .build();
+
+        assertThat(mapper.writeValueAsString(problem), is("{\"\":42,\"product\":\"B00027Y5QG\"}"));
+    }
+
+    @Test
+    void shouldOmitEmptyValues() throws JsonProcessingException {
+        final Problem problem = Problem.builder()
+                .withType(Problem.DEFAULT_TYPE)
+                .withTitle("")
+                .withDetail("")
+                .withInstance(URI.create(""))
+                .with("product", "")
+                .build();
+
+        assertThat(mapper.writeValueAsString(problem), is("{\"product\":\"\"}"));
+    }
+
+    @Test
+    void shouldSerializeProblemsAsTypedValues() throws JsonProcessingException {
+        final Problem problem = Problem.valueOf(Status.NOT_FOUND);
+        final String expected = "{\"title\":\"Not Found\",\"status\":404}";
+
+        assertThat(mapper.writerFor(Problem.class).writeValueAsString(problem), is(expected));
+        assertThat(mapper.writerFor(Exceptional.class).writeValueAsString(problem), is(expected));
+        assertThat(mapper.writeValueAsString(singletonList(problem)), is("[" + expected + "]"));
+    }
+
+    @Test
+    void shouldSerializeAdditionalPropertiesOfSubclasses() throws JsonProcessingException {
+        final Problem problem = new AbstractThrowableProblem(null, "Insufficient Funds", BAD_REQUEST) {
+
+            @JsonProperty("balance")
+            int getBalance() {
+                return 10;
+            }
+
+        };
+
+        with(mapper.writeValueAsString(problem))
+                .assertThat("$.balance", is(10))
+                .assertThat("$.title", is("Insufficient Funds"));
+    }
+
     @Test
     void shouldSerializeProblemCause() throws JsonProcessingException {
         final Problem problem = Problem.builder()
@@ -138,6 +308,58 @@ final class ProblemMixInTest {
                 .assertThat("$.stacktrace[0]", is(instanceOf(String.class)));
     }
 
+    @Test
+    void shouldSerializeSampledOutStacktrace() throws JsonProcessingException {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing()
+                .withSampler((type, status) -> false));
+
+        final Problem problem;
+        try {
+            problem = Problem.valueOf(BAD_REQUEST);
+        } finally {
+            StackTracePolicy.setDefault(StackTracePolicy.capturing());
+        }
+
+        final ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new ProblemModule().withStackTraces());
+
+        with(mapper.writeValueAsString(problem))
+                .assertNotDefined("$.stacktrace")
+                .assertThat("$.stacktraceSampledOut", is(true));
+
+        with(this.mapper.writeValueAsString(problem))
+                .assertNotDefined("$.stacktraceSampledOut");
+    }
+
+    @Test
+    void shouldLimitStacktrace() throws JsonProcessingException {
+        final ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new ProblemModule().withStackTraces().withMaxStackTraceFrames(2));
+
+        final ThrowableProblem problem = Problem.valueOf(BAD_REQUEST);
+        final ThrowableProblem custom = new InsufficientFundsProblem(10, -20);
+
+        with(mapper.writeValueAsString(problem))
+                .assertThat("$.stacktrace", hasSize(2))
+                .assertThat("$.stacktrace[0]", is(problem.getStackTrace()[0].toString()))
+                .assertThat("$.stacktrace[1]", is(problem.getStackTrace()[1].toString()));
+
+        with(mapper.writeValueAsString(custom))
+                .assertThat("$.stacktrace", hasSize(2))
+                .assertThat("$.stacktrace[0]", is(custom.getStackTrace()[0].toString()));
+    }
+
+    @Test
+    void shouldSerializeCompleteStacktraceByDefault() throws JsonProcessingException {
+        final ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new ProblemModule().withStackTraces());
+
+        final ThrowableProblem custom = new InsufficientFundsProblem(10, -20);
+
+        with(mapper.writeValueAsString(custom))
+                .assertThat("$.stacktrace", hasSize(custom.getStackTrace().length));
+    }
+
     @Test
     void shouldDeserializeDefaultProblem() throws IOException {
         final URL resource = getResource("default.json");
@@ -190,6 +412,58 @@ final class ProblemMixInTest {
         assertThat(problem, hasFeature("debit", InsufficientFundsProblem::getDebit, equalTo(-20)));
     }
 
+    @Test
+    void shouldDeserializeSpecificProblemWithTypeInAnyPosition() throws IOException {
+        final Problem problem = mapper.readValue("{\"balance\":10,\"debit\":-20," +
+                "\"type\":\"https://example.org/insufficient-funds\"}", Problem.class);
+
+        assertThat(problem, instanceOf(InsufficientFundsProblem.class));
+        assertThat(problem, hasFeature("type", Problem::getType, hasToString(InsufficientFundsProblem.TYPE_VALUE)));
+    }
+
+    @Test
+    void shouldDeserializeParametersInOrder() throws IOException {
+        final Problem problem = mapper.readValue("{\"type\":\"https://example.org/sold-out\"," +
+                "\"product\":\"B00027Y5QG\",\"quantity\":3,\"offset\":12345678901,\"price\":9.99," +
+                "\"available\":false,\"warehouse\":null,\"tags\":[\"a\"],\"quantity\":4}", Problem.class);
+
+        assertThat(problem, instanceOf(DefaultProblem.class));
+        assertThat(problem.getParameters().keySet(),
+                contains("product", "quantity", "offset", "price", "available", "warehouse", "tags"));
+        assertThat(problem.getParameters(), hasEntry("product", "B00027Y5QG"));
+        assertThat(problem.getParameters(), hasEntry("quantity", 4));
+        assertThat(problem.getParameters(), hasEntry("offset", 12345678901L));
+        assertThat(problem.getParameters(), hasEntry("price", 9.99));
+        assertThat(problem.getParameters(), hasEntry("available", false));
+        assertThat(problem.getParameters(), hasEntry("warehouse", null));
+        assertThat(problem.getParameters(), hasEntry("tags", singletonList("a")));
+    }
+
+    @Test
+    void shouldDeserializeParametersUsingFeatures() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new ProblemModule())
+                .enable(USE_BIG_DECIMAL_FOR_FLOATS, USE_LONG_FOR_INTS);
+
+        final Problem problem = mapper.readValue("{\"quantity\":3,\"price\":9.99}", Problem.class);
+
+        assertThat(problem.getParameters(), hasEntry("quantity", 3L));
+        assertThat(problem.getParameters(), hasEntry("price", new BigDecimal("9.99")));
+    }
+
+    @Test
+    void shouldDeserializeWithoutRegisteredSubtypes() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule());
+        final URL resource = getResource("insufficient-funds.json");
+
+        final ThrowableProblem problem = mapper.readValue(resource, ThrowableProblem.class);
+
+        assertThat(problem, instanceOf(DefaultProblem.class));
+        assertThat(problem, hasFeature("type", Problem::getType, hasToString(InsufficientFundsProblem.TYPE_VALUE)));
+        assertThat(problem, hasFeature("status", Problem::getStatus, equalTo(BAD_REQUEST)));
+        assertThat(problem, hasFeature("parameters", Problem::getParameters, hasEntry("balance", 10)));
+    }
+
     @Test
     void shouldDeserializeUnknownStatus() throws IOException {
         final URL resource = getResource("unknown.json");
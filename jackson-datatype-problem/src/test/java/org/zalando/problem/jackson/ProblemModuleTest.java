@@ -1,8 +1,32 @@
 package org.zalando.problem.jackson;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.DefaultProblem;
+import org.zalando.problem.ParameterVisitor;
+import org.zalando.problem.Problem;
+import org.zalando.problem.RawParameter;
 import org.zalando.problem.Status;
+import org.zalando.problem.StatusRegistry;
+import org.zalando.problem.StatusType;
+import org.zalando.problem.ThrowableProblem;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.fasterxml.jackson.databind.DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hobsoft.hamcrest.compose.ComposeMatchers.hasFeature;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 final class ProblemModuleTest {
@@ -17,4 +41,210 @@ final class ProblemModuleTest {
         assertThrows(IllegalArgumentException.class, () -> new ProblemModule(Status.class, CustomStatus.class));
     }
 
+    @Test
+    void shouldDeserializeKnownAndUnknownStatusCodes() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule());
+
+        assertThat(mapper.readValue("404", StatusType.class), is(sameInstance(Status.NOT_FOUND)));
+        assertThat(mapper.readValue("511", StatusType.class), is(sameInstance(Status.NETWORK_AUTHENTICATION_REQUIRED)));
+
+        for (final int code : new int[]{42, 99, 299, 600, 999}) {
+            final StatusType status = mapper.readValue(String.valueOf(code), StatusType.class);
+            assertThat(status, hasFeature("status code", StatusType::getStatusCode, is(code)));
+            assertThat(status, hasFeature("reason phrase", StatusType::getReasonPhrase, is("Unknown")));
+        }
+    }
+
+    @Test
+    void shouldInternUnknownStatuses() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule());
+
+        assertThat(mapper.readValue("520", StatusType.class),
+                is(sameInstance(mapper.readValue("520", StatusType.class))));
+    }
+
+    @Test
+    void shouldResolveStatusesOfRegistry() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new ProblemModule(StatusRegistry.of(CustomStatus.OK)));
+
+        assertThat(mapper.readValue("200", StatusType.class), is(sameInstance(CustomStatus.OK)));
+        assertThat(mapper.readValue("404", StatusType.class),
+                hasFeature("reason phrase", StatusType::getReasonPhrase, is("Unknown")));
+    }
+
+    @Test
+    void shouldDispatchToRegisteredSubtype() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule()
+                .registerSubtype(URI.create(InsufficientFundsProblem.TYPE_VALUE), InsufficientFundsProblem.class));
+
+        final Problem first = mapper.readValue("{\"type\":\"" + InsufficientFundsProblem.TYPE_VALUE + "\"," +
+                "\"balance\":10,\"debit\":-20}", Problem.class);
+        final Problem last = mapper.readValue("{\"balance\":10,\"debit\":-20," +
+                "\"type\":\"" + InsufficientFundsProblem.TYPE_VALUE + "\"}", ThrowableProblem.class);
+
+        for (final Problem problem : new Problem[]{first, last}) {
+            assertThat(problem, is(instanceOf(InsufficientFundsProblem.class)));
+            assertThat((InsufficientFundsProblem) problem,
+                    hasFeature("balance", InsufficientFundsProblem::getBalance, is(10)));
+            assertThat((InsufficientFundsProblem) problem,
+                    hasFeature("debit", InsufficientFundsProblem::getDebit, is(-20)));
+        }
+
+        assertThat(mapper.readValue("{\"type\":\"https://example.org/other\"}", Problem.class),
+                is(instanceOf(DefaultProblem.class)));
+    }
+
+    @Test
+    void shouldPassTypeToSubtypesThatNeedIt() throws IOException {
+        final URI expired = URI.create("https://example.org/expired-credit-card");
+        final URI blocked = URI.create("https://example.org/blocked-credit-card");
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule()
+                .registerSubtype(expired, CreditCardProblem.class)
+                .registerSubtype(blocked, CreditCardProblem.class));
+
+        final ThrowableProblem problem = mapper.readValue("{\"type\":\"" + expired + "\"," +
+                "\"cause\":{\"type\":\"" + blocked + "\",\"title\":\"Blocked\"}}", ThrowableProblem.class);
+
+        assertThat(problem, is(instanceOf(CreditCardProblem.class)));
+        assertThat(problem, hasFeature("type", Problem::getType, is(expired)));
+        assertThat(problem.getCause(), is(instanceOf(CreditCardProblem.class)));
+        assertThat(problem.getCause(), hasFeature("type", Problem::getType, is(blocked)));
+        assertThat(problem.getCause(), hasFeature("title", Problem::getTitle, is("Blocked")));
+    }
+
+    @Test
+    void shouldSetTypeOfSubtypes() throws IOException {
+        final URI expired = URI.create("https://example.org/expired-credit-card");
+        final URI blocked = URI.create("https://example.org/blocked-credit-card");
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule()
+                .registerSubtype(expired, PaymentProblem.class)
+                .registerSubtype(blocked, PaymentProblem.class));
+
+        final Problem problem = mapper.readValue("{\"type\":\"" + blocked + "\",\"title\":\"Blocked\"}",
+                Problem.class);
+
+        assertThat(problem, is(instanceOf(PaymentProblem.class)));
+        assertThat(problem, hasFeature("type", Problem::getType, is(blocked)));
+    }
+
+    @Test
+    void shouldThrowForDuplicateSubtype() {
+        final ProblemModule module = new ProblemModule()
+                .registerSubtype(URI.create(InsufficientFundsProblem.TYPE_VALUE), InsufficientFundsProblem.class);
+
+        assertThrows(IllegalArgumentException.class, () ->
+                module.registerSubtype(URI.create(InsufficientFundsProblem.TYPE_VALUE), IOProblem.class));
+    }
+
+    @Test
+    void shouldThrowForNegativeMaxStackTraceFrames() {
+        assertThrows(IllegalArgumentException.class, () -> new ProblemModule().withMaxStackTraceFrames(-1));
+    }
+
+    @Test
+    void shouldKeepRawParameters() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule().withRawParameters());
+        final String json = "{\"title\":\"Invalid\",\"status\":400," +
+                "\"violations\":[{\"field\":\"name\",\"message\":\"must not be blank\"}]," +
+                "\"debug\":{\"amount\":1.50,\"nested\":{\"flag\":true}},\"count\":2}";
+
+        final Problem problem = mapper.readValue(json, Problem.class);
+        final Map<String, Object> visited = visit(problem);
+
+        assertThat(visited.get("violations"), is(instanceOf(RawParameter.class)));
+        assertThat(visited.get("debug"), is(instanceOf(RawParameter.class)));
+        assertThat(visited.get("count"), is(2));
+
+        // written back out without decoding, i.e. 1.50 isn't normalized
+        assertThat(mapper.writeValueAsString(problem), is(json));
+
+        final Problem decoded = new ObjectMapper().registerModule(new ProblemModule())
+                .readValue(json, Problem.class);
+
+        assertThat(problem.getParameters(), is(decoded.getParameters()));
+    }
+
+    @Test
+    void shouldKeepRawParametersWithLimitedDepth() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new ProblemModule().withRawParameters().withMaxDepth(8));
+        final String json = "{\"debug\":{\"amount\":1.50}}";
+
+        final Problem problem = mapper.readValue(json, Problem.class);
+
+        assertThat(mapper.writeValueAsString(problem), is(json));
+        assertThat(problem.getParameters().get("debug"), is(singletonMap("amount", 1.5)));
+    }
+
+    @Test
+    void shouldDecodeDepthLimitedParametersLikeUnlimitedOnes() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule().withMaxDepth(8));
+
+        final Problem problem = mapper.readValue("{\"debug\":{\"amount\":1.50}}", Problem.class);
+
+        assertThat(problem.getParameters().get("debug"), is(singletonMap("amount", 1.5)));
+    }
+
+    @Test
+    void shouldDecodeParametersEagerlyByDefault() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule());
+
+        final Problem problem = mapper.readValue("{\"debug\":{\"amount\":1.50}}", Problem.class);
+
+        assertThat(visit(problem).get("debug"), is(singletonMap("amount", 1.5)));
+        assertThat(mapper.writeValueAsString(problem), is("{\"debug\":{\"amount\":1.5}}"));
+    }
+
+    @Test
+    void shouldDecodeRawParametersUsingFeaturesOfReader() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule().withRawParameters());
+
+        final Problem problem = mapper.readerFor(Problem.class)
+                .with(USE_BIG_DECIMAL_FOR_FLOATS)
+                .readValue("{\"debug\":{\"amount\":1.50}}");
+
+        assertThat(problem.getParameters().get("debug"), is(singletonMap("amount", new BigDecimal("1.50"))));
+    }
+
+    private static Map<String, Object> visit(final Problem problem) {
+        final Map<String, Object> visited = new LinkedHashMap<>();
+
+        ParameterVisitor.visitAll(problem.getParameters(), new ParameterVisitor<RuntimeException>() {
+
+            @Override
+            public void visit(final String key, final Object value) {
+                visited.put(key, value);
+            }
+
+            @Override
+            public void visitRaw(final String key, final RawParameter value) {
+                visited.put(key, value);
+            }
+
+        });
+
+        return visited;
+    }
+
+    static final class CreditCardProblem extends AbstractThrowableProblem {
+
+        @JsonCreator
+        CreditCardProblem(
+                @JsonProperty("type") final URI type,
+                @JsonProperty("title") final String title,
+                @JsonProperty("cause") final ThrowableProblem cause) {
+            super(type, title, null, null, null, cause);
+        }
+
+    }
+
+    static final class PaymentProblem extends AbstractThrowableProblem {
+
+        PaymentProblem() {
+            super(URI.create("https://example.org/payment"), "Payment Failed", Status.BAD_REQUEST);
+        }
+
+    }
+
 }
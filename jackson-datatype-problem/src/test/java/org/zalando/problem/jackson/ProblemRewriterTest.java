@@ -0,0 +1,100 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class ProblemRewriterTest {
+
+    private static final String JSON = "{" +
+            "\"type\":\"https://example.org/out-of-stock\"," +
+            "\"title\":\"Out of Stock\"," +
+            "\"status\":400," +
+            "\"instance\":\"/upstream/4711\"," +
+            "\"price\":1.50," +
+            "\"cause\":{\"title\":\"Bar\",\"stacktrace\":[\"a.B.c(B.java:1)\"],\"stacktraceSampledOut\":true}," +
+            "\"stacktrace\":[\"a.B.d(B.java:2)\"]" +
+            "}";
+
+    private final JsonFactory factory = new ObjectMapper().registerModule(new ProblemModule()).getFactory();
+
+    @Test
+    void shouldCopyProblemsAsTheyAre() throws IOException {
+        assertThat(rewrite(new ProblemRewriter(), JSON), is(JSON));
+    }
+
+    @Test
+    void shouldReplaceMembersInPlaceAndAppendOthers() throws IOException {
+        final ProblemRewriter unit = new ProblemRewriter()
+                .withMember("instance", URI.create("/orders/4711"))
+                .withMember("gateway", "eu-central-1")
+                .withMember("attempts", 3);
+
+        assertThat(rewrite(unit, "{\"title\":\"Out of Stock\",\"instance\":\"/upstream/4711\",\"price\":1.50}"),
+                is("{\"title\":\"Out of Stock\",\"instance\":\"/orders/4711\",\"price\":1.50," +
+                        "\"gateway\":\"eu-central-1\",\"attempts\":3}"));
+    }
+
+    @Test
+    void shouldDropMembers() throws IOException {
+        final ProblemRewriter unit = new ProblemRewriter()
+                .withMember("price", 2)
+                .withoutMember("price")
+                .withoutMember("instance");
+
+        assertThat(rewrite(unit, "{\"title\":\"Out of Stock\",\"instance\":\"/upstream/4711\",\"price\":1.50}"),
+                is("{\"title\":\"Out of Stock\"}"));
+    }
+
+    @Test
+    void shouldDropCauses() throws IOException {
+        assertThat(rewrite(new ProblemRewriter().withoutCauses(), JSON), is("{" +
+                "\"type\":\"https://example.org/out-of-stock\"," +
+                "\"title\":\"Out of Stock\"," +
+                "\"status\":400," +
+                "\"instance\":\"/upstream/4711\"," +
+                "\"price\":1.50," +
+                "\"stacktrace\":[\"a.B.d(B.java:2)\"]" +
+                "}"));
+    }
+
+    @Test
+    void shouldDropStackTracesOfProblemAndCauses() throws IOException {
+        assertThat(rewrite(new ProblemRewriter().withoutStackTraces(), JSON), is("{" +
+                "\"type\":\"https://example.org/out-of-stock\"," +
+                "\"title\":\"Out of Stock\"," +
+                "\"status\":400," +
+                "\"instance\":\"/upstream/4711\"," +
+                "\"price\":1.50," +
+                "\"cause\":{\"title\":\"Bar\"}" +
+                "}"));
+    }
+
+    @Test
+    void shouldRejectNonObjects() {
+        assertThrows(JsonParseException.class, () -> rewrite(new ProblemRewriter(), "[]"));
+    }
+
+    private String rewrite(final ProblemRewriter rewriter, final String json) throws IOException {
+        final StringWriter writer = new StringWriter();
+
+        try (JsonParser parser = factory.createParser(json);
+             JsonGenerator generator = factory.createGenerator(writer)) {
+            rewriter.rewrite(parser, generator);
+        }
+
+        return writer.toString();
+    }
+
+}
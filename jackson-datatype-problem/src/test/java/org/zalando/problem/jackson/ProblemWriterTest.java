@@ -0,0 +1,130 @@
+package org.zalando.problem.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.util.StdConverter;
+import org.junit.jupiter.api.Test;
+import org.zalando.problem.Problem;
+import org.zalando.problem.Status;
+import org.zalando.problem.ThrowableProblem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.fasterxml.jackson.databind.SerializationFeature.INDENT_OUTPUT;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.zalando.problem.Status.SERVICE_UNAVAILABLE;
+import static org.zalando.problem.Status.TOO_MANY_REQUESTS;
+
+final class ProblemWriterTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule());
+
+    @Test
+    void shouldWriteSameBytesAsMapper() throws IOException {
+        final ThrowableProblem problem = Problem.shared(SERVICE_UNAVAILABLE);
+        final ProblemWriter unit = new ProblemWriter(mapper).cache(problem);
+
+        final byte[] expected = mapper.writeValueAsBytes(problem);
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        unit.writeValue(stream, problem);
+
+        assertThat(stream.toByteArray(), is(expected));
+        assertThat(unit.writeValueAsBytes(problem), is(expected));
+        assertThat(unit.writeValueAsByteBuffer(problem), is(ByteBuffer.wrap(expected)));
+    }
+
+    @Test
+    void shouldWriteUncachedProblems() throws IOException {
+        final ThrowableProblem problem = Problem.valueOf(TOO_MANY_REQUESTS);
+        final ProblemWriter unit = new ProblemWriter(mapper);
+
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        unit.writeValue(stream, problem);
+
+        assertThat(stream.toString(UTF_8.name()), is(mapper.writeValueAsString(problem)));
+        assertThat(unit.writeValueAsBytes(problem), is(mapper.writeValueAsBytes(problem)));
+    }
+
+    @Test
+    void shouldSerializeCachedProblemsOnce() throws IOException {
+        final CountingProblem problem = new CountingProblem();
+        final ProblemWriter unit = new ProblemWriter(mapper).cache(problem);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(new String(unit.writeValueAsBytes(problem), UTF_8), is("{\"title\":\"Rate limited\"}"));
+        }
+
+        assertThat(problem.serializations.get(), is(1));
+    }
+
+    @Test
+    void shouldEncodeAgainIfProblemChanged() throws IOException {
+        final CountingProblem problem = new CountingProblem();
+        final ProblemWriter unit = new ProblemWriter(mapper).cache(problem);
+
+        problem.title = "Slow down";
+
+        assertThat(new String(unit.writeValueAsBytes(problem), UTF_8), is("{\"title\":\"Slow down\"}"));
+        assertThat(new String(unit.writeValueAsBytes(problem), UTF_8), is("{\"title\":\"Slow down\"}"));
+        assertThat(problem.serializations.get(), is(2));
+    }
+
+    @Test
+    void shouldEncodeAgainIfMapperChanged() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new ProblemModule());
+        final ThrowableProblem problem = Problem.shared(SERVICE_UNAVAILABLE, "Try again later");
+        final ProblemWriter unit = new ProblemWriter(mapper).cache(problem);
+
+        mapper.enable(INDENT_OUTPUT);
+
+        assertThat(new String(unit.writeValueAsBytes(problem), UTF_8), is(mapper.writeValueAsString(problem)));
+    }
+
+    @Test
+    void shouldNotModifyCachedBytes() throws IOException {
+        final ThrowableProblem problem = Problem.shared(Status.BAD_GATEWAY);
+        final ProblemWriter unit = new ProblemWriter(mapper).cache(problem);
+
+        unit.writeValueAsBytes(problem)[0] = ' ';
+
+        assertThat(unit.writeValueAsBytes(problem), is(mapper.writeValueAsBytes(problem)));
+        assertThrows(ReadOnlyBufferException.class, () -> unit.writeValueAsByteBuffer(problem).put((byte) ' '));
+    }
+
+    @JsonSerialize(converter = CountingProblem.Counter.class)
+    static final class CountingProblem implements Problem {
+
+        private final AtomicInteger serializations = new AtomicInteger();
+        private String title = "Rate limited";
+
+        @Override
+        public URI getType() {
+            return DEFAULT_TYPE;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+
+        static final class Counter extends StdConverter<CountingProblem, Problem> {
+
+            @Override
+            public Problem convert(final CountingProblem value) {
+                value.serializations.incrementAndGet();
+                return Problem.builder().withTitle(value.title).build();
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,75 @@
+package org.zalando.problem.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.internal.bind.JsonTreeWriter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.zalando.problem.RawParameter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * The compact JSON of a parameter value. It's decoded using the {@link Gson} instance it was read by and written back
+ * out as it is, unless the target writer escapes differently or omits nulls that the value contains.
+ */
+final class BufferedParameter implements RawParameter {
+
+    private static final Object UNDECODED = new Object();
+
+    private final Gson gson;
+    private final String json;
+    private final boolean htmlSafe;
+    private final boolean nulls;
+
+    @Nullable
+    private volatile Object value = UNDECODED;
+
+    private BufferedParameter(final Gson gson, final String json, final boolean htmlSafe, final boolean nulls) {
+        this.gson = gson;
+        this.json = json;
+        this.htmlSafe = htmlSafe;
+        this.nulls = nulls;
+    }
+
+    /**
+     * @param gson the gson instance to decode the value with
+     * @param in a reader, positioned at the beginning of an object or array
+     * @return the buffered value, the reader being positioned after it
+     * @throws IOException if the value can't be read
+     */
+    static BufferedParameter copyOf(final Gson gson, final JsonReader in) throws IOException {
+        final StringWriter buffer = new StringWriter();
+        final JsonWriter out = new JsonWriter(buffer);
+        out.setLenient(true);
+        out.setHtmlSafe(gson.htmlSafe());
+
+        final boolean nulls = JsonStreams.copy(in, out);
+        out.flush();
+        return new BufferedParameter(gson, buffer.toString(), out.isHtmlSafe(), nulls);
+    }
+
+    @Nullable
+    @Override
+    public Object decode() {
+        @Nullable Object value = this.value;
+
+        if (value == UNDECODED) {
+            value = gson.fromJson(json, Object.class);
+            this.value = value;
+        }
+
+        return value;
+    }
+
+    void write(final JsonWriter out) throws IOException {
+        // trees can't hold raw JSON
+        if (out instanceof JsonTreeWriter || out.isHtmlSafe() != htmlSafe || (nulls && !out.getSerializeNulls())) {
+            gson.getAdapter(Object.class).write(out, decode());
+        } else {
+            out.jsonValue(json);
+        }
+    }
+
+}
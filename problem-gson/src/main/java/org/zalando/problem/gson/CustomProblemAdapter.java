@@ -3,65 +3,114 @@ package org.zalando.problem.gson;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.TypeAdapter;
 import com.google.gson.internal.Streams;
+import com.google.gson.internal.bind.JsonTreeWriter;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import lombok.AllArgsConstructor;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Exceptional;
+import org.zalando.problem.Problem;
+import org.zalando.problem.StackTraceFormatter;
+import org.zalando.problem.ThrowableProblem;
 
 import java.io.IOException;
-import java.net.URI;
-import java.util.Optional;
-
-import static java.util.Arrays.stream;
+import java.util.Map;
 
+/**
+ * Writes custom problems using a delegate, usually a reflective one that {@link InternalFieldExclusionStrategy skips}
+ * the internal fields of problems. The members written by the delegate are followed by the cause, the type, the
+ * flattened parameters and the stack trace. Causes are read by the adapter of {@link ThrowableProblem problems} and
+ * {@link Throwable#initCause(Throwable) passed on}, since the delegate can't set them.
+ */
 @AllArgsConstructor
 final class CustomProblemAdapter<T> extends TypeAdapter<T> {
 
-    private final Gson gson;
+    private final TypeAdapter<Object> values;
+    private final TypeAdapter<ThrowableProblem> causes;
     private final TypeAdapter<T> delegate;
     private final boolean stackTraces;
+    private final int maxFrames;
+
+    CustomProblemAdapter(final Gson gson, final TypeAdapter<ThrowableProblem> causes, final TypeAdapter<T> delegate,
+            final boolean stackTraces, final int maxFrames) {
+        this(gson.getAdapter(Object.class), causes, delegate, stackTraces, maxFrames);
+    }
 
     @Override
     public void write(final JsonWriter out, final T value) throws IOException {
-        final JsonElement element = delegate.toJsonTree(value);
-        final JsonObject object = element.getAsJsonObject();
+        // the delegate ends the object, i.e. it has to be buffered in order to append members
+        final JsonTreeWriter tree = new JsonTreeWriter();
+        tree.setLenient(out.isLenient());
+        delegate.write(tree, value);
+
+        final JsonObject object = tree.get().getAsJsonObject();
+        // written below, since custom problems may have a type of a different kind
+        object.remove("type");
+
+        out.beginObject();
+        for (final Map.Entry<String, JsonElement> member : object.entrySet()) {
+            Streams.write(member.getValue(), out.name(member.getKey()));
+        }
+        writeMembers(out, value);
+        out.endObject();
+    }
 
-        final URI problemType = URITypeAdapter.TYPE.fromJsonTree(object.remove("type"));
-        object.add("type", URITypeAdapter.TYPE.toJsonTree(problemType));
+    private void writeMembers(final JsonWriter out, final Object problem) throws IOException {
+        if (problem instanceof Throwable) {
+            @Nullable final Throwable cause = ((Throwable) problem).getCause();
 
-        if (value instanceof AbstractThrowableProblem) {
-            flattenParameters(object);
+            if (cause != null || out.getSerializeNulls()) {
+                values.write(out.name("cause"), cause);
+            }
         }
 
-        if (value instanceof Throwable) {
-            // Get rid of unwanted fields.
-            object.remove("detailMessage");
-            object.remove("suppressedExceptions");
-            object.remove("stackTrace");
-
-            if (stackTraces) {
-                object.add("stacktrace", gson.getAdapter(String[].class)
-                        .toJsonTree(stream(((Throwable) value).getStackTrace())
-                                .map(Object::toString)
-                                .toArray(String[]::new)));
+        URITypeAdapter.TYPE.write(out.name("type"), ((Problem) problem).getType());
+
+        if (problem instanceof AbstractThrowableProblem) {
+            for (final Map.Entry<String, Object> parameter : ((Problem) problem).getParameters().entrySet()) {
+                values.write(out.name(parameter.getKey()), parameter.getValue());
             }
         }
 
-        Streams.write(element, out);
-    }
+        if (stackTraces && problem instanceof Throwable) {
+            final StackTraceElement[] stackTrace = ((Throwable) problem).getStackTrace();
+            final int length = StackTraceFormatter.length(stackTrace, maxFrames);
 
-    private void flattenParameters(final JsonObject object) {
-        Optional.ofNullable(object.remove("parameters"))
-                .map(JsonElement::getAsJsonObject)
-                .ifPresent(params -> params.entrySet().forEach(e ->
-                        object.add(e.getKey(), e.getValue())));
+            out.name("stacktrace").beginArray();
+            for (int i = 0; i < length; i++) {
+                out.value(StackTraceFormatter.format(stackTrace[i]));
+            }
+            out.endArray();
+
+            if (problem instanceof Exceptional && ((Exceptional) problem).isStackTraceSampledOut()) {
+                out.name("stacktraceSampledOut").value(true);
+            }
+        }
     }
 
     @Override
     public T read(final JsonReader in) throws IOException {
-        return delegate.read(in);
+        return in.peek() == JsonToken.NULL ? delegate.read(in) : read(Streams.parse(in).getAsJsonObject());
+    }
+
+    T read(final JsonObject object) {
+        final T problem = delegate.fromJsonTree(object);
+        @Nullable final JsonElement cause = object.get("cause");
+
+        if (problem instanceof Throwable && cause != null && !cause.isJsonNull()) {
+            try {
+                ((Throwable) problem).initCause(causes.fromJsonTree(cause));
+            } catch (final IllegalArgumentException | IllegalStateException e) {
+                throw new JsonParseException("Can't pass cause on to " + problem.getClass().getName(), e);
+            }
+        }
+
+        return problem;
     }
 
 }
@@ -4,21 +4,25 @@ import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.TypeAdapter;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.internal.LazilyParsedNumber;
+import com.google.gson.internal.bind.JsonTreeReader;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import lombok.AllArgsConstructor;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.zalando.problem.ParameterVisitor;
 import org.zalando.problem.Problem;
 import org.zalando.problem.ProblemBuilder;
+import org.zalando.problem.RawParameter;
+import org.zalando.problem.StackTraceFormatter;
 import org.zalando.problem.StatusType;
 import org.zalando.problem.ThrowableProblem;
 
 import java.io.IOException;
-import java.util.Map;
 
 import static com.google.gson.internal.bind.TypeAdapters.STRING;
 import static com.google.gson.internal.bind.TypeAdapters.URI;
-import static java.util.Arrays.stream;
 import static lombok.AccessLevel.PRIVATE;
 
 @AllArgsConstructor(access = PRIVATE)
@@ -26,81 +30,232 @@ final class DefaultProblemAdapter extends TypeAdapter<ThrowableProblem> {
 
     private final Gson gson;
     private final boolean stackTraces;
+    private final int maxFrames;
+    private final boolean rawParameters;
+    private final boolean losslessNumbers;
+    private final Limits limits;
     private final TypeAdapter<java.net.URI> type = URITypeAdapter.TYPE;
-    private final TypeAdapter<Map<String, Object>> parameters;
     private final TypeAdapter<StatusType> status;
+    private final TypeAdapter<Object> values;
     private final TypeAdapter<ThrowableProblem> cause;
 
-    DefaultProblemAdapter(final Gson gson, final boolean stackTraces) {
+    DefaultProblemAdapter(final Gson gson, final boolean stackTraces, final int maxFrames,
+            final boolean rawParameters, final boolean losslessNumbers, final Limits limits) {
         this(
                 gson,
                 stackTraces,
-                gson.getAdapter(new TypeToken<Map<String, Object>>() {
-                    // nothing to do here
-                }),
+                maxFrames,
+                rawParameters,
+                losslessNumbers,
+                limits,
                 gson.getAdapter(StatusType.class),
+                gson.getAdapter(Object.class),
                 gson.getAdapter(ThrowableProblem.class).nullSafe());
     }
 
     @Override
     public void write(final JsonWriter out, final ThrowableProblem problem) throws IOException {
-        final JsonObject object = new JsonObject();
+        out.beginObject();
 
-        object.add("type", type.toJsonTree(problem.getType()));
-        object.add("title", STRING.toJsonTree(problem.getTitle()));
-        object.add("status", status.toJsonTree(problem.getStatus()));
-        object.add("detail", STRING.toJsonTree(problem.getDetail()));
-        object.add("instance", URI.toJsonTree(problem.getInstance()));
-        object.add("cause", cause.toJsonTree(problem.getCause()));
+        type.write(out.name("type"), problem.getType());
+        STRING.write(out.name("title"), problem.getTitle());
+        status.write(out.name("status"), problem.getStatus());
+        STRING.write(out.name("detail"), problem.getDetail());
+        URI.write(out.name("instance"), problem.getInstance());
+        cause.write(out.name("cause"), problem.getCause());
 
-        parameters.toJsonTree(problem.getParameters()).getAsJsonObject()
-                .entrySet().forEach(entry ->
-                object.add(entry.getKey(), entry.getValue()));
+        ParameterVisitor.visitAll(problem.getParameters(), new ParameterVisitor<IOException>() {
+
+            @Override
+            public void visit(final String key, @Nullable final Object value) throws IOException {
+                values.write(out.name(key), value);
+            }
+
+            @Override
+            public void visitInt(final String key, final int value) throws IOException {
+                out.name(key).value(value);
+            }
+
+            @Override
+            public void visitLong(final String key, final long value) throws IOException {
+                out.name(key).value(value);
+            }
+
+            @Override
+            public void visitDouble(final String key, final double value) throws IOException {
+                out.name(key).value(value);
+            }
+
+            @Override
+            public void visitBoolean(final String key, final boolean value) throws IOException {
+                out.name(key).value(value);
+            }
+
+            @Override
+            public void visitRaw(final String key, final RawParameter value) throws IOException {
+                if (value instanceof BufferedParameter) {
+                    ((BufferedParameter) value).write(out.name(key));
+                } else {
+                    visit(key, value.decode());
+                }
+            }
+
+        });
 
         if (stackTraces) {
-            object.add("stacktrace", gson.getAdapter(String[].class)
-                    .toJsonTree(stream(problem.getStackTrace())
-                            .map(Object::toString)
-                            .toArray(String[]::new)));
+            final StackTraceElement[] stackTrace = problem.getStackTrace();
+            final int length = StackTraceFormatter.length(stackTrace, maxFrames);
+
+            out.name("stacktrace").beginArray();
+            for (int i = 0; i < length; i++) {
+                out.value(StackTraceFormatter.format(stackTrace[i]));
+            }
+            out.endArray();
+
+            if (problem.isStackTraceSampledOut()) {
+                out.name("stacktraceSampledOut").value(true);
+            }
         }
 
-        gson.getAdapter(JsonElement.class).write(out, object);
+        out.endObject();
     }
 
     @Override
     public ThrowableProblem read(final JsonReader in) throws IOException {
-        final ProblemBuilder builder = Problem.builder();
-
         in.beginObject();
-        while (in.hasNext()) {
-            final String name = in.nextName();
-            switch (name) {
-                case "type":
-                    builder.withType(URITypeAdapter.TYPE.read(in));
-                    break;
-                case "title":
-                    builder.withTitle(STRING.read(in));
-                    break;
-                case "status":
-                    builder.withStatus(status.read(in));
-                    break;
-                case "detail":
-                    builder.withDetail(STRING.read(in));
-                    break;
-                case "instance":
-                    builder.withInstance(URI.read(in));
-                    break;
-                case "cause":
-                    builder.withCause(cause.read(in));
-                    break;
-                default:
-                    builder.with(name, gson.fromJson(in, Object.class));
-                    break;
+        return read(in, Problem.builder(), null, 1, (reader, depth) -> cause.read(reader));
+    }
+
+    /**
+     * Reads the members of a problem, starting with the ones that were buffered before, if any.
+     *
+     * @param in the reader, positioned within the problem's object
+     * @param builder the builder to read the problem into
+     * @param buffered members that were already read, if any
+     * @param depth the nesting depth of the problem, the outermost one being at depth 1
+     * @param causes reads causes at the given depth
+     * @return the problem
+     * @throws IOException if reading fails
+     */
+    ThrowableProblem read(final JsonReader in, final ProblemBuilder builder, @Nullable final JsonObject buffered,
+            final int depth, final Causes causes) throws IOException {
+
+        int parameters = 0;
+
+        if (buffered != null) {
+            final JsonReader members = new JsonTreeReader(buffered);
+            members.beginObject();
+            while (members.hasNext()) {
+                parameters = read(members, members.nextName(), builder, parameters, depth, causes);
             }
         }
+
+        while (in.hasNext()) {
+            parameters = read(in, in.nextName(), builder, parameters, depth, causes);
+        }
         in.endObject();
 
         return builder.build();
     }
 
+    /**
+     * @return the number of parameters read so far
+     */
+    private int read(final JsonReader in, final String name, final ProblemBuilder builder, final int parameters,
+            final int depth, final Causes causes) throws IOException {
+
+        switch (name) {
+            case "type":
+                builder.withType(URITypeAdapter.TYPE.read(in));
+                return parameters;
+            case "title":
+                builder.withTitle(limits.checkStringLength(in, STRING.read(in)));
+                return parameters;
+            case "status":
+                builder.withStatus(status.read(in));
+                return parameters;
+            case "detail":
+                builder.withDetail(limits.checkStringLength(in, STRING.read(in)));
+                return parameters;
+            case "instance":
+                builder.withInstance(URI.read(in));
+                return parameters;
+            case "cause":
+                builder.withCause(causes.read(in, depth + 1));
+                return parameters;
+            default:
+                limits.checkParameters(in, parameters + 1);
+                if (losslessNumbers) {
+                    losslessParameter(in, name, builder, depth);
+                } else {
+                    builder.with(name, parameter(in, depth));
+                }
+                return parameters + 1;
+        }
+    }
+
+    private void losslessParameter(final JsonReader in, final String name, final ProblemBuilder builder,
+            final int depth) throws IOException {
+
+        switch (in.peek()) {
+            case NUMBER:
+                final String number = in.nextString();
+                if (LosslessValues.isLong(number)) {
+                    final long value = Long.parseLong(number);
+                    if ((int) value == value) {
+                        builder.with(name, (int) value);
+                    } else {
+                        builder.with(name, value);
+                    }
+                } else {
+                    builder.with(name, new LazilyParsedNumber(number));
+                }
+                return;
+            case BOOLEAN:
+                builder.with(name, in.nextBoolean());
+                return;
+            case BEGIN_OBJECT:
+            case BEGIN_ARRAY:
+                if (rawParameters) {
+                    builder.with(name, parameter(in, depth));
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+
+        builder.with(name, LosslessValues.read(in, limits, depth + 1));
+    }
+
+    @Nullable
+    private Object parameter(final JsonReader in, final int depth) throws IOException {
+        final JsonToken token = in.peek();
+
+        if (token != JsonToken.BEGIN_OBJECT && token != JsonToken.BEGIN_ARRAY) {
+            return gson.fromJson(in, Object.class);
+        }
+
+        if (limits.isDepthLimited()) {
+            // the default adapters recurse without any bound, i.e. the depth has to be checked up front
+            final JsonElement element = limits.parse(in, depth + 1);
+            return rawParameters ?
+                    BufferedParameter.copyOf(gson, new JsonTreeReader(element)) :
+                    gson.fromJson(element, Object.class);
+        }
+
+        return rawParameters ? BufferedParameter.copyOf(gson, in) : gson.fromJson(in, Object.class);
+    }
+
+    /**
+     * Reads causes, keeping track of their depth.
+     */
+    @FunctionalInterface
+    interface Causes {
+
+        @Nullable
+        ThrowableProblem read(JsonReader in, int depth) throws IOException;
+
+    }
+
 }
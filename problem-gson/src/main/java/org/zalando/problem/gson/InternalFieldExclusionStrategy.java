@@ -0,0 +1,36 @@
+package org.zalando.problem.gson;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.ThrowableProblem;
+
+/**
+ * Excludes fields that {@link CustomProblemAdapter} either drops or writes itself, so that e.g. the stack trace of a
+ * custom problem isn't serialized only to be thrown away.
+ */
+final class InternalFieldExclusionStrategy implements ExclusionStrategy {
+
+    /**
+     * Skips all fields of {@link Throwable} and {@link ThrowableProblem}, as well as the parameters of problems, in
+     * both directions. The former are never visited, which would require {@code java.lang} to be opened for
+     * reflection. The others are written by the {@link CustomProblemAdapter}, which also reads causes.
+     */
+    static final ExclusionStrategy INSTANCE = new InternalFieldExclusionStrategy();
+
+    private InternalFieldExclusionStrategy() {
+    }
+
+    @Override
+    public boolean shouldSkipField(final FieldAttributes field) {
+        final Class<?> type = field.getDeclaringClass();
+        return type == Throwable.class || type == ThrowableProblem.class ||
+                type == AbstractThrowableProblem.class && "parameters".equals(field.getName());
+    }
+
+    @Override
+    public boolean shouldSkipClass(final Class<?> type) {
+        return false;
+    }
+
+}
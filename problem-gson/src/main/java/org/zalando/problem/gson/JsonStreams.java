@@ -0,0 +1,76 @@
+package org.zalando.problem.gson;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.internal.LazilyParsedNumber;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+final class JsonStreams {
+
+    JsonStreams() throws Exception {
+        throw new IllegalAccessException();
+    }
+
+    /**
+     * Copies the next value from the given reader to the given writer, token by token. Numbers are copied as they
+     * are, i.e. without parsing them.
+     *
+     * @param in the reader, positioned at the value
+     * @param out the writer
+     * @return whether the value contained any nulls
+     * @throws IOException if reading or writing fails
+     */
+    static boolean copy(final JsonReader in, final JsonWriter out) throws IOException {
+        int depth = 0;
+        boolean nulls = false;
+
+        do {
+            switch (in.peek()) {
+                case BEGIN_ARRAY:
+                    in.beginArray();
+                    out.beginArray();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    in.endArray();
+                    out.endArray();
+                    depth--;
+                    break;
+                case BEGIN_OBJECT:
+                    in.beginObject();
+                    out.beginObject();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    in.endObject();
+                    out.endObject();
+                    depth--;
+                    break;
+                case NAME:
+                    out.name(in.nextName());
+                    break;
+                case STRING:
+                    out.value(in.nextString());
+                    break;
+                case NUMBER:
+                    out.value(new LazilyParsedNumber(in.nextString()));
+                    break;
+                case BOOLEAN:
+                    out.value(in.nextBoolean());
+                    break;
+                case NULL:
+                    in.nextNull();
+                    out.nullValue();
+                    nulls = true;
+                    break;
+                default:
+                    throw new JsonSyntaxException("Unexpected end of document at " + in.getPath());
+            }
+        } while (depth > 0);
+
+        return nulls;
+    }
+
+}
@@ -0,0 +1,171 @@
+package org.zalando.problem.gson;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.internal.LazilyParsedNumber;
+import com.google.gson.internal.Streams;
+import com.google.gson.stream.JsonReader;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Limits for reading problems from untrusted sources. A limit of {@code 0} disables the respective check.
+ *
+ * @see ProblemAdapterFactory#withMaxDepth(int)
+ * @see ProblemAdapterFactory#withMaxCauseDepth(int)
+ * @see ProblemAdapterFactory#withMaxParameters(int)
+ * @see ProblemAdapterFactory#withMaxStringLength(int)
+ */
+final class Limits {
+
+    static final Limits NONE = new Limits(0, 0, 0, 0);
+
+    private final int depth;
+    private final int causes;
+    private final int parameters;
+    private final int length;
+
+    private Limits(final int depth, final int causes, final int parameters, final int length) {
+        this.depth = depth;
+        this.causes = causes;
+        this.parameters = parameters;
+        this.length = length;
+    }
+
+    Limits withMaxDepth(final int depth) {
+        return new Limits(nonNegative(depth, "Max depth"), causes, parameters, length);
+    }
+
+    Limits withMaxCauseDepth(final int causes) {
+        return new Limits(depth, nonNegative(causes, "Max cause depth"), parameters, length);
+    }
+
+    Limits withMaxParameters(final int parameters) {
+        return new Limits(depth, causes, nonNegative(parameters, "Max parameters"), length);
+    }
+
+    Limits withMaxStringLength(final int length) {
+        return new Limits(depth, causes, parameters, nonNegative(length, "Max string length"));
+    }
+
+    private static int nonNegative(final int limit, final String name) {
+        if (limit < 0) {
+            throw new IllegalArgumentException(name + " must not be negative");
+        }
+        return limit;
+    }
+
+    boolean isDepthLimited() {
+        return depth > 0;
+    }
+
+    /**
+     * Parses the next value, failing as soon as an object or array is nested too deeply, rather than running out of
+     * stack.
+     *
+     * @param in the reader, positioned at the value
+     * @param level the nesting depth of the value, if it's an object or array
+     * @return the parsed value
+     * @throws IOException if reading fails
+     * @throws ProblemLimitException if the value is nested too deeply
+     */
+    JsonElement parse(final JsonReader in, final int level) throws IOException {
+        if (depth == 0) {
+            return Streams.parse(in);
+        }
+
+        switch (in.peek()) {
+            case BEGIN_ARRAY:
+                checkDepth(in, level);
+                final JsonArray array = new JsonArray();
+                in.beginArray();
+                while (in.hasNext()) {
+                    array.add(parse(in, level + 1));
+                }
+                in.endArray();
+                return array;
+            case BEGIN_OBJECT:
+                checkDepth(in, level);
+                final JsonObject object = new JsonObject();
+                in.beginObject();
+                while (in.hasNext()) {
+                    object.add(in.nextName(), parse(in, level + 1));
+                }
+                in.endObject();
+                return object;
+            case STRING:
+                return new JsonPrimitive(in.nextString());
+            case NUMBER:
+                return new JsonPrimitive(new LazilyParsedNumber(in.nextString()));
+            case BOOLEAN:
+                return new JsonPrimitive(in.nextBoolean());
+            case NULL:
+                in.nextNull();
+                return JsonNull.INSTANCE;
+            default:
+                throw new JsonSyntaxException("Unexpected end of document" + at(in));
+        }
+    }
+
+    /**
+     * @param in the current reader
+     * @param level the nesting depth of the current object or array, the outermost problem being at depth 1
+     * @throws ProblemLimitException if it's nested too deeply
+     */
+    void checkDepth(final JsonReader in, final int level) {
+        if (depth > 0 && level > depth) {
+            throw new ProblemLimitException("Nesting depth exceeds the maximum of " + depth + at(in));
+        }
+    }
+
+    void checkCauseDepth(final JsonReader in, final int depth) {
+        if (causes > 0 && depth > causes) {
+            throw new ProblemLimitException("Cause depth exceeds the maximum of " + causes + at(in));
+        }
+    }
+
+    /**
+     * Checks the causal chain of an already parsed problem.
+     *
+     * @param in the current reader
+     * @param problem the parsed problem
+     * @param depth the cause depth of the problem
+     * @throws ProblemLimitException if the causal chain is too long
+     */
+    void checkCauseDepth(final JsonReader in, final JsonObject problem, final int depth) {
+        if (causes == 0) {
+            return;
+        }
+
+        @Nullable JsonElement cause = problem.get("cause");
+
+        for (int level = depth + 1; cause != null && cause.isJsonObject(); level++) {
+            checkCauseDepth(in, level);
+            cause = cause.getAsJsonObject().get("cause");
+        }
+    }
+
+    void checkParameters(final JsonReader in, final int count) {
+        if (parameters > 0 && count > parameters) {
+            throw new ProblemLimitException("Number of parameters exceeds the maximum of " + parameters + at(in));
+        }
+    }
+
+    @Nullable
+    String checkStringLength(final JsonReader in, @Nullable final String value) {
+        if (length > 0 && value != null && value.length() > length) {
+            throw new ProblemLimitException("String length exceeds the maximum of " + length + at(in));
+        }
+        return value;
+    }
+
+    private static String at(final JsonReader in) {
+        return " at path " + in.getPath();
+    }
+
+}
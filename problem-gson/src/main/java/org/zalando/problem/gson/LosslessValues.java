@@ -0,0 +1,152 @@
+package org.zalando.problem.gson;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.internal.LazilyParsedNumber;
+import com.google.gson.stream.JsonReader;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads parameter values without losing precision. Integers are read as {@link Integer} or {@link Long} if they fit,
+ * all other numbers as {@link LazilyParsedNumber}, which keeps them as written. Objects and arrays are read into
+ * unmodifiable maps and lists that are no larger than needed.
+ *
+ * @see ProblemAdapterFactory#withLosslessNumbers()
+ */
+final class LosslessValues {
+
+    private static final String MAX_LONG = Long.toString(Long.MAX_VALUE);
+    private static final String MIN_LONG = Long.toString(Long.MIN_VALUE);
+
+    LosslessValues() throws Exception {
+        throw new IllegalAccessException();
+    }
+
+    /**
+     * @param in the reader, positioned at the value
+     * @param limits the limits to check objects and arrays against
+     * @param level the nesting depth of the value, if it's an object or array
+     * @return the value
+     * @throws IOException if reading fails
+     */
+    @Nullable
+    static Object read(final JsonReader in, final Limits limits, final int level) throws IOException {
+        switch (in.peek()) {
+            case BEGIN_ARRAY:
+                limits.checkDepth(in, level);
+                return list(in, limits, level);
+            case BEGIN_OBJECT:
+                limits.checkDepth(in, level);
+                return map(in, limits, level);
+            case STRING:
+                return in.nextString();
+            case NUMBER:
+                return number(in.nextString());
+            case BOOLEAN:
+                return in.nextBoolean();
+            case NULL:
+                in.nextNull();
+                return null;
+            default:
+                throw new JsonSyntaxException("Unexpected end of document at " + in.getPath());
+        }
+    }
+
+    private static List<Object> list(final JsonReader in, final Limits limits, final int level) throws IOException {
+        in.beginArray();
+
+        if (!in.hasNext()) {
+            in.endArray();
+            return Collections.emptyList();
+        }
+
+        @Nullable final Object first = read(in, limits, level + 1);
+
+        if (!in.hasNext()) {
+            in.endArray();
+            return Collections.singletonList(first);
+        }
+
+        final ArrayList<Object> list = new ArrayList<>();
+        list.add(first);
+        while (in.hasNext()) {
+            list.add(read(in, limits, level + 1));
+        }
+        in.endArray();
+
+        list.trimToSize();
+        return Collections.unmodifiableList(list);
+    }
+
+    private static Map<String, Object> map(final JsonReader in, final Limits limits, final int level)
+            throws IOException {
+
+        in.beginObject();
+
+        if (!in.hasNext()) {
+            in.endObject();
+            return Collections.emptyMap();
+        }
+
+        final String name = in.nextName();
+        @Nullable final Object value = read(in, limits, level + 1);
+
+        if (!in.hasNext()) {
+            in.endObject();
+            return Collections.singletonMap(name, value);
+        }
+
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put(name, value);
+        while (in.hasNext()) {
+            map.put(in.nextName(), read(in, limits, level + 1));
+        }
+        in.endObject();
+
+        return Collections.unmodifiableMap(map);
+    }
+
+    static Number number(final String number) {
+        if (isLong(number)) {
+            final long value = Long.parseLong(number);
+            return (int) value == value ? (Number) (int) value : (Number) value;
+        }
+        return new LazilyParsedNumber(number);
+    }
+
+    /**
+     * @param number a number, as written
+     * @return whether it's an integer that fits into a long, without parsing it
+     */
+    static boolean isLong(final String number) {
+        final int start = number.startsWith("-") ? 1 : 0;
+        final int digits = number.length() - start;
+
+        if (digits == 0 || digits > 19) {
+            return false;
+        }
+
+        for (int i = start; i < number.length(); i++) {
+            final char c = number.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+
+        if (digits < 19) {
+            return true;
+        }
+
+        // same length, i.e. comparing them lexicographically compares their values
+        return start == 0 ?
+                number.compareTo(MAX_LONG) <= 0 :
+                number.compareTo(MIN_LONG) <= 0;
+    }
+
+}
@@ -5,16 +5,16 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.TypeAdapter;
 import com.google.gson.TypeAdapterFactory;
-import com.google.gson.internal.Streams;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
-import lombok.AllArgsConstructor;
 import org.apiguardian.api.API;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.zalando.problem.DefaultProblem;
 import org.zalando.problem.Problem;
 import org.zalando.problem.Status;
+import org.zalando.problem.StatusRegistry;
 import org.zalando.problem.StatusType;
 import org.zalando.problem.ThrowableProblem;
 
@@ -23,10 +23,10 @@ import java.net.URI;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static java.util.Objects.requireNonNull;
-import static lombok.AccessLevel.PRIVATE;
 import static org.apiguardian.api.API.Status.EXPERIMENTAL;
 import static org.zalando.problem.gson.URITypeAdapter.TYPE;
 
@@ -37,6 +37,10 @@ import static org.zalando.problem.gson.URITypeAdapter.TYPE;
 public final class ProblemAdapterFactory implements TypeAdapterFactory {
 
     private final boolean stackTraces;
+    private final int maxFrames;
+    private final boolean rawParameters;
+    private final boolean losslessNumbers;
+    private final Limits limits;
     private final Map<URI, TypeToken<? extends Problem>> subtypes;
     private final StatusTypeAdapter statusAdapter;
 
@@ -47,45 +51,156 @@ public final class ProblemAdapterFactory implements TypeAdapterFactory {
     @SafeVarargs
     public <E extends Enum<?> & StatusType> ProblemAdapterFactory(
             final Class<? extends E>... statusTypes) {
-        this(false,
-                new StatusTypeAdapter(buildIndex(statusTypes)),
+        this(false, 0, false, false, Limits.NONE,
+                new StatusTypeAdapter(StatusRegistry.of(statusTypes)),
+                Collections.emptyMap());
+    }
+
+    /**
+     * Creates a factory that resolves status codes using the given registry, which may contain any kind of
+     * {@link StatusType} and can be shared with other factories.
+     *
+     * @param statuses the status registry
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemAdapterFactory(final StatusRegistry statuses) {
+        this(false, 0, false, false, Limits.NONE,
+                new StatusTypeAdapter(requireNonNull(statuses, "Statuses")),
                 Collections.emptyMap());
     }
 
     private ProblemAdapterFactory(
             final boolean stackTraces,
+            final int maxFrames,
+            final boolean rawParameters,
+            final boolean losslessNumbers,
+            final Limits limits,
             final StatusTypeAdapter statusAdapter,
             final Map<URI, TypeToken<? extends Problem>> subtypes) {
         this.stackTraces = stackTraces;
+        this.maxFrames = maxFrames;
+        this.rawParameters = rawParameters;
+        this.losslessNumbers = losslessNumbers;
+        this.limits = limits;
         this.statusAdapter = statusAdapter;
         this.subtypes = Collections.unmodifiableMap(subtypes);
     }
 
-    @SafeVarargs
-    private static <E extends Enum<?> & StatusType> Map<Integer, StatusType> buildIndex(
-            final Class<? extends E>... types) {
+    public ProblemAdapterFactory withStackTraces() {
+        return withStackTraces(true);
+    }
 
-        final Map<Integer, StatusType> index = new HashMap<>();
+    public ProblemAdapterFactory withStackTraces(final boolean stackTraces) {
+        return new ProblemAdapterFactory(stackTraces, maxFrames, rawParameters, losslessNumbers, limits, statusAdapter,
+                subtypes);
+    }
 
-        for (final Class<? extends E> type : types) {
-            for (final E status : type.getEnumConstants()) {
-                if (index.containsKey(status.getStatusCode())) {
-                    throw new IllegalArgumentException(
-                            "Duplicate status codes are not allowed");
-                }
-                index.put(status.getStatusCode(), status);
-            }
+    /**
+     * Limits serialized stack traces to their top {@code maxFrames} frames. This has no effect unless
+     * {@link #withStackTraces() stack traces} are enabled.
+     *
+     * @param maxFrames the maximum number of frames to serialize, {@code 0} serializes complete stack traces
+     * @return a copy of this factory with the given maximum number of frames
+     * @throws IllegalArgumentException if maxFrames is negative
+     */
+    public ProblemAdapterFactory withMaxStackTraceFrames(final int maxFrames) throws IllegalArgumentException {
+        if (maxFrames < 0) {
+            throw new IllegalArgumentException("Max frames must not be negative");
         }
+        return new ProblemAdapterFactory(stackTraces, maxFrames, rawParameters, losslessNumbers, limits, statusAdapter,
+                subtypes);
+    }
 
-        return Collections.unmodifiableMap(index);
+    public ProblemAdapterFactory withRawParameters() {
+        return withRawParameters(true);
     }
 
-    public ProblemAdapterFactory withStackTraces() {
-        return withStackTraces(true);
+    /**
+     * Keeps object and array parameters of deserialized default problems as raw JSON. They are only decoded when being
+     * accessed through {@link Problem#getParameters()} and written back out without decoding them, which is cheaper
+     * if problems are mostly passed through.
+     *
+     * @param rawParameters whether to keep object and array parameters as raw JSON
+     * @return a copy of this factory
+     * @see org.zalando.problem.RawParameter
+     */
+    public ProblemAdapterFactory withRawParameters(final boolean rawParameters) {
+        return new ProblemAdapterFactory(stackTraces, maxFrames, rawParameters, losslessNumbers, limits, statusAdapter,
+                subtypes);
     }
 
-    public ProblemAdapterFactory withStackTraces(final boolean stackTraces) {
-        return new ProblemAdapterFactory(stackTraces, statusAdapter, subtypes);
+    public ProblemAdapterFactory withLosslessNumbers() {
+        return withLosslessNumbers(true);
+    }
+
+    /**
+     * Reads numeric parameters of deserialized default problems without losing precision, instead of using the
+     * {@link com.google.gson.ToNumberStrategy number strategy} of the {@link Gson} instance, which defaults to doubles.
+     * Integers are read as {@code int} or {@code long} if they fit, all other numbers are kept as written, as
+     * {@link Number numbers} that are parsed when being accessed. Object and array parameters are read into
+     * unmodifiable maps and lists, unless they're kept as {@link #withRawParameters() raw JSON}.
+     *
+     * @param losslessNumbers whether to read numbers without losing precision
+     * @return a copy of this factory
+     */
+    public ProblemAdapterFactory withLosslessNumbers(final boolean losslessNumbers) {
+        return new ProblemAdapterFactory(stackTraces, maxFrames, rawParameters, losslessNumbers, limits, statusAdapter,
+                subtypes);
+    }
+
+    /**
+     * Limits the nesting depth of objects and arrays when reading problems, including causes and parameters. Problems
+     * that exceed it are rejected before reading any further, with an exception that has no stack trace.
+     *
+     * @param maxDepth the maximum nesting depth, {@code 0} disables the limit
+     * @return a copy of this factory with the given maximum depth
+     * @throws IllegalArgumentException if maxDepth is negative
+     */
+    public ProblemAdapterFactory withMaxDepth(final int maxDepth) throws IllegalArgumentException {
+        return withLimits(limits.withMaxDepth(maxDepth));
+    }
+
+    /**
+     * Limits the number of causes, i.e. the length of the causal chain, when reading problems.
+     *
+     * @param maxCauseDepth the maximum number of nested causes, {@code 0} disables the limit
+     * @return a copy of this factory with the given maximum cause depth
+     * @throws IllegalArgumentException if maxCauseDepth is negative
+     * @see #withMaxDepth(int)
+     */
+    public ProblemAdapterFactory withMaxCauseDepth(final int maxCauseDepth) throws IllegalArgumentException {
+        return withLimits(limits.withMaxCauseDepth(maxCauseDepth));
+    }
+
+    /**
+     * Limits the number of parameters, i.e. members other than the standard ones, per problem when reading default
+     * problems.
+     *
+     * @param maxParameters the maximum number of parameters, {@code 0} disables the limit
+     * @return a copy of this factory with the given maximum number of parameters
+     * @throws IllegalArgumentException if maxParameters is negative
+     * @see #withMaxDepth(int)
+     */
+    public ProblemAdapterFactory withMaxParameters(final int maxParameters) throws IllegalArgumentException {
+        return withLimits(limits.withMaxParameters(maxParameters));
+    }
+
+    /**
+     * Limits the length of {@link Problem#getTitle() titles} and {@link Problem#getDetail() details} when reading
+     * default problems.
+     *
+     * @param maxStringLength the maximum number of characters, {@code 0} disables the limit
+     * @return a copy of this factory with the given maximum string length
+     * @throws IllegalArgumentException if maxStringLength is negative
+     * @see #withMaxDepth(int)
+     */
+    public ProblemAdapterFactory withMaxStringLength(final int maxStringLength) throws IllegalArgumentException {
+        return withLimits(limits.withMaxStringLength(maxStringLength));
+    }
+
+    private ProblemAdapterFactory withLimits(final Limits limits) {
+        return new ProblemAdapterFactory(stackTraces, maxFrames, rawParameters, losslessNumbers, limits, statusAdapter,
+                subtypes);
     }
 
     // TODO @CheckReturnValue
@@ -108,13 +223,21 @@ public final class ProblemAdapterFactory implements TypeAdapterFactory {
 
         final Map<URI, TypeToken<? extends Problem>> map = new HashMap<>(subtypes);
         map.put(uri, type);
-        return new ProblemAdapterFactory(stackTraces, statusAdapter, map);
+        return new ProblemAdapterFactory(stackTraces, maxFrames, rawParameters, losslessNumbers, limits, statusAdapter,
+                map);
 
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type) {
+        return create(gson, type, null);
+    }
+
+    /**
+     * @param serializer the instance to resolve delegates of custom problems with, derived lazily if absent
+     */
+    @SuppressWarnings("unchecked")
+    private <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type, @Nullable final Gson serializer) {
         final Class<? super T> rawType = type.getRawType();
 
         if (StatusType.class.isAssignableFrom(rawType)) {
@@ -125,22 +248,72 @@ public final class ProblemAdapterFactory implements TypeAdapterFactory {
             return null;
         }
 
-        return new ProblemTypeAdapter<T>(gson, type).nullSafe();
+        return new ProblemTypeAdapter<T>(gson, type, serializer);
+    }
+
+    /**
+     * @param gson the instance this factory is registered with
+     * @return an instance with the same configuration, that skips internal fields of custom problems
+     */
+    private Gson derive(final Gson gson) {
+        return gson.newBuilder()
+                .setExclusionStrategies(InternalFieldExclusionStrategy.INSTANCE)
+                // registered last, i.e. it takes precedence over this factory, which the builder still contains
+                .registerTypeAdapterFactory(new DerivedFactory())
+                .create();
     }
 
-    @AllArgsConstructor(access = PRIVATE)
+    /**
+     * Creates the same adapters as this factory within a {@link #derive(Gson) derived instance}, which is used as is
+     * to resolve delegates of custom problems rather than deriving yet another one.
+     */
+    private final class DerivedFactory implements TypeAdapterFactory {
+
+        @Override
+        public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type) {
+            return ProblemAdapterFactory.this.create(gson, type, gson);
+        }
+
+    }
+
+    /**
+     * Reads problems in a single pass. Members are read into a {@link DefaultProblemAdapter default problem} as they
+     * appear, unless there are subtypes registered, in which case only the members before the {@code type} are
+     * buffered until it's known. Registered subtypes are read from a tree, since their adapters have to start at
+     * the beginning of the object.
+     *
+     * Adapters of custom problems are resolved once per concrete type and cached, since adapters are created per
+     * {@link Gson} instance and requested type anyway. Their delegates come from a {@link #derive(Gson) derived}
+     * instance, which is created once per adapter as soon as it's needed.
+     */
     private final class ProblemTypeAdapter<T> extends TypeAdapter<T> {
 
         private final Gson gson;
         private final TypeToken<T> type;
-        private final TypeAdapter<ThrowableProblem> defaultAdapter;
+        private final DefaultProblemAdapter defaultAdapter;
+        private final ConcurrentMap<TypeToken<?>, CustomProblemAdapter<T>> customAdapters = new ConcurrentHashMap<>();
+
+        @Nullable
+        private TypeAdapter<ThrowableProblem> causes;
+
+        @Nullable
+        private Gson serializer;
 
-        ProblemTypeAdapter(final Gson gson, final TypeToken<T> type) {
-            this(gson, type, new DefaultProblemAdapter(gson, stackTraces));
+        ProblemTypeAdapter(final Gson gson, final TypeToken<T> type, @Nullable final Gson serializer) {
+            this.gson = gson;
+            this.type = type;
+            this.serializer = serializer;
+            this.defaultAdapter = new DefaultProblemAdapter(gson, stackTraces, maxFrames, rawParameters,
+                    losslessNumbers, limits);
         }
 
         @Override
-        public void write(final JsonWriter out, final T value) throws IOException {
+        public void write(final JsonWriter out, @Nullable final T value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+
             final TypeAdapter<T> adapter = selectAdapter(value);
             adapter.write(out, value);
         }
@@ -155,42 +328,147 @@ public final class ProblemAdapterFactory implements TypeAdapterFactory {
             }
         }
 
+        @Nullable
         @Override
-        public T read(final JsonReader in) {
-            final JsonElement element = Streams.parse(in);
-            final JsonObject problem = element.getAsJsonObject();
-            return selectAdapter(problem).fromJsonTree(element);
+        public T read(final JsonReader in) throws IOException {
+            return read(in, 1);
         }
 
+        /**
+         * @param in the reader
+         * @param depth the nesting depth of the problem, the outermost one being at depth 1
+         * @return the problem
+         * @throws IOException if reading fails
+         */
+        @Nullable
         @SuppressWarnings("unchecked")
-        private TypeAdapter<T> selectAdapter(final JsonObject problem) {
-            @Nullable final TypeToken<? extends Problem> subType =
-                    Optional.ofNullable(problem.get("type"))
-                            .map(TYPE::fromJsonTree)
-                            .map(subtypes::get)
-                            .orElse(null);
+        T read(final JsonReader in, final int depth) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            limits.checkDepth(in, depth);
+            limits.checkCauseDepth(in, depth - 1);
+
+            in.beginObject();
+
+            if (subtypes.isEmpty()) {
+                return (T) defaultAdapter.read(in, Problem.builder(), null, depth, this::readCause);
+            }
+
+            @Nullable JsonObject buffered = null;
+
+            while (in.hasNext()) {
+                final String name = in.nextName();
+
+                if ("type".equals(name)) {
+                    return dispatch(in, buffered, depth);
+                }
+
+                if (buffered == null) {
+                    buffered = new JsonObject();
+                }
+                buffered.add(name, limits.parse(in, depth + 1));
+            }
+
+            return (T) defaultAdapter.read(in, Problem.builder(), buffered, depth, this::readCause);
+        }
+
+        /**
+         * @param in the reader, positioned at the value of the {@code type}
+         */
+        @SuppressWarnings("unchecked")
+        private T dispatch(final JsonReader in, @Nullable final JsonObject buffered, final int depth)
+                throws IOException {
+
+            final JsonElement element = limits.parse(in, depth + 1);
+            final URI uri = element.isJsonPrimitive() && element.getAsJsonPrimitive().isString() ?
+                    URI.create(element.getAsString()) :
+                    TYPE.fromJsonTree(element);
+
+            @Nullable final TypeToken<? extends Problem> subType = subtypes.get(uri);
 
             if (subType == null) {
-                return (TypeAdapter<T>) defaultAdapter;
+                return (T) defaultAdapter.read(in, Problem.builder().withType(uri), buffered, depth,
+                        this::readCause);
+            }
+
+            final JsonObject problem = buffered == null ? new JsonObject() : buffered;
+            problem.add("type", element);
+
+            while (in.hasNext()) {
+                problem.add(in.nextName(), limits.parse(in, depth + 1));
             }
+            in.endObject();
+
+            limits.checkCauseDepth(in, problem, depth - 1);
 
             final TypeToken<T> typeClass =
                     (type.getRawType().isAssignableFrom(subType.getRawType()) ?
                             (TypeToken<T>) subType :
                             type);
 
-            return createCustomAdapter(gson, typeClass);
+            return createCustomAdapter(gson, typeClass).read(problem);
         }
 
-        private TypeAdapter<T> createCustomAdapter(
+        @Nullable
+        @SuppressWarnings("unchecked")
+        private ThrowableProblem readCause(final JsonReader in, final int depth) throws IOException {
+            final TypeAdapter<ThrowableProblem> causes = causes();
+
+            if (causes instanceof ProblemTypeAdapter) {
+                return ((ProblemTypeAdapter<ThrowableProblem>) causes).read(in, depth);
+            }
+
+            return causes.nullSafe().read(in);
+        }
+
+        private TypeAdapter<ThrowableProblem> causes() {
+            @Nullable TypeAdapter<ThrowableProblem> causes = this.causes;
+
+            if (causes == null) {
+                // resolved lazily, since it may be this adapter
+                causes = gson.getAdapter(ThrowableProblem.class);
+                this.causes = causes;
+            }
+
+            return causes;
+        }
+
+        private Gson serializer() {
+            @Nullable Gson serializer = this.serializer;
+
+            if (serializer == null) {
+                // racing threads derive equivalent instances
+                serializer = derive(gson);
+                this.serializer = serializer;
+            }
+
+            return serializer;
+        }
+
+        private CustomProblemAdapter<T> createCustomAdapter(
                 final Gson gson, final TypeToken<T> type) {
 
-            return new CustomProblemAdapter<>(
+            @Nullable final CustomProblemAdapter<T> cached = customAdapters.get(type);
+
+            if (cached != null) {
+                return cached;
+            }
+
+            // not computeIfAbsent, since resolving the delegate may recursively need other problem adapters
+            final CustomProblemAdapter<T> adapter = new CustomProblemAdapter<>(
                     gson,
-                    gson.getDelegateAdapter(
+                    causes(),
+                    serializer().getDelegateAdapter(
                             ProblemAdapterFactory.this,
                             type),
-                    stackTraces);
+                    stackTraces,
+                    maxFrames);
+
+            @Nullable final CustomProblemAdapter<T> previous = customAdapters.putIfAbsent(type, adapter);
+            return previous == null ? adapter : previous;
         }
 
     }
@@ -0,0 +1,20 @@
+package org.zalando.problem.gson;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * Signals that a problem exceeds one of the configured {@link Limits limits}. It's thrown for untrusted input, possibly
+ * at a high rate, and doesn't fill in its stack trace, which would only point to the check that failed.
+ */
+final class ProblemLimitException extends JsonParseException {
+
+    ProblemLimitException(final String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+}
@@ -0,0 +1,194 @@
+package org.zalando.problem.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.apiguardian.api.API;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
+
+/**
+ * Rewrites serialized problems by copying their tokens from a reader to a writer, without deserializing them, e.g.
+ * to pass problems of upstream services through a gateway:
+ *
+ * <pre>{@code
+ * ProblemRewriter rewriter = new ProblemRewriter(gson)
+ *     .withMember("instance", URI.create("/orders/4711"))
+ *     .withMember("gateway", "eu-central-1")
+ *     .withoutStackTraces();
+ *
+ * rewriter.rewrite(gson.newJsonReader(upstream), gson.newJsonWriter(downstream));
+ * }</pre>
+ *
+ * Members are replaced in place or, if the problem doesn't have them, appended. Their values are written using the
+ * given {@link Gson} instance. Causes and stack traces are dropped at every level of the causal chain, all other
+ * changes only apply to the outermost problem.
+ *
+ * Rewriters are immutable, every {@code with...} method returns a modified copy.
+ */
+@API(status = EXPERIMENTAL)
+public final class ProblemRewriter {
+
+    private static final String CAUSE = "cause";
+    private static final String STACKTRACE = "stacktrace";
+    private static final String STACKTRACE_SAMPLED_OUT = "stacktraceSampledOut";
+
+    private final TypeAdapter<Object> values;
+    private final Map<String, Object> members;
+    private final Set<String> removals;
+    private final boolean causes;
+    private final boolean stackTraces;
+
+    public ProblemRewriter(final Gson gson) {
+        this(requireNonNull(gson, "Gson").getAdapter(Object.class),
+                Collections.emptyMap(), Collections.emptySet(), true, true);
+    }
+
+    private ProblemRewriter(final TypeAdapter<Object> values, final Map<String, Object> members,
+            final Set<String> removals, final boolean causes, final boolean stackTraces) {
+        this.values = values;
+        this.members = members;
+        this.removals = removals;
+        this.causes = causes;
+        this.stackTraces = stackTraces;
+    }
+
+    /**
+     * @param name the member's name
+     * @param value the member's value
+     * @return a copy of this rewriter that replaces or adds the given member
+     */
+    public ProblemRewriter withMember(final String name, @Nullable final Object value) {
+        requireNonNull(name, "Name");
+
+        final Map<String, Object> members = new LinkedHashMap<>(this.members);
+        members.put(name, value);
+
+        final Set<String> removals = new HashSet<>(this.removals);
+        removals.remove(name);
+
+        return new ProblemRewriter(values, Collections.unmodifiableMap(members),
+                Collections.unmodifiableSet(removals), causes, stackTraces);
+    }
+
+    /**
+     * @param name the member's name
+     * @return a copy of this rewriter that drops the given member
+     */
+    public ProblemRewriter withoutMember(final String name) {
+        requireNonNull(name, "Name");
+
+        final Map<String, Object> members = new LinkedHashMap<>(this.members);
+        members.remove(name);
+
+        final Set<String> removals = new HashSet<>(this.removals);
+        removals.add(name);
+
+        return new ProblemRewriter(values, Collections.unmodifiableMap(members),
+                Collections.unmodifiableSet(removals), causes, stackTraces);
+    }
+
+    /**
+     * @return a copy of this rewriter that drops causes
+     */
+    public ProblemRewriter withoutCauses() {
+        return new ProblemRewriter(values, members, removals, false, stackTraces);
+    }
+
+    /**
+     * @return a copy of this rewriter that drops stack traces, including those of causes
+     */
+    public ProblemRewriter withoutStackTraces() {
+        return new ProblemRewriter(values, members, removals, causes, false);
+    }
+
+    /**
+     * Copies the next problem from the given reader to the given writer. Neither of them is closed or flushed.
+     *
+     * @param in the reader, positioned at the start of the problem
+     * @param out the writer
+     * @throws IOException if reading or writing fails
+     * @throws IllegalStateException if the input isn't an object
+     */
+    public void rewrite(final JsonReader in, final JsonWriter out) throws IOException {
+        final Set<String> written = members.isEmpty() ? Collections.emptySet() : new HashSet<>(members.size());
+
+        in.beginObject();
+        out.beginObject();
+
+        while (in.hasNext()) {
+            final String name = in.nextName();
+
+            if (members.containsKey(name)) {
+                in.skipValue();
+                values.write(out.name(name), members.get(name));
+                written.add(name);
+            } else if (removals.contains(name) || isDropped(name)) {
+                in.skipValue();
+            } else {
+                copy(name, in, out);
+            }
+        }
+
+        for (final Map.Entry<String, Object> member : members.entrySet()) {
+            if (!written.contains(member.getKey())) {
+                values.write(out.name(member.getKey()), member.getValue());
+            }
+        }
+
+        in.endObject();
+        out.endObject();
+    }
+
+    private boolean isDropped(final String name) {
+        switch (name) {
+            case CAUSE:
+                return !causes;
+            case STACKTRACE:
+            case STACKTRACE_SAMPLED_OUT:
+                return !stackTraces;
+            default:
+                return false;
+        }
+    }
+
+    private void copy(final String name, final JsonReader in, final JsonWriter out) throws IOException {
+        out.name(name);
+
+        if (!stackTraces && CAUSE.equals(name) && in.peek() == JsonToken.BEGIN_OBJECT) {
+            copyCause(in, out);
+        } else {
+            JsonStreams.copy(in, out);
+        }
+    }
+
+    private void copyCause(final JsonReader in, final JsonWriter out) throws IOException {
+        in.beginObject();
+        out.beginObject();
+
+        while (in.hasNext()) {
+            final String name = in.nextName();
+
+            if (isDropped(name)) {
+                in.skipValue();
+            } else {
+                copy(name, in, out);
+            }
+        }
+
+        in.endObject();
+        out.endObject();
+    }
+
+}
@@ -4,18 +4,20 @@ import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
-import lombok.AllArgsConstructor;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.zalando.problem.StatusRegistry;
 import org.zalando.problem.StatusType;
 
 import java.io.IOException;
-import java.util.Map;
 import java.util.Objects;
 
-@AllArgsConstructor
 final class StatusTypeAdapter extends TypeAdapter<StatusType> {
 
-    private Map<Integer, StatusType> index;
+    private final StatusRegistry registry;
+
+    StatusTypeAdapter(final StatusRegistry registry) {
+        this.registry = registry;
+    }
 
     @Override
     public void write(
@@ -39,9 +41,7 @@ final class StatusTypeAdapter extends TypeAdapter<StatusType> {
             return null;
         }
 
-        final int statusCode = in.nextInt();
-        @Nullable final StatusType status = index.get(statusCode);
-        return status == null ? new UnknownStatus(statusCode) : status;
+        return registry.resolve(in.nextInt());
     }
 
 }
@@ -2,12 +2,16 @@ package org.zalando.problem.gson;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.google.gson.stream.JsonReader;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.jupiter.api.Test;
 import org.zalando.problem.DefaultProblem;
 import org.zalando.problem.Exceptional;
 import org.zalando.problem.Problem;
 import org.zalando.problem.ProblemBuilder;
+import org.zalando.problem.StackTracePolicy;
 import org.zalando.problem.Status;
 import org.zalando.problem.StatusType;
 import org.zalando.problem.ThrowableProblem;
@@ -20,12 +24,15 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URI;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 import static com.jayway.jsonassert.JsonAssert.with;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasSize;
@@ -36,6 +43,7 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.startsWith;
 import static org.hobsoft.hamcrest.compose.ComposeMatchers.hasFeature;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.zalando.problem.Status.BAD_REQUEST;
 
 class GsonProblemTest {
@@ -86,6 +94,91 @@ class GsonProblemTest {
                 .assertThat("$.product", is("B00027Y5QG"));
     }
 
+    @Test
+    void shouldSerializePrimitiveProperties() {
+        final Problem primitives = Problem.builder()
+                .withType(URI.create("https://example.org/out-of-stock"))
+                .with("retryAfter", 30)
+                .with("offset", Long.MAX_VALUE)
+                .with("balance", -0.5)
+                .with("blocked", true)
+                .build();
+
+        final Problem boxed = Problem.builder()
+                .withType(URI.create("https://example.org/out-of-stock"))
+                .with("retryAfter", (Object) 30)
+                .with("offset", (Object) Long.MAX_VALUE)
+                .with("balance", (Object) (-0.5))
+                .with("blocked", (Object) true)
+                .build();
+
+        final String json = gson.toJson(primitives);
+
+        assertThat(json, is(gson.toJson(boxed)));
+        with(json)
+                .assertThat("$.retryAfter", is(30))
+                .assertThat("$.offset", is(Long.MAX_VALUE))
+                .assertThat("$.balance", is(-0.5))
+                .assertThat("$.blocked", is(true));
+    }
+
+    @Test
+    void shouldSerializeDefaultProblemAsBefore() {
+        final Problem problem = Problem.builder()
+                .withType(URI.create("https://example.org/out-of-stock"))
+                .withTitle("Out of Stock")
+                .withStatus(BAD_REQUEST)
+                .withInstance(URI.create("/orders/4711"))
+                .withCause(Problem.builder().withTitle("<Sold out>").build())
+                .with("retryAfter", 30)
+                .with("product", "B00027Y5QG")
+                .with("missing", (Object) null)
+                .build();
+
+        assertThat(gson.toJson(problem), is("{" +
+                "\"type\":\"https://example.org/out-of-stock\"," +
+                "\"title\":\"Out of Stock\"," +
+                "\"status\":400," +
+                "\"instance\":\"/orders/4711\"," +
+                "\"cause\":{\"title\":\"\\u003cSold out\\u003e\"}," +
+                "\"retryAfter\":30," +
+                "\"product\":\"B00027Y5QG\"" +
+                "}"));
+    }
+
+    @Test
+    void shouldSerializeSameAsJsonTree() {
+        final Problem problem = Problem.builder()
+                .withType(URI.create("https://example.org/out-of-stock"))
+                .withTitle("Out of Stock")
+                .withStatus(BAD_REQUEST)
+                .withDetail("Item <B00027Y5QG> is no longer available")
+                .withCause(Problem.builder()
+                        .withTitle("Sold out")
+                        .withCause(Problem.valueOf(Status.CONFLICT))
+                        .build())
+                .with("retryAfter", 30)
+                .with("offset", Long.MAX_VALUE)
+                .with("balance", -0.5)
+                .with("blocked", true)
+                .with("missing", (Object) null)
+                .with("items", Collections.singletonList(Collections.singletonMap("count", 2)))
+                .build();
+
+        final List<Gson> configurations = Arrays.asList(
+                gson,
+                new GsonBuilder()
+                        .registerTypeAdapterFactory(new ProblemAdapterFactory().withStackTraces())
+                        .serializeNulls()
+                        .disableHtmlEscaping()
+                        .setPrettyPrinting()
+                        .create());
+
+        for (final Gson gson : configurations) {
+            assertThat(gson.toJson(problem), is(gson.toJson(gson.toJsonTree(problem))));
+        }
+    }
+
     @Test
     void shouldSerializeCustomProblem() {
         final int balance = 10;
@@ -149,6 +242,61 @@ class GsonProblemTest {
                 .assertThat("$.misc", is(problem.getMisc()));
     }
 
+    @Test
+    void shouldSerializeTypeOfNonThrowableProblemOnce() {
+        final String json = gson.toJson(new MyProblem(URI.create("https://my.org/problem")));
+
+        assertThat(json.split("\"type\"", -1).length, is(2));
+    }
+
+    @Test
+    void shouldNotSerializeThrowableInternalsOfCustomProblems() {
+        final Problem problem = new InsufficientFundsProblem(10, 100, Collections.singletonMap("foo", "bar"));
+
+        final Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new ProblemAdapterFactory().withStackTraces())
+                .serializeNulls()
+                .create();
+
+        assertThat(JsonParser.parseString(gson.toJson(problem)).getAsJsonObject().keySet(), contains(
+                "balance", "debit", "title", "status", "detail", "instance", "cause", "type", "foo", "stacktrace"));
+    }
+
+    @Test
+    void shouldSerializeCustomProblemWithoutTypeField() {
+        final Problem problem = new OutOfStockException("Item B00027Y5QG is no longer available");
+
+        with(gson.toJson(problem))
+                .assertThat("$.*", hasSize(2))
+                .assertThat("$.type", is("https://example.org/out-of-stock"))
+                .assertThat("$.detail", is("Item B00027Y5QG is no longer available"));
+    }
+
+    @Test
+    void shouldSerializeDifferentCustomProblemsRepeatedly() {
+        final Problem funds = new InsufficientFundsProblem(10, 100);
+        final Problem io = new IOProblem(URI.create("https://example.org/io-problem"), "Storage Overflow",
+                Status.INSUFFICIENT_STORAGE, null, null);
+
+        for (int i = 0; i < 3; i++) {
+            with(gson.toJson(funds, Problem.class))
+                    .assertThat("$.type", is(InsufficientFundsProblem.TYPE_VALUE))
+                    .assertThat("$.balance", is(10));
+            with(gson.toJson(io, Problem.class))
+                    .assertThat("$.*", hasSize(3))
+                    .assertThat("$.title", is("Storage Overflow"));
+        }
+
+        final Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new ProblemAdapterFactory().withStackTraces())
+                .create();
+
+        with(gson.toJson(funds, Problem.class))
+                .assertThat("$.stacktrace", is(instanceOf(List.class)));
+        with(this.gson.toJson(funds, Problem.class))
+                .assertThat("$.*", hasSize(5));
+    }
+
     @Test
     void shouldSerializeCustomProblemWithStackTraces() {
         final int balance = 10;
@@ -166,6 +314,26 @@ class GsonProblemTest {
                 .assertThat("$.stacktrace[0]", is(instanceOf(String.class)));
     }
 
+    @Test
+    void shouldLimitStackTraces() {
+        final ThrowableProblem problem = Problem.valueOf(BAD_REQUEST);
+        final ThrowableProblem custom = new InsufficientFundsProblem(10, 100);
+
+        final ProblemAdapterFactory factory = new ProblemAdapterFactory()
+                .withStackTraces()
+                .withMaxStackTraceFrames(2);
+        final Gson gson = new GsonBuilder().registerTypeAdapterFactory(factory).create();
+
+        with(gson.toJson(problem))
+                .assertThat("$.stacktrace", hasSize(2))
+                .assertThat("$.stacktrace[0]", is(problem.getStackTrace()[0].toString()))
+                .assertThat("$.stacktrace[1]", is(problem.getStackTrace()[1].toString()));
+
+        with(gson.toJson(custom))
+                .assertThat("$.stacktrace", hasSize(2))
+                .assertThat("$.stacktrace[0]", is(custom.getStackTrace()[0].toString()));
+    }
+
     @Test
     void shouldSerializeProblemCause() {
         final Problem problem = Problem.builder()
@@ -242,6 +410,30 @@ class GsonProblemTest {
                 .assertThat("$.stacktrace[0]", is(instanceOf(String.class)));
     }
 
+    @Test
+    void shouldSerializeSampledOutStacktrace() {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing()
+                .withSampler((type, status) -> false));
+
+        final Problem problem;
+        try {
+            problem = Problem.valueOf(BAD_REQUEST);
+        } finally {
+            StackTracePolicy.setDefault(StackTracePolicy.capturing());
+        }
+
+        final Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new ProblemAdapterFactory().withStackTraces())
+                .create();
+
+        with(gson.toJson(problem))
+                .assertThat("$.stacktrace", hasSize(0))
+                .assertThat("$.stacktraceSampledOut", is(true));
+
+        with(this.gson.toJson(problem))
+                .assertNotDefined("$.stacktraceSampledOut");
+    }
+
     @Test
     void shouldDeserializeDefaultProblem() throws IOException {
         try (final JsonReader reader = getReader("default.json")) {
@@ -334,6 +526,141 @@ class GsonProblemTest {
         assertThat(problem.getInstance(), is(nullValue()));
     }
 
+    @Test
+    void shouldDeserializeSpecificProblemIfTypeIsNotFirst() {
+        final Problem problem = gson.fromJson("{\"balance\":10,\"title\":\"Insufficient Funds\"," +
+                "\"type\":\"" + InsufficientFundsProblem.TYPE_VALUE + "\",\"debit\":-20}", Problem.class);
+
+        assertThat(problem, instanceOf(InsufficientFundsProblem.class));
+        assertThat((InsufficientFundsProblem) problem,
+                hasFeature("balance", InsufficientFundsProblem::getBalance, equalTo(10)));
+        assertThat((InsufficientFundsProblem) problem,
+                hasFeature("debit", InsufficientFundsProblem::getDebit, equalTo(-20)));
+    }
+
+    @Test
+    void shouldDeserializeDefaultProblemIfTypeIsNotFirst() {
+        final ThrowableProblem problem = gson.fromJson("{\"title\":\"Out of Stock\"," +
+                "\"cause\":{\"title\":\"Sold out\"},\"product\":\"B00027Y5QG\"," +
+                "\"type\":\"https://example.org/not-out-of-stock\",\"status\":400}", ThrowableProblem.class);
+
+        assertThat(problem, instanceOf(DefaultProblem.class));
+        assertThat(problem, hasFeature("type", Problem::getType, hasToString("https://example.org/not-out-of-stock")));
+        assertThat(problem, hasFeature("title", Problem::getTitle, equalTo("Out of Stock")));
+        assertThat(problem, hasFeature("status", Problem::getStatus, equalTo(BAD_REQUEST)));
+        assertThat(problem, hasFeature("parameters", Problem::getParameters, hasEntry("product", "B00027Y5QG")));
+        assertThat(problem.getCause(), hasFeature("title", Problem::getTitle, equalTo("Sold out")));
+    }
+
+    @Test
+    void shouldDeserializeSpecificCause() {
+        final ThrowableProblem problem = gson.fromJson("{\"title\":\"Payment failed\"," +
+                "\"cause\":{\"type\":\"" + InsufficientFundsProblem.TYPE_VALUE + "\",\"balance\":10}}",
+                ThrowableProblem.class);
+
+        assertThat(problem.getCause(), instanceOf(InsufficientFundsProblem.class));
+    }
+
+    @Test
+    void shouldDeserializeCauseOfCustomProblem() {
+        final ThrowableProblem original = new InsufficientFundsProblem(10, 100,
+                Problem.builder().withTitle("Card blocked").with("card", "1234").build());
+
+        final ThrowableProblem problem = gson.fromJson(gson.toJson(original), ThrowableProblem.class);
+
+        assertThat(problem, instanceOf(InsufficientFundsProblem.class));
+        assertThat(problem, hasFeature("balance", p -> ((InsufficientFundsProblem) p).getBalance(), is(10)));
+        assertThat(problem.getCause(), hasFeature("title", Problem::getTitle, equalTo("Card blocked")));
+        assertThat(problem.getCause(), hasFeature("parameters", Problem::getParameters, hasEntry("card", "1234")));
+        assertThat(gson.toJson(problem), is(gson.toJson(original)));
+    }
+
+    @Test
+    void shouldRejectCauseThatCantBePassedOn() {
+        final JsonParseException exception = assertThrows(JsonParseException.class, () -> gson.fromJson(
+                "{\"type\":\"https://example.org/out-of-stock\",\"cause\":{\"title\":\"Sold out\"}}",
+                IOProblem.class));
+
+        assertThat(exception.getMessage(), containsString(IOProblem.class.getName()));
+    }
+
+    @Test
+    void shouldDeserializeSameFromStreamAndTree() {
+        final List<String> problems = Arrays.asList(
+                "{}",
+                "{\"type\":\"https://example.org/out-of-stock\",\"title\":\"Out of Stock\",\"product\":[1,2.5]}",
+                "{\"title\":\"Out of Stock\",\"type\":null,\"cause\":{\"title\":\"Sold out\"}}",
+                "{\"status\":400,\"type\":\"" + InsufficientFundsProblem.TYPE_VALUE + "\",\"balance\":10}",
+                "{\"title\":\"Payment failed\",\"cause\":" +
+                        "{\"type\":\"" + InsufficientFundsProblem.TYPE_VALUE + "\",\"debit\":-20},\"retry\":true}");
+
+        for (final String json : problems) {
+            final Problem streamed = gson.fromJson(json, Problem.class);
+            final Problem tree = gson.fromJson(JsonParser.parseString(json), Problem.class);
+
+            assertThat(json, describe(streamed), is(describe(tree)));
+        }
+    }
+
+    private static String describe(@Nullable final Problem problem) {
+        if (problem == null) {
+            return "null";
+        }
+
+        return problem.getClass().getSimpleName() + "(" +
+                problem.getType() + ", " + problem.getTitle() + ", " + problem.getStatus() + ", " +
+                (problem instanceof DefaultProblem ? problem.getParameters() : "") + ", " +
+                describe(((ThrowableProblem) problem).getCause()) + ")";
+    }
+
+    @Test
+    void shouldReadNumbersWithoutLosingPrecision() {
+        final Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new ProblemAdapterFactory().withLosslessNumbers())
+                .create();
+        final String json = "{\"title\":\"Declined\",\"retryAfter\":30,\"account\":12345678901234567," +
+                "\"amount\":19.90,\"total\":123456789012345678901234567890," +
+                "\"items\":[{\"count\":2,\"price\":9.95}],\"tags\":[]}";
+
+        final Problem problem = gson.fromJson(json, Problem.class);
+
+        assertThat(problem.getParameters(), hasEntry("retryAfter", 30));
+        assertThat(problem.getParameters(), hasEntry("account", 12345678901234567L));
+        assertThat(problem.getParameters().get("amount"), hasToString("19.90"));
+        assertThat(problem.getParameters().get("total"), hasToString("123456789012345678901234567890"));
+        assertThat(problem.getParameters().get("items"), hasToString("[{count=2, price=9.95}]"));
+        assertThat(problem.getParameters(), hasEntry("tags", Collections.emptyList()));
+        assertThat(gson.toJson(problem), is(json));
+    }
+
+    @Test
+    void shouldKeepRawParameters() {
+        final Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new ProblemAdapterFactory().withRawParameters())
+                .create();
+        final String json = "{\"title\":\"Invalid\",\"status\":400," +
+                "\"violations\":[{\"field\":\"name\",\"amount\":1.50}]}";
+
+        final Problem problem = gson.fromJson(json, Problem.class);
+
+        // written back out without decoding, i.e. 1.50 isn't normalized
+        assertThat(gson.toJson(problem), is(json));
+        assertThat(problem.getParameters(), is(this.gson.fromJson(json, Problem.class).getParameters()));
+    }
+
+    @Test
+    void shouldDecodeRawParametersIfNullsWouldBeWritten() {
+        final Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new ProblemAdapterFactory().withRawParameters())
+                .create();
+
+        final Problem problem = gson.fromJson("{\"debug\":{\"trace\":null,\"amount\":1.50}}", Problem.class);
+
+        assertThat(gson.toJson(problem), is("{\"debug\":{\"amount\":1.5}}"));
+        assertThat(problem.getParameters(), hasEntry("debug",
+                this.gson.fromJson("{\"trace\":null,\"amount\":1.50}", Object.class)));
+    }
+
     @Test
     void shouldDeserializeCause() throws IOException {
         try (final JsonReader reader = getReader("cause.json")) {
@@ -1,6 +1,8 @@
 package org.zalando.problem.gson;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.ThrowableProblem;
 
 import java.net.URI;
 import java.util.Collections;
@@ -26,7 +28,22 @@ final class InsufficientFundsProblem extends AbstractThrowableProblem {
             final int balance,
             final int debit,
             final Map<String, Object> parameters) {
-        super(TYPE, "Insufficient Funds", BAD_REQUEST, null, null, null, parameters);
+        this(balance, debit, null, parameters);
+    }
+
+    InsufficientFundsProblem(
+            final int balance,
+            final int debit,
+            final ThrowableProblem cause) {
+        this(balance, debit, cause, Collections.emptyMap());
+    }
+
+    private InsufficientFundsProblem(
+            final int balance,
+            final int debit,
+            @Nullable final ThrowableProblem cause,
+            final Map<String, Object> parameters) {
+        super(TYPE, "Insufficient Funds", BAD_REQUEST, null, null, cause, parameters);
         this.balance = balance;
         this.debit = debit;
     }
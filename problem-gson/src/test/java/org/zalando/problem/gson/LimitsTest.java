@@ -0,0 +1,155 @@
+package org.zalando.problem.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+import org.zalando.problem.Problem;
+import org.zalando.problem.ThrowableProblem;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hobsoft.hamcrest.compose.ComposeMatchers.hasFeature;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class LimitsTest {
+
+    @Test
+    void shouldNotLimitByDefault() {
+        final Gson gson = gson(new ProblemAdapterFactory());
+
+        final Problem problem = gson.fromJson("{\"title\":\"" + repeat("a", 10_000) + "\"," +
+                "\"values\":" + nested(500) + "," +
+                "\"cause\":" + causes(100) + "}", Problem.class);
+
+        assertThat(problem.getParameters(), hasKey("values"));
+    }
+
+    @Test
+    void shouldRejectDeeplyNestedParameters() {
+        final Gson gson = gson(new ProblemAdapterFactory().withMaxDepth(3));
+
+        assertThat(gson.fromJson("{\"values\":" + nested(2) + "}", Problem.class).getParameters(),
+                hasKey("values"));
+
+        final JsonParseException exception = assertThrows(JsonParseException.class, () ->
+                gson.fromJson("{\"values\":" + nested(500) + "}", Problem.class));
+
+        assertThat(exception.getMessage(), containsString("Nesting depth exceeds the maximum of 3"));
+        assertThat(exception.getStackTrace(), is(arrayWithSize(0)));
+    }
+
+    @Test
+    void shouldRejectDeeplyNestedRawParameters() {
+        final Gson gson = gson(new ProblemAdapterFactory()
+                .withRawParameters()
+                .withMaxDepth(3));
+
+        assertThrows(JsonParseException.class, () ->
+                gson.fromJson("{\"values\":" + nested(3) + "}", Problem.class));
+    }
+
+    @Test
+    void shouldRejectDeeplyNestedLosslessParameters() {
+        final Gson gson = gson(new ProblemAdapterFactory()
+                .withLosslessNumbers()
+                .withMaxDepth(3));
+
+        assertThat(gson.fromJson("{\"values\":" + nested(2) + "}", Problem.class).getParameters(),
+                hasKey("values"));
+
+        assertThrows(JsonParseException.class, () ->
+                gson.fromJson("{\"values\":" + nested(3) + "}", Problem.class));
+    }
+
+    @Test
+    void shouldRejectDeeplyNestedCauses() {
+        final Gson gson = gson(new ProblemAdapterFactory().withMaxDepth(3));
+
+        final ThrowableProblem problem = gson.fromJson("{\"cause\":" + causes(2) + "}", ThrowableProblem.class);
+        assertThat(problem.getCause(), hasFeature("cause", ThrowableProblem::getCause, is(notNullValue())));
+
+        assertThrows(JsonParseException.class, () ->
+                gson.fromJson("{\"cause\":" + causes(3) + "}", Problem.class));
+    }
+
+    @Test
+    void shouldRejectLongCausalChains() {
+        final Gson gson = gson(new ProblemAdapterFactory().withMaxCauseDepth(2));
+
+        gson.fromJson("{\"cause\":" + causes(2) + "}", Problem.class);
+
+        final JsonParseException exception = assertThrows(JsonParseException.class, () ->
+                gson.fromJson("{\"cause\":" + causes(3) + "}", Problem.class));
+
+        assertThat(exception.getMessage(), containsString("Cause depth exceeds the maximum of 2"));
+    }
+
+    @Test
+    void shouldCountCausesPerCall() {
+        final Gson gson = gson(new ProblemAdapterFactory().withMaxCauseDepth(2));
+
+        for (int i = 0; i < 3; i++) {
+            gson.fromJson("{\"cause\":" + causes(2) + "}", Problem.class);
+        }
+    }
+
+    @Test
+    void shouldRejectTooManyParameters() {
+        final Gson gson = gson(new ProblemAdapterFactory().withMaxParameters(2));
+
+        gson.fromJson("{\"title\":\"Bad\",\"status\":400,\"a\":1,\"b\":2}", Problem.class);
+
+        final JsonParseException exception = assertThrows(JsonParseException.class, () ->
+                gson.fromJson("{\"title\":\"Bad\",\"a\":1,\"b\":2,\"c\":3}", Problem.class));
+
+        assertThat(exception.getMessage(), containsString("Number of parameters exceeds the maximum of 2"));
+    }
+
+    @Test
+    void shouldRejectLongTitlesAndDetails() {
+        final Gson gson = gson(new ProblemAdapterFactory().withMaxStringLength(5));
+
+        gson.fromJson("{\"title\":\"Bad\",\"detail\":\"Worse\",\"long\":\"Not limited\"}", Problem.class);
+
+        assertThrows(JsonParseException.class, () ->
+                gson.fromJson("{\"title\":\"Too bad\"}", Problem.class));
+        assertThrows(JsonParseException.class, () ->
+                gson.fromJson("{\"detail\":\"Much worse\"}", Problem.class));
+    }
+
+    @Test
+    void shouldThrowForNegativeLimits() {
+        final ProblemAdapterFactory factory = new ProblemAdapterFactory();
+
+        assertThrows(IllegalArgumentException.class, () -> factory.withMaxDepth(-1));
+        assertThrows(IllegalArgumentException.class, () -> factory.withMaxCauseDepth(-1));
+        assertThrows(IllegalArgumentException.class, () -> factory.withMaxParameters(-1));
+        assertThrows(IllegalArgumentException.class, () -> factory.withMaxStringLength(-1));
+    }
+
+    private static Gson gson(final ProblemAdapterFactory factory) {
+        return new GsonBuilder().registerTypeAdapterFactory(factory).create();
+    }
+
+    private static String nested(final int depth) {
+        return repeat("[", depth) + repeat("]", depth);
+    }
+
+    private static String causes(final int depth) {
+        return repeat("{\"title\":\"Cause\",\"cause\":", depth - 1) + "{\"title\":\"Cause\"}" + repeat("}", depth - 1);
+    }
+
+    private static String repeat(final String value, final int times) {
+        final StringBuilder builder = new StringBuilder(value.length() * times);
+        for (int i = 0; i < times; i++) {
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,38 @@
+package org.zalando.problem.gson;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasToString;
+import static org.hamcrest.Matchers.is;
+
+final class LosslessValuesTest {
+
+    @Test
+    void shouldDetectLongs() {
+        assertThat(LosslessValues.isLong("0"), is(true));
+        assertThat(LosslessValues.isLong("-17"), is(true));
+        assertThat(LosslessValues.isLong(Long.toString(Long.MAX_VALUE)), is(true));
+        assertThat(LosslessValues.isLong(Long.toString(Long.MIN_VALUE)), is(true));
+    }
+
+    @Test
+    void shouldDetectNonLongs() {
+        assertThat(LosslessValues.isLong("-"), is(false));
+        assertThat(LosslessValues.isLong("1.0"), is(false));
+        assertThat(LosslessValues.isLong("1e3"), is(false));
+        assertThat(LosslessValues.isLong("9223372036854775808"), is(false));
+        assertThat(LosslessValues.isLong("-9223372036854775809"), is(false));
+        assertThat(LosslessValues.isLong("12345678901234567890"), is(false));
+    }
+
+    @Test
+    void shouldReadNumbersAsPrimitivesIfTheyFit() {
+        assertThat(LosslessValues.number("2147483647"), is(equalTo((Object) Integer.MAX_VALUE)));
+        assertThat(LosslessValues.number("2147483648"), is(equalTo((Object) 2147483648L)));
+        assertThat(LosslessValues.number("1.50"), hasToString("1.50"));
+        assertThat(LosslessValues.number("9223372036854775808"), hasToString("9223372036854775808"));
+    }
+
+}
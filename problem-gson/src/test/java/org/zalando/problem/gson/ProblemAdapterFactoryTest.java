@@ -38,4 +38,9 @@ class ProblemAdapterFactoryTest {
                     .registerSubtype(OutOfStockException.TYPE, InsufficientFundsProblem.class);
         });
     }
+
+    @Test
+    void shouldThrowForNegativeMaxStackTraceFrames() {
+        assertThrows(IllegalArgumentException.class, () -> new ProblemAdapterFactory().withMaxStackTraceFrames(-1));
+    }
 }
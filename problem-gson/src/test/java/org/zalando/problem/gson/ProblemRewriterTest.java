@@ -0,0 +1,103 @@
+package org.zalando.problem.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URI;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class ProblemRewriterTest {
+
+    private static final String JSON = "{" +
+            "\"type\":\"https://example.org/out-of-stock\"," +
+            "\"title\":\"Out of Stock\"," +
+            "\"status\":400," +
+            "\"instance\":\"/upstream/4711\"," +
+            "\"price\":1.50," +
+            "\"cause\":{\"title\":\"Bar\",\"stacktrace\":[\"a.B.c(B.java:1)\"],\"stacktraceSampledOut\":true}," +
+            "\"stacktrace\":[\"a.B.d(B.java:2)\"]" +
+            "}";
+
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(new ProblemAdapterFactory())
+            .disableHtmlEscaping()
+            .create();
+
+    @Test
+    void shouldCopyProblemsAsTheyAre() throws IOException {
+        assertThat(rewrite(new ProblemRewriter(gson), JSON), is(JSON));
+    }
+
+    @Test
+    void shouldReplaceMembersInPlaceAndAppendOthers() throws IOException {
+        final ProblemRewriter unit = new ProblemRewriter(gson)
+                .withMember("instance", URI.create("/orders/4711"))
+                .withMember("gateway", "eu-central-1")
+                .withMember("attempts", 3);
+
+        assertThat(rewrite(unit, "{\"title\":\"Out of Stock\",\"instance\":\"/upstream/4711\",\"price\":1.50}"),
+                is("{\"title\":\"Out of Stock\",\"instance\":\"/orders/4711\",\"price\":1.50," +
+                        "\"gateway\":\"eu-central-1\",\"attempts\":3}"));
+    }
+
+    @Test
+    void shouldDropMembers() throws IOException {
+        final ProblemRewriter unit = new ProblemRewriter(gson)
+                .withMember("price", 2)
+                .withoutMember("price")
+                .withoutMember("instance");
+
+        assertThat(rewrite(unit, "{\"title\":\"Out of Stock\",\"instance\":\"/upstream/4711\",\"price\":1.50}"),
+                is("{\"title\":\"Out of Stock\"}"));
+    }
+
+    @Test
+    void shouldDropCauses() throws IOException {
+        assertThat(rewrite(new ProblemRewriter(gson).withoutCauses(), JSON), is("{" +
+                "\"type\":\"https://example.org/out-of-stock\"," +
+                "\"title\":\"Out of Stock\"," +
+                "\"status\":400," +
+                "\"instance\":\"/upstream/4711\"," +
+                "\"price\":1.50," +
+                "\"stacktrace\":[\"a.B.d(B.java:2)\"]" +
+                "}"));
+    }
+
+    @Test
+    void shouldDropStackTracesOfProblemAndCauses() throws IOException {
+        assertThat(rewrite(new ProblemRewriter(gson).withoutStackTraces(), JSON), is("{" +
+                "\"type\":\"https://example.org/out-of-stock\"," +
+                "\"title\":\"Out of Stock\"," +
+                "\"status\":400," +
+                "\"instance\":\"/upstream/4711\"," +
+                "\"price\":1.50," +
+                "\"cause\":{\"title\":\"Bar\"}" +
+                "}"));
+    }
+
+    @Test
+    void shouldRejectNonObjects() {
+        assertThrows(IllegalStateException.class, () -> rewrite(new ProblemRewriter(gson), "[]"));
+    }
+
+    private String rewrite(final ProblemRewriter rewriter, final String json) throws IOException {
+        final StringWriter writer = new StringWriter();
+
+        try (JsonReader reader = gson.newJsonReader(new StringReader(json));
+             JsonWriter out = gson.newJsonWriter(writer)) {
+            rewriter.rewrite(reader, out);
+        }
+
+        return writer.toString();
+    }
+
+}
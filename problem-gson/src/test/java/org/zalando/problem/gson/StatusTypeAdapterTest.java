@@ -3,17 +3,18 @@ package org.zalando.problem.gson;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.junit.jupiter.api.Test;
+import org.zalando.problem.Status;
+import org.zalando.problem.StatusRegistry;
 import org.zalando.problem.StatusType;
 
-import java.util.Collections;
-
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class StatusTypeAdapterTest {
 
     private static Gson gson = new GsonBuilder()
-            .registerTypeHierarchyAdapter(StatusType.class, new StatusTypeAdapter(Collections.emptyMap()))
+            .registerTypeHierarchyAdapter(StatusType.class, new StatusTypeAdapter(StatusRegistry.of(new StatusType[0])))
             .create();
 
     @Test
@@ -28,4 +29,49 @@ class StatusTypeAdapterTest {
         assertNull(status);
     }
 
+    @Test
+    void shouldDeserializeKnownAndUnknownCodes() {
+        final Gson gson = new GsonBuilder()
+                .registerTypeHierarchyAdapter(StatusType.class,
+                        new StatusTypeAdapter(StatusRegistry.of(Status.NOT_FOUND, MyStatus.CUSTOM)))
+                .create();
+
+        assertSame(Status.NOT_FOUND, gson.fromJson("404", StatusType.class));
+        assertSame(MyStatus.CUSTOM, gson.fromJson("999", StatusType.class));
+        assertEquals(418, gson.fromJson("418", StatusType.class).getStatusCode());
+        assertEquals(42, gson.fromJson("42", StatusType.class).getStatusCode());
+        assertEquals(600, gson.fromJson("600", StatusType.class).getStatusCode());
+    }
+
+    @Test
+    void shouldInternUnknownStatuses() {
+        assertSame(gson.fromJson("520", StatusType.class), gson.fromJson("520", StatusType.class));
+    }
+
+    @Test
+    void shouldResolveStatusesOfRegistry() {
+        final Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new ProblemAdapterFactory(StatusRegistry.of(MyStatus.CUSTOM)))
+                .create();
+
+        assertSame(MyStatus.CUSTOM, gson.fromJson("999", StatusType.class));
+        assertEquals("Unknown", gson.fromJson("404", StatusType.class).getReasonPhrase());
+    }
+
+    private enum MyStatus implements StatusType {
+
+        CUSTOM;
+
+        @Override
+        public int getStatusCode() {
+            return 999;
+        }
+
+        @Override
+        public String getReasonPhrase() {
+            return "Custom";
+        }
+
+    }
+
 }
\ No newline at end of file
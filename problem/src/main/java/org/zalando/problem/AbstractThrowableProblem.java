@@ -4,8 +4,6 @@ import org.apiguardian.api.API;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.net.URI;
-import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -18,7 +16,19 @@ public abstract class AbstractThrowableProblem extends ThrowableProblem {
     private final StatusType status;
     private final String detail;
     private final URI instance;
-    private final Map<String, Object> parameters;
+
+    /**
+     * Not final, because {@link #set(String, Object)} replaces it with every parameter. Absent if this problem was
+     * created without calling its constructor, e.g. by a reflection-based deserializer.
+     */
+    @Nullable
+    private volatile ParameterMap parameters;
+
+    /**
+     * Collects the parameters of {@link #set(String, Object)}. Maps built by it share their entries with it, i.e.
+     * setting many parameters stays linear.
+     */
+    private transient ParameterMap.@Nullable Builder builder;
 
     protected AbstractThrowableProblem() {
         this(null);
@@ -77,13 +87,27 @@ public abstract class AbstractThrowableProblem extends ThrowableProblem {
             @Nullable final URI instance,
             @Nullable final ThrowableProblem cause,
             @Nullable final Map<String, Object> parameters) {
-        super(cause);
+        this(type, title, status, detail, instance, cause, parameters,
+                StackTracePolicy.getDefault().decide(type == null ? DEFAULT_TYPE : type, status), true);
+    }
+
+    AbstractThrowableProblem(
+            @Nullable final URI type,
+            @Nullable final String title,
+            @Nullable final StatusType status,
+            @Nullable final String detail,
+            @Nullable final URI instance,
+            @Nullable final ThrowableProblem cause,
+            @Nullable final Map<String, Object> parameters,
+            final StackTracePolicy.Decision decision,
+            final boolean enableSuppression) {
+        super(cause, decision, enableSuppression);
         this.type = Optional.ofNullable(type).orElse(DEFAULT_TYPE);
         this.title = title;
         this.status = status;
         this.detail = detail;
         this.instance = instance;
-        this.parameters = Optional.ofNullable(parameters).orElseGet(LinkedHashMap::new);
+        this.parameters = ParameterMap.copyOf(parameters);
     }
 
     @Override
@@ -113,7 +137,8 @@ public abstract class AbstractThrowableProblem extends ThrowableProblem {
 
     @Override
     public Map<String, Object> getParameters() {
-        return Collections.unmodifiableMap(parameters);
+        @Nullable final ParameterMap parameters = this.parameters;
+        return parameters == null ? ParameterMap.EMPTY : parameters;
     }
 
     /**
@@ -126,7 +151,15 @@ public abstract class AbstractThrowableProblem extends ThrowableProblem {
      */
     @API(status = INTERNAL)
     void set(final String key, final Object value) {
-        parameters.put(key, value);
+        ParameterMap.@Nullable Builder builder = this.builder;
+
+        if (builder == null) {
+            builder = ParameterMap.copyOf(parameters).toBuilder();
+            this.builder = builder;
+        }
+
+        builder.put(key, value);
+        this.parameters = builder.build();
     }
 
 }
@@ -0,0 +1,29 @@
+package org.zalando.problem;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.net.URI;
+
+final class CountingStackTraceSampler implements StackTraceSampler {
+
+    private final SamplingCounters counters;
+    private final int interval;
+
+    CountingStackTraceSampler(final int interval) {
+        this(interval, SamplingCounters.DEFAULT_CAPACITY);
+    }
+
+    CountingStackTraceSampler(final int interval, final int capacity) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        this.counters = new SamplingCounters(capacity, 0);
+        this.interval = interval;
+    }
+
+    @Override
+    public boolean sample(@Nullable final URI type, @Nullable final StatusType status) {
+        return counters.get(type, status).getAndIncrement() % interval == 0;
+    }
+
+}
@@ -30,4 +30,17 @@ public final class DefaultProblem extends AbstractThrowableProblem {
             @Nullable final Map<String, Object> parameters) {
         super(type, title, status, detail, instance, cause, parameters);
     }
+
+    DefaultProblem(@Nullable final URI type,
+            @Nullable final String title,
+            @Nullable final StatusType status,
+            @Nullable final String detail,
+            @Nullable final URI instance,
+            @Nullable final ThrowableProblem cause,
+            @Nullable final Map<String, Object> parameters,
+            final StackTracePolicy.Decision decision,
+            final boolean enableSuppression) {
+        super(type, title, status, detail, instance, cause, parameters, decision, enableSuppression);
+    }
+
 }
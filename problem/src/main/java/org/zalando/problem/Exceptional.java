@@ -23,6 +23,16 @@ public interface Exceptional extends Problem {
 
     Exceptional getCause();
 
+    /**
+     * Whether this problem skipped capturing its stack trace on purpose, because it was sampled out.
+     *
+     * @return true if the stack trace was sampled out, false otherwise
+     * @see StackTracePolicy#withSampler(StackTraceSampler)
+     */
+    default boolean isStackTraceSampledOut() {
+        return false;
+    }
+
     default Exception propagate() throws Exception {
         throw propagateAs(Exception.class);
     }
@@ -0,0 +1,355 @@
+package org.zalando.problem;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+/**
+ * A minimal pull parser for UTF-8 encoded JSON, reading either from an array or from a stream through a buffer.
+ * Structure is left to the caller, which {@link #peek() peeks} at the next token and then reads it. Strings that
+ * consist of ASCII characters only, and that don't span buffer boundaries, are created from the buffer directly.
+ *
+ * @see ProblemJsonReader
+ */
+final class JsonInput {
+
+    private static final int SIZE = 4096;
+
+    /**
+     * The smallest code point per number of continuation bytes, anything below is an overlong encoding.
+     */
+    private static final int[] MIN_CODE_POINTS = {0, 0x80, 0x800, 0x10000};
+
+    @Nullable
+    private final InputStream stream;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+
+    /**
+     * The offset of the buffer within the input, for error messages.
+     */
+    private long offset;
+
+    private final StringBuilder text = new StringBuilder();
+    private long integer;
+
+    JsonInput(final InputStream stream) {
+        this.stream = stream;
+        this.buffer = new byte[SIZE];
+    }
+
+    JsonInput(final byte[] bytes, final int offset, final int length) {
+        this.stream = null;
+        this.buffer = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+        this.offset = -offset;
+    }
+
+    /**
+     * @return the position within the array this input reads from
+     */
+    int position() {
+        return position;
+    }
+
+    /**
+     * Skips whitespace.
+     *
+     * @return the first byte of the next token, or {@code -1} at the end of the input
+     * @throws IOException if reading fails
+     */
+    int peek() throws IOException {
+        while (true) {
+            final int next = next();
+            switch (next) {
+                case ' ':
+                case '\n':
+                case '\r':
+                case '\t':
+                    position++;
+                    break;
+                default:
+                    return next;
+            }
+        }
+    }
+
+    boolean consume(final char c) throws IOException {
+        if (peek() == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    void expect(final char c) throws IOException {
+        if (!consume(c)) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    boolean consumeNull() throws IOException {
+        if (peek() == 'n') {
+            literal("null");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the boolean, assuming that the next token {@link #peek() starts} with either {@code t} or {@code f}
+     * @throws IOException if reading fails or the next token is not a boolean
+     */
+    boolean bool() throws IOException {
+        if (peek() == 't') {
+            literal("true");
+            return true;
+        }
+        literal("false");
+        return false;
+    }
+
+    @Nullable
+    String nullableString() throws IOException {
+        return consumeNull() ? null : string();
+    }
+
+    String string() throws IOException {
+        expect('"');
+
+        for (int i = position; i < limit; i++) {
+            final byte b = buffer[i];
+            if (b == '"') {
+                final String string = new String(buffer, position, i - position, ISO_8859_1);
+                position = i + 1;
+                return string;
+            } else if (b == '\\' || b < 0x20) {
+                // escapes, control and non-ASCII characters, which are negative
+                break;
+            }
+        }
+
+        text.setLength(0);
+        while (true) {
+            final int b = read();
+            if (b == '"') {
+                return text.toString();
+            } else if (b == '\\') {
+                escape();
+            } else if (b < 0x20) {
+                throw error("Unescaped control character");
+            } else if (b < 0x80) {
+                text.append((char) b);
+            } else {
+                utf8(b);
+            }
+        }
+    }
+
+    private void escape() throws IOException {
+        final int c = read();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                text.append((char) c);
+                break;
+            case 'b':
+                text.append('\b');
+                break;
+            case 'f':
+                text.append('\f');
+                break;
+            case 'n':
+                text.append('\n');
+                break;
+            case 'r':
+                text.append('\r');
+                break;
+            case 't':
+                text.append('\t');
+                break;
+            case 'u':
+                // surrogate pairs are escaped as two separate characters
+                char value = 0;
+                for (int i = 0; i < 4; i++) {
+                    final int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw error("Invalid unicode escape");
+                    }
+                    value = (char) (value << 4 | digit);
+                }
+                text.append(value);
+                break;
+            default:
+                throw error("Invalid escape");
+        }
+    }
+
+    private void utf8(final int first) throws IOException {
+        final int continuations;
+        int codePoint;
+
+        if ((first & 0xE0) == 0xC0) {
+            continuations = 1;
+            codePoint = first & 0x1F;
+        } else if ((first & 0xF0) == 0xE0) {
+            continuations = 2;
+            codePoint = first & 0x0F;
+        } else if ((first & 0xF8) == 0xF0) {
+            continuations = 3;
+            codePoint = first & 0x07;
+        } else {
+            throw error("Invalid UTF-8");
+        }
+
+        for (int i = 0; i < continuations; i++) {
+            final int b = read();
+            if ((b & 0xC0) != 0x80) {
+                throw error("Invalid UTF-8");
+            }
+            codePoint = codePoint << 6 | b & 0x3F;
+        }
+
+        if (codePoint < MIN_CODE_POINTS[continuations] || codePoint > Character.MAX_CODE_POINT
+                || codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+            throw error("Invalid UTF-8");
+        }
+
+        text.appendCodePoint(codePoint);
+    }
+
+    /**
+     * Reads a number, which is either an integer small enough to be {@link #integer() parsed on the fly} or kept as
+     * {@link #numberText() text}.
+     *
+     * @return whether the number is available as an integer
+     * @throws IOException if reading fails or the next token is not a number
+     */
+    boolean number() throws IOException {
+        peek();
+        text.setLength(0);
+
+        final boolean negative = optional('-');
+        long value = 0;
+        int digits = 0;
+
+        if (optional('0')) {
+            digits++;
+        } else {
+            int next = next();
+            if (next < '1' || next > '9') {
+                throw error("Expected number");
+            }
+            while (next >= '0' && next <= '9') {
+                value = value * 10 + next - '0';
+                digits++;
+                append(next);
+                next = next();
+            }
+        }
+
+        boolean integral = true;
+
+        if (optional('.')) {
+            integral = false;
+            digits();
+        }
+
+        if (optional('e') || optional('E')) {
+            integral = false;
+            if (!optional('+')) {
+                optional('-');
+            }
+            digits();
+        }
+
+        // 18 digits always fit into a long
+        if (integral && digits <= 18) {
+            integer = negative ? -value : value;
+            return true;
+        }
+        return false;
+    }
+
+    long integer() {
+        return integer;
+    }
+
+    String numberText() {
+        return text.toString();
+    }
+
+    private void digits() throws IOException {
+        int next = next();
+        if (next < '0' || next > '9') {
+            throw error("Expected digit");
+        }
+        do {
+            append(next);
+            next = next();
+        } while (next >= '0' && next <= '9');
+    }
+
+    private boolean optional(final char c) throws IOException {
+        if (next() == c) {
+            append(c);
+            return true;
+        }
+        return false;
+    }
+
+    private void append(final int c) {
+        text.append((char) c);
+        position++;
+    }
+
+    private void literal(final String literal) throws IOException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw error("Expected " + literal);
+            }
+        }
+    }
+
+    /**
+     * @return the next byte without consuming it, or {@code -1} at the end of the input
+     * @throws IOException if reading fails
+     */
+    private int next() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private int read() throws IOException {
+        final int next = next();
+        if (next < 0) {
+            throw error("Unexpected end of input");
+        }
+        position++;
+        return next;
+    }
+
+    private boolean fill() throws IOException {
+        if (stream == null) {
+            return false;
+        }
+
+        offset += limit;
+        position = 0;
+        limit = Math.max(stream.read(buffer, 0, SIZE), 0);
+        return limit > 0;
+    }
+
+    IOException error(final String message) {
+        return new IOException(message + " at offset " + (offset + position));
+    }
+
+}
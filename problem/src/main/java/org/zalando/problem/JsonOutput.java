@@ -0,0 +1,286 @@
+package org.zalando.problem;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Generates UTF-8 encoded JSON into a fixed-size buffer, which is handed to a {@link Sink sink} whenever it's full.
+ * Separators between members and elements are inserted automatically. Strings are escaped like Jackson does by
+ * default, i.e. only quotes, backslashes and control characters are escaped.
+ *
+ * @param <X> the exception type the sink may throw
+ * @see ProblemJsonWriter
+ */
+final class JsonOutput<X extends Exception> {
+
+    /**
+     * Large enough for any single write, i.e. an escaped surrogate pair or a number.
+     */
+    private static final int SIZE = 1024;
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(US_ASCII);
+    private static final byte[] NULL = "null".getBytes(US_ASCII);
+    private static final byte[] TRUE = "true".getBytes(US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(US_ASCII);
+
+    @FunctionalInterface
+    interface Sink<X extends Exception> {
+        void write(byte[] bytes, int offset, int length) throws X;
+    }
+
+    private final Sink<X> sink;
+    private final byte[] buffer = new byte[SIZE];
+    private int position;
+
+    /**
+     * Whether the next member or element needs to be preceded by a comma.
+     */
+    private boolean separate;
+
+    JsonOutput(final Sink<X> sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * @param name a short member name, already encoded as a quoted string followed by a colon
+     * @throws X if the sink throws
+     */
+    void name(final byte[] name) throws X {
+        separator();
+        raw(name);
+        separate = false;
+    }
+
+    void name(final String name) throws X {
+        separator();
+        string(name);
+        reserve(1);
+        buffer[position++] = ':';
+        separate = false;
+    }
+
+    void beginObject() throws X {
+        begin('{');
+    }
+
+    void endObject() throws X {
+        end('}');
+    }
+
+    void beginArray() throws X {
+        begin('[');
+    }
+
+    void endArray() throws X {
+        end(']');
+    }
+
+    void nullValue() throws X {
+        value(NULL);
+    }
+
+    void value(final boolean value) throws X {
+        value(value ? TRUE : FALSE);
+    }
+
+    void value(final String value) throws X {
+        separator();
+        string(value);
+        separate = true;
+    }
+
+    void value(final long value) throws X {
+        separator();
+        reserve(20);
+
+        if (value == Long.MIN_VALUE) {
+            ascii(Long.toString(value));
+        } else {
+            long remaining = Math.abs(value);
+            int end = position + digits(remaining) + (value < 0 ? 1 : 0);
+            if (value < 0) {
+                buffer[position] = '-';
+            }
+            position = end;
+            do {
+                buffer[--end] = (byte) ('0' + remaining % 10);
+                remaining /= 10;
+            } while (remaining != 0);
+        }
+
+        separate = true;
+    }
+
+    /**
+     * Writes finite values as numbers and all others, i.e. {@code NaN} and the infinities, as strings.
+     *
+     * @param value the value
+     * @throws X if the sink throws
+     */
+    void value(final double value) throws X {
+        if (Double.isFinite(value)) {
+            number(Double.toString(value));
+        } else {
+            value(Double.toString(value));
+        }
+    }
+
+    void value(final float value) throws X {
+        if (Float.isFinite(value)) {
+            number(Float.toString(value));
+        } else {
+            value(Float.toString(value));
+        }
+    }
+
+    /**
+     * @param number a valid JSON number
+     * @throws X if the sink throws
+     */
+    void number(final String number) throws X {
+        separator();
+        ascii(number);
+        separate = true;
+    }
+
+    void flush() throws X {
+        sink.write(buffer, 0, position);
+        position = 0;
+    }
+
+    private void begin(final char c) throws X {
+        separator();
+        reserve(1);
+        buffer[position++] = (byte) c;
+        separate = false;
+    }
+
+    private void end(final char c) throws X {
+        reserve(1);
+        buffer[position++] = (byte) c;
+        separate = true;
+    }
+
+    private void value(final byte[] literal) throws X {
+        separator();
+        raw(literal);
+        separate = true;
+    }
+
+    private void raw(final byte[] bytes) throws X {
+        reserve(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void separator() throws X {
+        if (separate) {
+            reserve(1);
+            buffer[position++] = ',';
+        }
+    }
+
+    private void reserve(final int length) throws X {
+        if (position + length > SIZE) {
+            flush();
+        }
+    }
+
+    private void ascii(final String value) throws X {
+        for (int i = 0; i < value.length(); i++) {
+            reserve(1);
+            buffer[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void string(final String value) throws X {
+        reserve(1);
+        buffer[position++] = '"';
+
+        final int length = value.length();
+        for (int i = 0; i < length; i++) {
+            // the worst case is an escaped surrogate pair
+            reserve(12);
+            final char c = value.charAt(i);
+
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    buffer[position++] = (byte) c;
+                } else {
+                    escape(c);
+                }
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (!Character.isSurrogate(c)) {
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else {
+                // lone surrogates can't be encoded as UTF-8
+                unicode(c);
+            }
+        }
+
+        reserve(1);
+        buffer[position++] = '"';
+    }
+
+    private void escape(final char c) {
+        switch (c) {
+            case '"':
+            case '\\':
+                shortEscape(c);
+                break;
+            case '\n':
+                shortEscape('n');
+                break;
+            case '\r':
+                shortEscape('r');
+                break;
+            case '\t':
+                shortEscape('t');
+                break;
+            case '\b':
+                shortEscape('b');
+                break;
+            case '\f':
+                shortEscape('f');
+                break;
+            default:
+                unicode(c);
+        }
+    }
+
+    private void shortEscape(final char c) {
+        buffer[position++] = '\\';
+        buffer[position++] = (byte) c;
+    }
+
+    private void unicode(final char c) {
+        buffer[position++] = '\\';
+        buffer[position++] = 'u';
+        buffer[position++] = HEX[c >> 12];
+        buffer[position++] = HEX[c >> 8 & 0xF];
+        buffer[position++] = HEX[c >> 4 & 0xF];
+        buffer[position++] = HEX[c & 0xF];
+    }
+
+    private static int digits(final long value) {
+        long limit = 10;
+        for (int digits = 1; digits < 19; digits++) {
+            if (value < limit) {
+                return digits;
+            }
+            limit *= 10;
+        }
+        return 19;
+    }
+
+}
@@ -0,0 +1,430 @@
+package org.zalando.problem;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable, insertion-ordered map of problem parameters. Keys and values are stored alternately in a single array.
+ * Maps of up to {@link #MAX_LINEAR} entries are searched linearly, larger ones use an open addressing hash table of
+ * positions.
+ *
+ * Primitive values are stored unboxed in a separate array, their value slot holds a {@link Primitive} marker instead.
+ * They are only boxed when accessed through the {@link Map} interface, see {@link ParameterVisitor} for an alternative.
+ * {@link RawParameter Raw parameters} are stored as is and decoded whenever they are accessed through the {@link Map}
+ * interface.
+ *
+ * Maps are serialized as a {@link LinkedHashMap} of their decoded values, see {@link SerializedForm}.
+ */
+final class ParameterMap extends AbstractMap<String, Object> implements Serializable {
+
+    static final ParameterMap EMPTY = new ParameterMap(new Object[0], null, 0, null);
+
+    private static final int MAX_LINEAR = 8;
+
+    private final Object[] entries;
+
+    /**
+     * Primitive values by position, only present if there is at least one.
+     */
+    @Nullable
+    private final long[] primitives;
+
+    private final int size;
+
+    /**
+     * Positions + 1 of keys, indexed by their hash, {@code 0} marks a free slot. Only present above {@link #MAX_LINEAR}.
+     */
+    @Nullable
+    private final int[] table;
+
+    private ParameterMap(final Object[] entries, @Nullable final long[] primitives, final int size,
+            @Nullable final int[] table) {
+        this.entries = entries;
+        this.primitives = primitives;
+        this.size = size;
+        this.table = table;
+    }
+
+    static ParameterMap copyOf(@Nullable final Map<String, ?> parameters) {
+        if (parameters instanceof ParameterMap) {
+            return (ParameterMap) parameters;
+        }
+
+        if (parameters == null || parameters.isEmpty()) {
+            return EMPTY;
+        }
+
+        final Builder builder = new Builder();
+        parameters.forEach(builder::put);
+        return builder.build();
+    }
+
+    /**
+     * @return a copy of this map with the given entry added or replaced
+     */
+    ParameterMap with(@Nullable final String key, @Nullable final Object value) {
+        final Builder builder = toBuilder();
+        builder.put(key, value);
+        return builder.build();
+    }
+
+    /**
+     * @return a builder that starts with the entries of this map, which are only copied once it's modified
+     */
+    Builder toBuilder() {
+        return new Builder(entries, primitives, size, table);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(@Nullable final Object key) {
+        return position(key) >= 0;
+    }
+
+    @Override
+    @Nullable
+    public Object get(@Nullable final Object key) {
+        final int position = position(key);
+        return position < 0 ? null : valueAt(position);
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super Object> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(keyAt(i), valueAt(i));
+        }
+    }
+
+    <X extends Exception> void accept(final ParameterVisitor<X> visitor) throws X {
+        for (int i = 0; i < size; i++) {
+            final String key = keyAt(i);
+            @Nullable final Object value = entries[2 * i + 1];
+
+            if (value instanceof Primitive) {
+                final long bits = primitives[i];
+
+                switch ((Primitive) value) {
+                    case INT:
+                        visitor.visitInt(key, (int) bits);
+                        break;
+                    case LONG:
+                        visitor.visitLong(key, bits);
+                        break;
+                    case DOUBLE:
+                        visitor.visitDouble(key, Double.longBitsToDouble(bits));
+                        break;
+                    default:
+                        visitor.visitBoolean(key, bits != 0);
+                        break;
+                }
+            } else if (value instanceof RawParameter) {
+                visitor.visitRaw(key, (RawParameter) value);
+            } else {
+                visitor.visit(key, value);
+            }
+        }
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<Entry<String, Object>>() {
+
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        final int i = next++;
+                        return new SimpleImmutableEntry<>(keyAt(i), valueAt(i));
+                    }
+
+                };
+            }
+
+        };
+    }
+
+    private String keyAt(final int position) {
+        return (String) entries[2 * position];
+    }
+
+    @Nullable
+    private Object valueAt(final int position) {
+        @Nullable final Object value = entries[2 * position + 1];
+
+        if (value instanceof Primitive) {
+            final long bits = primitives[position];
+
+            switch ((Primitive) value) {
+                case INT:
+                    return (int) bits;
+                case LONG:
+                    return bits;
+                case DOUBLE:
+                    return Double.longBitsToDouble(bits);
+                default:
+                    return bits != 0;
+            }
+        }
+
+        if (value instanceof RawParameter) {
+            return ((RawParameter) value).decode();
+        }
+
+        return value;
+    }
+
+    private Object writeReplace() {
+        return new SerializedForm(this);
+    }
+
+    private void readObject(final ObjectInputStream stream) throws InvalidObjectException {
+        throw new InvalidObjectException("Serialized form required");
+    }
+
+    private int position(@Nullable final Object key) {
+        return find(entries, size, table, key);
+    }
+
+    /**
+     * @return the position of the given key, or {@code -1} if there is none
+     */
+    private static int find(final Object[] entries, final int size, @Nullable final int[] table,
+            @Nullable final Object key) {
+
+        if (table == null) {
+            for (int i = 0; i < size; i++) {
+                if (Objects.equals(key, entries[2 * i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        final int mask = table.length - 1;
+
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            final int candidate = table[slot] - 1;
+
+            if (candidate < 0) {
+                return -1;
+            }
+
+            // the builder of a map may have appended keys to its table since, which the map has to skip
+            if (candidate < size && Objects.equals(key, entries[2 * candidate])) {
+                return candidate;
+            }
+        }
+    }
+
+    private static int[] index(final Object[] entries, final int size) {
+        // keep the load factor at or below 0.5
+        final int[] table = new int[Integer.highestOneBit(size * 2 - 1) << 1];
+
+        for (int i = 0; i < size; i++) {
+            insert(table, entries[2 * i], i);
+        }
+
+        return table;
+    }
+
+    private static void insert(final int[] table, @Nullable final Object key, final int position) {
+        final int mask = table.length - 1;
+        int slot = hash(key) & mask;
+
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+
+        table[slot] = position + 1;
+    }
+
+    private static int hash(@Nullable final Object key) {
+        final int hash = Objects.hashCode(key);
+        return hash ^ (hash >>> 16);
+    }
+
+    private enum Primitive {
+        INT, LONG, DOUBLE, BOOLEAN
+    }
+
+    /**
+     * Decodes {@link RawParameter raw parameters} and boxes primitives, since neither the encoding of the former nor
+     * the layout of this map should be part of the serialized form of problems.
+     */
+    private static final class SerializedForm implements Serializable {
+
+        private final LinkedHashMap<String, Object> parameters;
+
+        SerializedForm(final ParameterMap parameters) {
+            this.parameters = new LinkedHashMap<>(parameters);
+        }
+
+        private Object readResolve() {
+            return copyOf(parameters);
+        }
+
+    }
+
+    /**
+     * Collects parameters in insertion order, replacing values of existing keys in place. Building hands the collected
+     * entries off to the resulting map, which only ever looks at its own positions. Appending to the builder
+     * afterwards therefore keeps sharing them, while replacing values of built positions copies them first. Keys are
+     * indexed the same way as in the map, so that collecting many parameters stays linear.
+     */
+    static final class Builder {
+
+        private Object[] entries;
+
+        @Nullable
+        private long[] primitives;
+
+        private int size;
+
+        @Nullable
+        private int[] table;
+
+        /**
+         * Whether entries, primitives and table were allocated by this builder, rather than by the one of a map.
+         */
+        private boolean owned;
+
+        /**
+         * The number of positions that are visible to built maps, which must not be modified in place.
+         */
+        private int built;
+
+        Builder() {
+            this(EMPTY.entries, null, 0, null);
+        }
+
+        private Builder(final Object[] entries, @Nullable final long[] primitives, final int size,
+                @Nullable final int[] table) {
+            this.entries = entries;
+            this.primitives = primitives;
+            this.size = size;
+            this.table = table;
+        }
+
+        void put(@Nullable final String key, @Nullable final Object value) {
+            final int position = position(key);
+            entries[2 * position + 1] = value;
+        }
+
+        void putInt(@Nullable final String key, final int value) {
+            putPrimitive(key, Primitive.INT, value);
+        }
+
+        void putLong(@Nullable final String key, final long value) {
+            putPrimitive(key, Primitive.LONG, value);
+        }
+
+        void putDouble(@Nullable final String key, final double value) {
+            putPrimitive(key, Primitive.DOUBLE, Double.doubleToRawLongBits(value));
+        }
+
+        void putBoolean(@Nullable final String key, final boolean value) {
+            putPrimitive(key, Primitive.BOOLEAN, value ? 1 : 0);
+        }
+
+        private void putPrimitive(@Nullable final String key, final Primitive primitive, final long bits) {
+            final int position = position(key);
+            entries[2 * position + 1] = primitive;
+
+            if (primitives == null) {
+                primitives = new long[entries.length / 2];
+            }
+
+            primitives[position] = bits;
+        }
+
+        /**
+         * Finds or appends the given key, after making sure that its position can be modified.
+         *
+         * @return the position of the key
+         */
+        private int position(@Nullable final String key) {
+            final int existing = find(entries, size, table, key);
+
+            if (existing >= 0) {
+                if (!owned || existing < built) {
+                    copy(entries.length / 2);
+                }
+                return existing;
+            }
+
+            if (!owned || 2 * size == entries.length) {
+                copy(Math.max(4, 2 * size == entries.length ? entries.length : entries.length / 2));
+            }
+
+            entries[2 * size] = key;
+
+            if (size + 1 > MAX_LINEAR) {
+                if (table == null || 2 * (size + 1) > table.length) {
+                    table = index(entries, size + 1);
+                } else {
+                    // built maps skip positions beyond their size
+                    insert(table, key, size);
+                }
+            }
+
+            return size++;
+        }
+
+        private void copy(final int capacity) {
+            entries = Arrays.copyOf(entries, 2 * capacity);
+            primitives = primitives == null ? null : Arrays.copyOf(primitives, capacity);
+            table = table == null || owned ? table : table.clone();
+            owned = true;
+            built = 0;
+        }
+
+        ParameterMap build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            built = size;
+            return new ParameterMap(entries, primitives, size, table);
+        }
+
+    }
+
+}
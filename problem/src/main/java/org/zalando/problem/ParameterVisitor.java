@@ -0,0 +1,72 @@
+package org.zalando.problem;
+
+import org.apiguardian.api.API;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Map;
+
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
+
+/**
+ * Visits problem parameters without boxing primitive values, e.g. to serialize them:
+ *
+ * <pre>{@code
+ * ParameterVisitor.visitAll(problem.getParameters(), new ParameterVisitor<IOException>() {
+ *     ...
+ * });
+ * }</pre>
+ *
+ * Primitives are only visited as such if they were added using one of the primitive overloads of
+ * {@link ProblemBuilder#with(String, int) ProblemBuilder.with(..)}, all other values are visited as objects.
+ * {@link RawParameter Raw parameters} are visited undecoded, which allows serializers to write them verbatim.
+ *
+ * @param <X> the exception type the visitor may throw
+ */
+@API(status = EXPERIMENTAL)
+@FunctionalInterface
+public interface ParameterVisitor<X extends Exception> {
+
+    void visit(String key, @Nullable Object value) throws X;
+
+    default void visitInt(final String key, final int value) throws X {
+        visit(key, value);
+    }
+
+    default void visitLong(final String key, final long value) throws X {
+        visit(key, value);
+    }
+
+    default void visitDouble(final String key, final double value) throws X {
+        visit(key, value);
+    }
+
+    default void visitBoolean(final String key, final boolean value) throws X {
+        visit(key, value);
+    }
+
+    default void visitRaw(final String key, final RawParameter value) throws X {
+        visit(key, value.decode());
+    }
+
+    /**
+     * Visits all given parameters in order.
+     *
+     * @param parameters the parameters, usually {@link Problem#getParameters()}
+     * @param visitor    the visitor
+     * @param <X>        the exception type the visitor may throw
+     * @throws X if the visitor throws
+     */
+    static <X extends Exception> void visitAll(
+            final Map<String, Object> parameters, final ParameterVisitor<X> visitor) throws X {
+
+        if (parameters instanceof ParameterMap) {
+            ((ParameterMap) parameters).accept(visitor);
+            return;
+        }
+
+        for (final Map.Entry<String, Object> entry : parameters.entrySet()) {
+            visitor.visit(entry.getKey(), entry.getValue());
+        }
+    }
+
+}
@@ -10,6 +10,7 @@ import java.util.Objects;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.joining;
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
 import static org.apiguardian.api.API.Status.STABLE;
 
 /**
@@ -110,6 +111,32 @@ public interface Problem {
         return GenericProblems.create(status).withDetail(detail).withInstance(instance).build();
     }
 
+    /**
+     * Returns a shared, immutable problem with the given status, equal to {@link #valueOf(StatusType)} but without a
+     * stack trace. The same instance is returned on every call, i.e. it's safe to use in hot paths that respond with
+     * canned problems. Shared problems don't record suppressed exceptions.
+     *
+     * @param status the status
+     * @return a shared problem without stack trace
+     */
+    @API(status = EXPERIMENTAL)
+    static ThrowableProblem shared(final Status status) {
+        return SharedProblems.get(status);
+    }
+
+    /**
+     * Returns a shared, immutable problem with the given status and detail, see {@link #shared(Status)}. Problems are
+     * cached per status and detail, i.e. the detail is expected to be a constant rather than e.g. contain an id.
+     *
+     * @param status the status
+     * @param detail the detail
+     * @return a shared problem without stack trace
+     */
+    @API(status = EXPERIMENTAL)
+    static ThrowableProblem shared(final Status status, @Nullable final String detail) {
+        return SharedProblems.get(status, detail);
+    }
+
     /**
      * Specification by example:
      * <pre>{@code
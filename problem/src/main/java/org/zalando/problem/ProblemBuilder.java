@@ -6,10 +6,9 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.Set;
 
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
 import static org.apiguardian.api.API.Status.STABLE;
 
 @API(status = STABLE)
@@ -25,7 +24,7 @@ public final class ProblemBuilder {
     private String detail;
     private URI instance;
     private ThrowableProblem cause;
-    private final Map<String, Object> parameters = new LinkedHashMap<>();
+    private final ParameterMap.Builder parameters = new ParameterMap.Builder();
 
     /**
      * @see Problem#builder()
@@ -72,15 +71,135 @@ public final class ProblemBuilder {
      * @throws IllegalArgumentException if key is any of type, title, status, detail or instance
      */
     public ProblemBuilder with(final String key, @Nullable final Object value) throws IllegalArgumentException {
+        parameters.put(checkNotReserved(key), value);
+        return this;
+    }
+
+    /**
+     * Adds an {@code int} parameter, which is stored and serialized without boxing.
+     *
+     * @param key property name
+     * @param value property value
+     * @return this for chaining
+     * @throws IllegalArgumentException if key is any of type, title, status, detail or instance
+     * @see ParameterVisitor
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemBuilder with(final String key, final int value) throws IllegalArgumentException {
+        parameters.putInt(checkNotReserved(key), value);
+        return this;
+    }
+
+    /**
+     * Adds a {@code long} parameter, which is stored and serialized without boxing.
+     *
+     * @param key property name
+     * @param value property value
+     * @return this for chaining
+     * @throws IllegalArgumentException if key is any of type, title, status, detail or instance
+     * @see ParameterVisitor
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemBuilder with(final String key, final long value) throws IllegalArgumentException {
+        parameters.putLong(checkNotReserved(key), value);
+        return this;
+    }
+
+    /**
+     * Adds a {@code double} parameter, which is stored and serialized without boxing.
+     *
+     * @param key property name
+     * @param value property value
+     * @return this for chaining
+     * @throws IllegalArgumentException if key is any of type, title, status, detail or instance
+     * @see ParameterVisitor
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemBuilder with(final String key, final double value) throws IllegalArgumentException {
+        parameters.putDouble(checkNotReserved(key), value);
+        return this;
+    }
+
+    /**
+     * Adds a {@code boolean} parameter, which is stored and serialized without boxing.
+     *
+     * @param key property name
+     * @param value property value
+     * @return this for chaining
+     * @throws IllegalArgumentException if key is any of type, title, status, detail or instance
+     * @see ParameterVisitor
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemBuilder with(final String key, final boolean value) throws IllegalArgumentException {
+        parameters.putBoolean(checkNotReserved(key), value);
+        return this;
+    }
+
+    /**
+     * Adds a {@code float} parameter. It's kept as a {@link Float}, i.e. it's not widened to {@code double}, which
+     * would change its serialized representation.
+     *
+     * @param key property name
+     * @param value property value
+     * @return this for chaining
+     * @throws IllegalArgumentException if key is any of type, title, status, detail or instance
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemBuilder with(final String key, final float value) throws IllegalArgumentException {
+        return with(key, (Object) value);
+    }
+
+    /**
+     * Adds a {@code char} parameter. It's kept as a {@link Character}, i.e. it's not widened to {@code int}, which
+     * would change its serialized representation.
+     *
+     * @param key property name
+     * @param value property value
+     * @return this for chaining
+     * @throws IllegalArgumentException if key is any of type, title, status, detail or instance
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemBuilder with(final String key, final char value) throws IllegalArgumentException {
+        return with(key, (Object) value);
+    }
+
+    /**
+     * Adds a {@code byte} parameter. It's kept as a {@link Byte}, i.e. it's not widened to {@code int}, which would
+     * change its type when accessed through {@link Problem#getParameters()}.
+     *
+     * @param key property name
+     * @param value property value
+     * @return this for chaining
+     * @throws IllegalArgumentException if key is any of type, title, status, detail or instance
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemBuilder with(final String key, final byte value) throws IllegalArgumentException {
+        return with(key, (Object) value);
+    }
+
+    /**
+     * Adds a {@code short} parameter. It's kept as a {@link Short}, i.e. it's not widened to {@code int}, which would
+     * change its type when accessed through {@link Problem#getParameters()}.
+     *
+     * @param key property name
+     * @param value property value
+     * @return this for chaining
+     * @throws IllegalArgumentException if key is any of type, title, status, detail or instance
+     */
+    @API(status = EXPERIMENTAL)
+    public ProblemBuilder with(final String key, final short value) throws IllegalArgumentException {
+        return with(key, (Object) value);
+    }
+
+    private static String checkNotReserved(final String key) throws IllegalArgumentException {
         if (RESERVED_PROPERTIES.contains(key)) {
             throw new IllegalArgumentException("Property " + key + " is reserved");
         }
-        parameters.put(key, value);
-        return this;
+        return key;
     }
 
     public ThrowableProblem build() {
-        return new DefaultProblem(type, title, status, detail, instance, cause, new LinkedHashMap<>(parameters));
+        return new DefaultProblem(type, title, status, detail, instance, cause, parameters.build());
     }
 
 }
@@ -0,0 +1,307 @@
+package org.zalando.problem;
+
+import org.apiguardian.api.API;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
+
+/**
+ * Reads UTF-8 encoded {@code application/problem+json} without depending on a JSON library, e.g. for clients that
+ * use neither Jackson nor Gson:
+ *
+ * <pre>{@code
+ * ThrowableProblem problem = new ProblemJsonReader().read(response.getInputStream());
+ * }</pre>
+ *
+ * Problems are read as {@link Problem#builder() default problems}, the status is resolved using a
+ * {@link StatusRegistry registry} and all other members become parameters. Integers are read as {@code int} or
+ * {@code long} if they fit and as {@link BigInteger} otherwise, all other numbers as {@code double}. Objects and
+ * arrays are read as mutable maps and lists.
+ * <p>
+ * Readers are immutable and thread-safe. Content after the problem is ignored.
+ *
+ * @see ProblemJsonWriter
+ */
+@API(status = EXPERIMENTAL)
+public final class ProblemJsonReader {
+
+    /**
+     * The same nesting limit that Jackson applies by default.
+     */
+    private static final int DEFAULT_MAX_DEPTH = 1000;
+
+    private final StatusRegistry statuses;
+    private final int maxDepth;
+
+    public ProblemJsonReader() {
+        this(StatusRegistry.of(Status.class));
+    }
+
+    /**
+     * @param statuses the registry to resolve status codes with
+     */
+    public ProblemJsonReader(final StatusRegistry statuses) {
+        this(requireNonNull(statuses, "Statuses"), DEFAULT_MAX_DEPTH);
+    }
+
+    private ProblemJsonReader(final StatusRegistry statuses, final int maxDepth) {
+        this.statuses = statuses;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Limits how deeply objects and arrays may be nested, including the problem itself and its causes, which bounds
+     * the stack that reading uses. Defaults to 1000.
+     *
+     * @param maxDepth the maximum nesting depth
+     * @return a copy of this reader using the given limit
+     * @throws IllegalArgumentException if the given limit is not positive
+     */
+    public ProblemJsonReader withMaxDepth(final int maxDepth) throws IllegalArgumentException {
+        if (maxDepth <= 0) {
+            throw new IllegalArgumentException("Max depth must be positive");
+        }
+        return new ProblemJsonReader(statuses, maxDepth);
+    }
+
+    /**
+     * Reads a problem from the given stream, which is not closed. Reading is buffered, i.e. it may consume more than
+     * the problem from the stream.
+     *
+     * @param stream the stream
+     * @return the problem
+     * @throws IOException if the stream throws or doesn't contain a valid problem
+     */
+    public ThrowableProblem read(final InputStream stream) throws IOException {
+        return read(new JsonInput(requireNonNull(stream, "Stream")));
+    }
+
+    /**
+     * Reads a problem from the given buffer, starting at its position, which is advanced past the problem on success.
+     *
+     * @param buffer the buffer
+     * @return the problem
+     * @throws IOException if the buffer doesn't contain a valid problem
+     */
+    public ThrowableProblem read(final ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            final int start = buffer.arrayOffset() + buffer.position();
+            final JsonInput json = new JsonInput(buffer.array(), start, buffer.remaining());
+            final ThrowableProblem problem = read(json);
+            buffer.position(buffer.position() + json.position() - start);
+            return problem;
+        }
+
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        final JsonInput json = new JsonInput(bytes, 0, bytes.length);
+        final ThrowableProblem problem = read(json);
+        buffer.position(buffer.position() + json.position());
+        return problem;
+    }
+
+    /**
+     * @param bytes the array
+     * @return the problem
+     * @throws IOException if the array doesn't contain a valid problem
+     */
+    public ThrowableProblem read(final byte[] bytes) throws IOException {
+        return read(new JsonInput(bytes, 0, bytes.length));
+    }
+
+    private ThrowableProblem read(final JsonInput json) throws IOException {
+        if (json.peek() != '{') {
+            throw json.error("Expected problem");
+        }
+        return problem(json, 1);
+    }
+
+    private ThrowableProblem problem(final JsonInput json, final int depth) throws IOException {
+        checkDepth(json, depth);
+        json.expect('{');
+
+        final ProblemBuilder builder = Problem.builder();
+
+        if (json.consume('}')) {
+            return builder.build();
+        }
+
+        do {
+            final String name = json.string();
+            json.expect(':');
+
+            switch (name) {
+                case "type":
+                    builder.withType(uri(json));
+                    break;
+                case "title":
+                    builder.withTitle(json.nullableString());
+                    break;
+                case "status":
+                    builder.withStatus(status(json));
+                    break;
+                case "detail":
+                    builder.withDetail(json.nullableString());
+                    break;
+                case "instance":
+                    builder.withInstance(uri(json));
+                    break;
+                case "cause":
+                    builder.withCause(json.consumeNull() ? null : problem(json, depth + 1));
+                    break;
+                default:
+                    parameter(json, builder, name, depth + 1);
+            }
+        } while (json.consume(','));
+
+        json.expect('}');
+        return builder.build();
+    }
+
+    @Nullable
+    private static URI uri(final JsonInput json) throws IOException {
+        @Nullable final String uri = json.nullableString();
+
+        if (uri == null) {
+            return null;
+        }
+
+        try {
+            return URI.create(uri);
+        } catch (final IllegalArgumentException e) {
+            throw json.error("Invalid URI " + uri);
+        }
+    }
+
+    @Nullable
+    private StatusType status(final JsonInput json) throws IOException {
+        if (json.consumeNull()) {
+            return null;
+        }
+
+        if (json.number() && (int) json.integer() == json.integer()) {
+            return statuses.resolve((int) json.integer());
+        }
+        throw json.error("Invalid status");
+    }
+
+    private void parameter(final JsonInput json, final ProblemBuilder builder, final String name, final int depth)
+            throws IOException {
+
+        final int next = json.peek();
+
+        if (next == '-' || next >= '0' && next <= '9') {
+            if (json.number()) {
+                final long value = json.integer();
+                if ((int) value == value) {
+                    builder.with(name, (int) value);
+                } else {
+                    builder.with(name, value);
+                }
+            } else {
+                builder.with(name, decimal(json.numberText()));
+            }
+        } else if (next == 't' || next == 'f') {
+            builder.with(name, json.bool());
+        } else {
+            builder.with(name, value(json, depth));
+        }
+    }
+
+    @Nullable
+    private Object value(final JsonInput json, final int depth) throws IOException {
+        switch (json.peek()) {
+            case '{':
+                return map(json, depth);
+            case '[':
+                return list(json, depth);
+            case '"':
+                return json.string();
+            case 't':
+            case 'f':
+                return json.bool();
+            case 'n':
+                json.consumeNull();
+                return null;
+            default:
+                return number(json);
+        }
+    }
+
+    private Map<String, Object> map(final JsonInput json, final int depth) throws IOException {
+        checkDepth(json, depth);
+        json.expect('{');
+
+        final Map<String, Object> map = new LinkedHashMap<>();
+
+        if (json.consume('}')) {
+            return map;
+        }
+
+        do {
+            final String name = json.string();
+            json.expect(':');
+            map.put(name, value(json, depth + 1));
+        } while (json.consume(','));
+
+        json.expect('}');
+        return map;
+    }
+
+    private List<Object> list(final JsonInput json, final int depth) throws IOException {
+        checkDepth(json, depth);
+        json.expect('[');
+
+        final List<Object> list = new ArrayList<>();
+
+        if (json.consume(']')) {
+            return list;
+        }
+
+        do {
+            list.add(value(json, depth + 1));
+        } while (json.consume(','));
+
+        json.expect(']');
+        return list;
+    }
+
+    private static Number number(final JsonInput json) throws IOException {
+        if (json.number()) {
+            final long value = json.integer();
+            return (int) value == value ? (Number) (int) value : (Number) value;
+        }
+        return decimal(json.numberText());
+    }
+
+    /**
+     * @param number a number that is either not an integer or too large to be parsed on the fly
+     * @return the number as a {@code long} if it fits, as a {@link BigInteger} if it's a larger integer, and as a
+     * {@code double} otherwise
+     */
+    private static Number decimal(final String number) {
+        if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+            final BigInteger integer = new BigInteger(number);
+            return integer.bitLength() < Long.SIZE ? (Number) integer.longValue() : integer;
+        }
+        return Double.parseDouble(number);
+    }
+
+    private void checkDepth(final JsonInput json, final int depth) throws IOException {
+        if (depth > maxDepth) {
+            throw json.error("Nesting depth exceeds " + maxDepth);
+        }
+    }
+
+}
@@ -0,0 +1,230 @@
+package org.zalando.problem;
+
+import org.apiguardian.api.API;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
+
+/**
+ * Writes problems as UTF-8 encoded {@code application/problem+json} without depending on a JSON library, e.g. for
+ * services that use neither Jackson nor Gson:
+ *
+ * <pre>{@code
+ * new ProblemJsonWriter().write(problem, response.getOutputStream());
+ * }</pre>
+ *
+ * The output is the same as that of the Jackson module without stack traces: empty titles and details as well as the
+ * default type are omitted, the status is written as its code and causes are nested. Problems are only written through
+ * the {@link Problem} interface, i.e. the fields of custom problems are ignored unless they are exposed as parameters.
+ * <p>
+ * Parameter values should be JSON scalars, lists and maps. Other arrays and iterables are written as lists, statuses as
+ * their code, enums as their name and any other value as its {@link Object#toString() string form}. Numbers other than
+ * primitives, {@link BigInteger} and {@link BigDecimal} are expected to have a string form that is a valid JSON number.
+ * <p>
+ * Writers are stateless and thread-safe.
+ *
+ * @see ProblemJsonReader
+ */
+@API(status = EXPERIMENTAL)
+public final class ProblemJsonWriter {
+
+    private static final byte[] TYPE = name("type");
+    private static final byte[] TITLE = name("title");
+    private static final byte[] STATUS = name("status");
+    private static final byte[] DETAIL = name("detail");
+    private static final byte[] INSTANCE = name("instance");
+    private static final byte[] CAUSE = name("cause");
+
+    private static byte[] name(final String name) {
+        return ("\"" + name + "\":").getBytes(UTF_8);
+    }
+
+    /**
+     * Writes the given problem to the given stream, which is neither flushed nor closed.
+     *
+     * @param problem the problem
+     * @param stream the stream
+     * @throws IOException if the stream throws
+     */
+    public void write(final Problem problem, final OutputStream stream) throws IOException {
+        requireNonNull(stream, "Stream");
+        write(problem, new JsonOutput<>(stream::write));
+    }
+
+    /**
+     * Writes the given problem to the given buffer, starting at its position. Nothing is written if the problem doesn't
+     * fit, i.e. the position is only advanced on success.
+     *
+     * @param problem the problem
+     * @param buffer the buffer
+     * @throws BufferOverflowException if the buffer doesn't have enough space left
+     */
+    public void write(final Problem problem, final ByteBuffer buffer) throws BufferOverflowException {
+        final int position = requireNonNull(buffer, "Buffer").position();
+        try {
+            write(problem, new JsonOutput<>(buffer::put));
+        } catch (final BufferOverflowException e) {
+            buffer.position(position);
+            throw e;
+        }
+    }
+
+    /**
+     * @param problem the problem
+     * @return the given problem, written to a new array
+     */
+    public byte[] toByteArray(final Problem problem) {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        write(problem, new JsonOutput<>(stream::write));
+        return stream.toByteArray();
+    }
+
+    private static <X extends Exception> void write(final Problem problem, final JsonOutput<X> json) throws X {
+        requireNonNull(problem, "Problem");
+        problem(problem, json);
+        json.flush();
+    }
+
+    private static <X extends Exception> void problem(final Problem problem, final JsonOutput<X> json) throws X {
+        json.beginObject();
+
+        @Nullable final URI type = problem.getType();
+        if (type != null && !Problem.DEFAULT_TYPE.equals(type)) {
+            json.name(TYPE);
+            json.value(type.toString());
+        }
+
+        string(json, TITLE, problem.getTitle());
+
+        @Nullable final StatusType status = problem.getStatus();
+        if (status != null) {
+            json.name(STATUS);
+            json.value(status.getStatusCode());
+        }
+
+        string(json, DETAIL, problem.getDetail());
+
+        @Nullable final URI instance = problem.getInstance();
+        if (instance != null) {
+            json.name(INSTANCE);
+            json.value(instance.toString());
+        }
+
+        if (problem instanceof Exceptional) {
+            @Nullable final Exceptional cause = ((Exceptional) problem).getCause();
+            if (cause != null) {
+                json.name(CAUSE);
+                problem(cause, json);
+            }
+        }
+
+        ParameterVisitor.visitAll(problem.getParameters(), new ParameterVisitor<X>() {
+
+            @Override
+            public void visit(final String key, @Nullable final Object value) throws X {
+                json.name(key);
+                value(json, value);
+            }
+
+            @Override
+            public void visitInt(final String key, final int value) throws X {
+                json.name(key);
+                json.value(value);
+            }
+
+            @Override
+            public void visitLong(final String key, final long value) throws X {
+                json.name(key);
+                json.value(value);
+            }
+
+            @Override
+            public void visitDouble(final String key, final double value) throws X {
+                json.name(key);
+                json.value(value);
+            }
+
+            @Override
+            public void visitBoolean(final String key, final boolean value) throws X {
+                json.name(key);
+                json.value(value);
+            }
+
+        });
+
+        json.endObject();
+    }
+
+    private static <X extends Exception> void string(final JsonOutput<X> json, final byte[] name,
+            @Nullable final String value) throws X {
+
+        if (value != null && !value.isEmpty()) {
+            json.name(name);
+            json.value(value);
+        }
+    }
+
+    private static <X extends Exception> void value(final JsonOutput<X> json, @Nullable final Object value) throws X {
+        if (value == null) {
+            json.nullValue();
+        } else if (value instanceof String) {
+            json.value((String) value);
+        } else if (value instanceof Boolean) {
+            json.value((boolean) value);
+        } else if (value instanceof Number) {
+            number(json, (Number) value);
+        } else if (value instanceof Map) {
+            json.beginObject();
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                json.name(String.valueOf(entry.getKey()));
+                value(json, entry.getValue());
+            }
+            json.endObject();
+        } else if (value instanceof Iterable) {
+            json.beginArray();
+            for (final Object element : (Iterable<?>) value) {
+                value(json, element);
+            }
+            json.endArray();
+        } else if (value.getClass().isArray()) {
+            json.beginArray();
+            final int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                value(json, Array.get(value, i));
+            }
+            json.endArray();
+        } else if (value instanceof StatusType) {
+            json.value(((StatusType) value).getStatusCode());
+        } else if (value instanceof Enum) {
+            json.value(((Enum<?>) value).name());
+        } else {
+            json.value(value.toString());
+        }
+    }
+
+    private static <X extends Exception> void number(final JsonOutput<X> json, final Number value) throws X {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            json.value(value.longValue());
+        } else if (value instanceof Double) {
+            json.value(value.doubleValue());
+        } else if (value instanceof Float) {
+            json.value(value.floatValue());
+        } else {
+            json.number(value.toString());
+        }
+    }
+
+}
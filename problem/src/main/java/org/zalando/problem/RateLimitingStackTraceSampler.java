@@ -0,0 +1,67 @@
+package org.zalando.problem;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Every window packs the current second into the upper and the number of captured stack traces into the lower 32
+ * bits of a single {@link AtomicLong}. Once the limit of a window is reached, samples are rejected without any
+ * further writes, i.e. there is no contention during bursts.
+ */
+final class RateLimitingStackTraceSampler implements StackTraceSampler {
+
+    private static final long UNUSED = Long.MIN_VALUE;
+
+    private final SamplingCounters windows;
+    private final int permits;
+    private final LongSupplier clock;
+
+    RateLimitingStackTraceSampler(final int permits, final LongSupplier clock) {
+        this(permits, clock, SamplingCounters.DEFAULT_CAPACITY);
+    }
+
+    RateLimitingStackTraceSampler(final int permits, final LongSupplier clock, final int capacity) {
+        if (permits < 0) {
+            throw new IllegalArgumentException("Permits must not be negative");
+        }
+        this.windows = new SamplingCounters(capacity, UNUSED);
+        this.permits = permits;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean sample(@Nullable final URI type, @Nullable final StatusType status) {
+        final AtomicLong window = windows.get(type, status);
+
+        final int second = (int) NANOSECONDS.toSeconds(clock.getAsLong());
+
+        while (true) {
+            final long current = window.get();
+            final long next;
+
+            if (current != UNUSED && (int) (current >> 32) == second) {
+                final int count = (int) current;
+
+                if (count >= permits) {
+                    return false;
+                }
+
+                next = current + 1;
+            } else if (permits == 0) {
+                return false;
+            } else {
+                next = ((long) second << 32) | 1;
+            }
+
+            if (window.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+}
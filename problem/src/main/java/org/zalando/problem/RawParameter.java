@@ -0,0 +1,25 @@
+package org.zalando.problem;
+
+import org.apiguardian.api.API;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
+
+/**
+ * A parameter value that is kept in its serialized form, e.g. an unknown member of a deserialized problem, and only
+ * decoded when it's accessed through {@link Problem#getParameters()}. Serializers may write it back out without
+ * decoding it, see {@link ParameterVisitor#visitRaw(String, RawParameter)}.
+ *
+ * Implementations are expected to be thread-safe and to decode their value at most once, modulo races.
+ */
+@API(status = EXPERIMENTAL)
+@FunctionalInterface
+public interface RawParameter {
+
+    /**
+     * @return the decoded value
+     */
+    @Nullable
+    Object decode();
+
+}
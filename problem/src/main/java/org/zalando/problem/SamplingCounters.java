@@ -0,0 +1,43 @@
+package org.zalando.problem;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a {@link StackTraceSampler}, one per problem type and status. Types may come from untrusted input, e.g.
+ * deserialized problems, so the number of counters is capped. Combinations beyond that share a single counter.
+ */
+final class SamplingCounters {
+
+    static final int DEFAULT_CAPACITY = 1024;
+
+    private final ConcurrentMap<SamplingKey, AtomicLong> counters = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final long initial;
+    private final AtomicLong overflow;
+
+    SamplingCounters(final int capacity, final long initial) {
+        this.capacity = capacity;
+        this.initial = initial;
+        this.overflow = new AtomicLong(initial);
+    }
+
+    AtomicLong get(@Nullable final URI type, @Nullable final StatusType status) {
+        final SamplingKey key = new SamplingKey(type, status);
+        @Nullable final AtomicLong existing = counters.get(key);
+
+        if (existing != null) {
+            return existing;
+        } else if (counters.size() >= capacity) {
+            // concurrent inserts may exceed the capacity by a few entries, which is fine for a bound
+            return overflow;
+        }
+
+        return counters.computeIfAbsent(key, ignored -> new AtomicLong(initial));
+    }
+
+}
@@ -0,0 +1,36 @@
+package org.zalando.problem;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.net.URI;
+import java.util.Objects;
+
+final class SamplingKey {
+
+    @Nullable
+    private final URI type;
+    private final int status;
+
+    SamplingKey(@Nullable final URI type, @Nullable final StatusType status) {
+        this.type = type;
+        this.status = status == null ? 0 : status.getStatusCode();
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        } else if (other instanceof SamplingKey) {
+            final SamplingKey that = (SamplingKey) other;
+            return status == that.status && Objects.equals(type, that.type);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(type) + status;
+    }
+
+}
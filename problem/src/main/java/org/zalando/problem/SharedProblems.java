@@ -0,0 +1,63 @@
+package org.zalando.problem;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+final class SharedProblems {
+
+    /**
+     * Details are expected to be constants. This bounds the cache in case they aren't.
+     */
+    private static final int MAX_DETAILS = 256;
+
+    private static final Map<Status, ThrowableProblem> PROBLEMS = new EnumMap<>(Status.class);
+    private static final Map<Status, ConcurrentMap<String, ThrowableProblem>> DETAILS = new EnumMap<>(Status.class);
+
+    static {
+        for (final Status status : Status.values()) {
+            PROBLEMS.put(status, create(status, null));
+            DETAILS.put(status, new ConcurrentHashMap<>());
+        }
+    }
+
+    SharedProblems() throws Exception {
+        throw new IllegalAccessException();
+    }
+
+    static ThrowableProblem get(final Status status) {
+        return PROBLEMS.get(status);
+    }
+
+    static ThrowableProblem get(final Status status, @Nullable final String detail) {
+        if (detail == null) {
+            return get(status);
+        }
+
+        final ConcurrentMap<String, ThrowableProblem> details = DETAILS.get(status);
+        @Nullable final ThrowableProblem cached = details.get(detail);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        final ThrowableProblem problem = create(status, detail);
+
+        if (details.size() >= MAX_DETAILS) {
+            return problem;
+        }
+
+        @Nullable final ThrowableProblem existing = details.putIfAbsent(detail, problem);
+        return existing == null ? problem : existing;
+    }
+
+    private static ThrowableProblem create(final Status status, @Nullable final String detail) {
+        return new DefaultProblem(null, status.getReasonPhrase(), status, detail, null, null,
+                Collections.emptyMap(), StackTracePolicy.Decision.OMIT, false);
+    }
+
+}
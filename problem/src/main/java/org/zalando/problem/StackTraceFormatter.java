@@ -0,0 +1,67 @@
+package org.zalando.problem;
+
+import org.apiguardian.api.API;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
+
+/**
+ * Formats stack frames for serialized {@code stacktrace} properties, exactly like
+ * {@link StackTraceElement#toString()} does. Serialized stack traces mostly consist of the same frames over and over
+ * again, which is why their string forms are cached and shared by all serializers.
+ */
+@API(status = EXPERIMENTAL)
+public final class StackTraceFormatter {
+
+    /**
+     * Bounds the cache in case of generated code, e.g. lambdas or proxies, which may produce an unbounded number of
+     * distinct frames. A full cache is cleared rather than frozen, so frames that are still in use get cached again,
+     * while stale ones are dropped.
+     */
+    private static final int MAX_FRAMES = 4096;
+
+    private static final ConcurrentMap<StackTraceElement, String> FRAMES = new ConcurrentHashMap<>();
+
+    StackTraceFormatter() throws Exception {
+        throw new IllegalAccessException();
+    }
+
+    /**
+     * @param frame the frame to format
+     * @return the same as {@link StackTraceElement#toString() frame.toString()}
+     */
+    public static String format(final StackTraceElement frame) {
+        @Nullable final String cached = FRAMES.get(frame);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        final String formatted = frame.toString();
+
+        if (FRAMES.size() >= MAX_FRAMES) {
+            // concurrent inserts may exceed the bound by a few entries until the next clear
+            FRAMES.clear();
+        }
+
+        @Nullable final String existing = FRAMES.putIfAbsent(frame, formatted);
+        return existing == null ? formatted : existing;
+    }
+
+    static void clear() {
+        FRAMES.clear();
+    }
+
+    /**
+     * @param stackTrace the stack trace to serialize
+     * @param maxFrames the maximum number of frames to serialize, {@code 0} serializes all of them
+     * @return the number of top frames of the given stack trace to serialize
+     */
+    public static int length(final StackTraceElement[] stackTrace, final int maxFrames) {
+        return maxFrames == 0 ? stackTrace.length : Math.min(stackTrace.length, maxFrames);
+    }
+
+}
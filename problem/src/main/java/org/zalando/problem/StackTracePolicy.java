@@ -0,0 +1,215 @@
+package org.zalando.problem;
+
+import org.apiguardian.api.API;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.zalando.problem.Status.Family;
+import org.zalando.problem.spi.StackFrameFilter;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
+
+/**
+ * Decides whether a {@link ThrowableProblem} captures a stack trace when it's being created. Filling in a stack trace
+ * is by far the most expensive part of creating a problem and most of them, e.g. client errors, are never logged with
+ * one:
+ *
+ * <pre>{@code
+ * StackTracePolicy.setDefault(StackTracePolicy.capturing()
+ *     .withFamily(Status.Family.CLIENT_ERROR, false));
+ * }</pre>
+ *
+ * Rules are consulted from the most to the least specific one: problem type, status code, status family and
+ * finally the fallback. Problems without a stack trace have a non-writable stack trace, i.e.
+ * {@link Throwable#getStackTrace()} returns an empty array.
+ *
+ * Policies are immutable, every {@code with...} method returns a modified copy.
+ */
+@API(status = EXPERIMENTAL)
+public final class StackTracePolicy {
+
+    private static final StackTracePolicy CAPTURING = new StackTracePolicy(true,
+            Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), StackTraceSampler.ALWAYS, 0);
+
+    private static final StackTracePolicy OMITTING = new StackTracePolicy(false,
+            Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap(), StackTraceSampler.ALWAYS, 0);
+
+    private static volatile StackTracePolicy defaultPolicy = CAPTURING;
+
+    private final boolean fallback;
+    private final Map<URI, Boolean> types;
+    private final Map<Integer, Boolean> statuses;
+    private final Map<Family, Boolean> families;
+    private final StackTraceSampler sampler;
+    private final int maxDepth;
+
+    private StackTracePolicy(
+            final boolean fallback,
+            final Map<URI, Boolean> types,
+            final Map<Integer, Boolean> statuses,
+            final Map<Family, Boolean> families,
+            final StackTraceSampler sampler,
+            final int maxDepth) {
+        this.fallback = fallback;
+        this.types = types;
+        this.statuses = statuses;
+        this.families = families;
+        this.sampler = sampler;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * @return a policy that captures stack traces unless configured otherwise
+     */
+    public static StackTracePolicy capturing() {
+        return CAPTURING;
+    }
+
+    /**
+     * @return a policy that omits stack traces unless configured otherwise
+     */
+    public static StackTracePolicy omitting() {
+        return OMITTING;
+    }
+
+    /**
+     * @return the policy that is currently applied to all newly created problems
+     */
+    public static StackTracePolicy getDefault() {
+        return defaultPolicy;
+    }
+
+    /**
+     * Replaces the policy that is applied to all newly created problems. Defaults to {@link #capturing()}.
+     *
+     * @param policy the new default policy
+     */
+    public static void setDefault(final StackTracePolicy policy) {
+        defaultPolicy = requireNonNull(policy, "Policy");
+    }
+
+    public StackTracePolicy withType(final URI type, final boolean capture) {
+        requireNonNull(type, "Type");
+        final Map<URI, Boolean> copy = new HashMap<>(types);
+        copy.put(type, capture);
+        return new StackTracePolicy(fallback, Collections.unmodifiableMap(copy), statuses, families, sampler, maxDepth);
+    }
+
+    public StackTracePolicy withStatus(final StatusType status, final boolean capture) {
+        requireNonNull(status, "Status");
+        final Map<Integer, Boolean> copy = new HashMap<>(statuses);
+        copy.put(status.getStatusCode(), capture);
+        return new StackTracePolicy(fallback, types, Collections.unmodifiableMap(copy), families, sampler, maxDepth);
+    }
+
+    public StackTracePolicy withFamily(final Family family, final boolean capture) {
+        requireNonNull(family, "Family");
+        final Map<Family, Boolean> copy = new EnumMap<>(Family.class);
+        copy.putAll(families);
+        copy.put(family, capture);
+        return new StackTracePolicy(fallback, types, statuses, Collections.unmodifiableMap(copy), sampler, maxDepth);
+    }
+
+    /**
+     * Samples stack traces of problems that would otherwise be captured, e.g. to keep a couple of stack traces for
+     * diagnosis while not paying for all of them during a burst of server errors:
+     *
+     * <pre>{@code
+     * StackTracePolicy.capturing()
+     *     .withFamily(Status.Family.CLIENT_ERROR, false)
+     *     .withSampler(StackTraceSampler.perSecond(10));
+     * }</pre>
+     *
+     * Problems that were sampled out report so via {@link Exceptional#isStackTraceSampledOut()}.
+     *
+     * @param sampler the sampler to consult
+     * @return a copy of this policy with the given sampler
+     */
+    public StackTracePolicy withSampler(final StackTraceSampler sampler) {
+        requireNonNull(sampler, "Sampler");
+        return new StackTracePolicy(fallback, types, statuses, families, sampler, maxDepth);
+    }
+
+    /**
+     * Limits captured stack traces to the top {@code maxDepth} frames. Instead of filling in the complete stack trace
+     * and processing it afterwards, frames are collected using a {@link StackWalker}, which stops as soon as enough
+     * frames passed all registered {@link StackFrameFilter filters}. The cost of capturing a stack trace then scales
+     * with the maximum depth rather than the actual depth of the stack.
+     *
+     * @param maxDepth the maximum number of frames to capture, {@code 0} captures complete stack traces
+     * @return a copy of this policy with the given maximum depth
+     * @throws IllegalArgumentException if maxDepth is negative
+     */
+    public StackTracePolicy withMaxDepth(final int maxDepth) throws IllegalArgumentException {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Max depth must not be negative");
+        }
+        return new StackTracePolicy(fallback, types, statuses, families, sampler, maxDepth);
+    }
+
+    /**
+     * @return the maximum number of frames to capture, {@code 0} if unbounded
+     */
+    int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @param type   the problem type, if known
+     * @param status the problem status, if known
+     * @return true if a problem with the given type and status should capture a stack trace, without consulting the
+     * {@link #withSampler(StackTraceSampler) sampler}
+     */
+    public boolean isCaptured(@Nullable final URI type, @Nullable final StatusType status) {
+        if (type != null && !types.isEmpty()) {
+            @Nullable final Boolean capture = types.get(type);
+
+            if (capture != null) {
+                return capture;
+            }
+        }
+
+        if (status != null) {
+            final int code = status.getStatusCode();
+
+            if (!statuses.isEmpty()) {
+                @Nullable final Boolean capture = statuses.get(code);
+
+                if (capture != null) {
+                    return capture;
+                }
+            }
+
+            if (!families.isEmpty()) {
+                @Nullable final Boolean capture = families.get(Family.familyOf(code));
+
+                if (capture != null) {
+                    return capture;
+                }
+            }
+        }
+
+        return fallback;
+    }
+
+    /**
+     * Decides whether a problem with the given type and status captures a stack trace. Unlike
+     * {@link #isCaptured(URI, StatusType)} this consults the sampler, i.e. it must be called exactly once per problem.
+     */
+    Decision decide(@Nullable final URI type, @Nullable final StatusType status) {
+        if (!isCaptured(type, status)) {
+            return Decision.OMIT;
+        }
+        return sampler.sample(type, status) ? Decision.CAPTURE : Decision.SAMPLE_OUT;
+    }
+
+    enum Decision {
+        CAPTURE, OMIT, SAMPLE_OUT
+    }
+
+}
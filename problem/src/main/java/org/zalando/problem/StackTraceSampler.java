@@ -0,0 +1,53 @@
+package org.zalando.problem;
+
+import org.apiguardian.api.API;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.net.URI;
+
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
+
+/**
+ * Decides whether a problem, whose stack trace would otherwise be captured, actually captures it. Samplers are
+ * consulted once per problem and are expected to be called concurrently.
+ *
+ * @see StackTracePolicy#withSampler(StackTraceSampler)
+ */
+@API(status = EXPERIMENTAL)
+@FunctionalInterface
+public interface StackTraceSampler {
+
+    StackTraceSampler ALWAYS = (type, status) -> true;
+
+    /**
+     * @param type   the problem type, if known
+     * @param status the problem status, if known
+     * @return true if the stack trace should be captured, false if it's sampled out
+     */
+    boolean sample(@Nullable final URI type, @Nullable final StatusType status);
+
+    /**
+     * Captures the stack trace of every n-th problem, per problem type and status, starting with the first one. Beyond
+     * 1024 distinct combinations of type and status, further ones share a single counter.
+     *
+     * @param n the sampling interval
+     * @return a counting sampler
+     * @throws IllegalArgumentException if n is not positive
+     */
+    static StackTraceSampler oneIn(final int n) throws IllegalArgumentException {
+        return new CountingStackTraceSampler(n);
+    }
+
+    /**
+     * Captures at most the given number of stack traces per second, per problem type and status. Beyond 1024 distinct
+     * combinations of type and status, further ones share a single limit.
+     *
+     * @param permits the maximum number of stack traces per second
+     * @return a rate limiting sampler
+     * @throws IllegalArgumentException if permits is negative
+     */
+    static StackTraceSampler perSecond(final int permits) throws IllegalArgumentException {
+        return new RateLimitingStackTraceSampler(permits, System::nanoTime);
+    }
+
+}
@@ -5,12 +5,9 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Map;
+import java.util.Optional;
 
-import static java.util.function.Function.identity;
-import static java.util.stream.Collectors.collectingAndThen;
-import static java.util.stream.Collectors.toMap;
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
 import static org.apiguardian.api.API.Status.MAINTAINED;
 
 /**
@@ -357,8 +354,26 @@ public enum Status implements StatusType {
      */
     NETWORK_AUTHENTICATION_REQUIRED(511, "Network Authentication Required");
 
-    private static final Map<Integer, Status> STATUSES = Arrays.stream(values())
-            .collect(collectingAndThen(toMap(Status::getStatusCode, identity()), Collections::unmodifiableMap));
+    private static final int MIN_CODE = 100;
+    private static final int MAX_CODE = 599;
+
+    /**
+     * Dense lookup tables indexed by {@code code - MIN_CODE}. Optionals are pre-built, so that {@link #find(int)} doesn't
+     * allocate either.
+     */
+    private static final Status[] STATUSES = new Status[MAX_CODE - MIN_CODE + 1];
+
+    @SuppressWarnings("unchecked")
+    private static final Optional<Status>[] OPTIONALS = new Optional[MAX_CODE - MIN_CODE + 1];
+
+    static {
+        Arrays.fill(OPTIONALS, Optional.empty());
+
+        for (final Status status : values()) {
+            STATUSES[status.code - MIN_CODE] = status;
+            OPTIONALS[status.code - MIN_CODE] = Optional.of(status);
+        }
+    }
 
     private final int code;
     private final String reason;
@@ -399,6 +414,45 @@ public enum Status implements StatusType {
         return getStatusCode() + " " + getReasonPhrase();
     }
 
+    /**
+     * The class of a status code, as defined by its first digit.
+     *
+     * @see <a href="https://tools.ietf.org/html/rfc7231#section-6">HTTP/1.1: Semantics and Content, section 6</a>
+     */
+    public enum Family {
+
+        INFORMATIONAL,
+        SUCCESSFUL,
+        REDIRECTION,
+        CLIENT_ERROR,
+        SERVER_ERROR,
+        OTHER;
+
+        /**
+         * Determines the family of the given status code.
+         *
+         * @param code the HTTP code as a number
+         * @return the family of this status code, {@link #OTHER} if the code is outside of 100-599
+         */
+        public static Family familyOf(final int code) {
+            switch (code / 100) {
+                case 1:
+                    return INFORMATIONAL;
+                case 2:
+                    return SUCCESSFUL;
+                case 3:
+                    return REDIRECTION;
+                case 4:
+                    return CLIENT_ERROR;
+                case 5:
+                    return SERVER_ERROR;
+                default:
+                    return OTHER;
+            }
+        }
+
+    }
+
     /**
      * Creates a Status instance from the given code.
      *
@@ -407,7 +461,7 @@ public enum Status implements StatusType {
      * @throws IllegalArgumentException if the given code does not correspond to a known HTTP status.
      */
     public static Status valueOf(final int code) {
-        @Nullable final Status status = STATUSES.get(code);
+        @Nullable final Status status = code < MIN_CODE || code > MAX_CODE ? null : STATUSES[code - MIN_CODE];
 
         if (status == null) {
             throw new IllegalArgumentException("There is no known status for this code (" + code + ").");
@@ -416,4 +470,17 @@ public enum Status implements StatusType {
         return status;
     }
 
+    /**
+     * Looks up the Status instance for the given code. Unlike {@link #valueOf(int)} this doesn't throw, which makes it
+     * suitable for codes of unknown origin, e.g. upstream responses.
+     *
+     * @param code the HTTP code as a number
+     * @return the correct enum value for this status code, or empty if the given code does not correspond to a known
+     * HTTP status
+     */
+    @API(status = EXPERIMENTAL)
+    public static Optional<Status> find(final int code) {
+        return code < MIN_CODE || code > MAX_CODE ? Optional.empty() : OPTIONALS[code - MIN_CODE];
+    }
+
 }
@@ -0,0 +1,158 @@
+package org.zalando.problem;
+
+import org.apiguardian.api.API;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+import static java.util.Objects.requireNonNull;
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
+
+/**
+ * Resolves status codes to known {@link StatusType status types}, e.g. during deserialization:
+ *
+ * <pre>{@code
+ * StatusRegistry.of(Status.class, CustomStatus.class).resolve(404);
+ * }</pre>
+ *
+ * Codes that are not registered resolve to an unknown status, which is created once per code and registry and reused
+ * afterwards, i.e. resolving a code within 100-599 never allocates after the first time.
+ *
+ * Registries are immutable, every {@code with...} method returns a modified copy.
+ */
+@API(status = EXPERIMENTAL)
+public final class StatusRegistry {
+
+    private static final int MIN_CODE = 100;
+    private static final int MAX_CODE = 599;
+
+    /**
+     * Dense table indexed by {@code code - MIN_CODE}, which covers all regular status codes without boxing.
+     */
+    private final StatusType[] table;
+
+    /**
+     * Registered status types outside of the regular range.
+     */
+    private final Map<Integer, StatusType> overflow;
+
+    private final IntFunction<? extends StatusType> unknown;
+    private final AtomicReferenceArray<StatusType> unknowns = new AtomicReferenceArray<>(MAX_CODE - MIN_CODE + 1);
+
+    private StatusRegistry(
+            final StatusType[] table,
+            final Map<Integer, StatusType> overflow,
+            final IntFunction<? extends StatusType> unknown) {
+        this.table = table;
+        this.overflow = overflow;
+        this.unknown = unknown;
+    }
+
+    /**
+     * @param statuses the status types to register
+     * @return a registry of the given status types
+     * @throws IllegalArgumentException if there are duplicate status codes
+     */
+    public static StatusRegistry of(final StatusType... statuses) throws IllegalArgumentException {
+        final StatusType[] table = new StatusType[MAX_CODE - MIN_CODE + 1];
+        final Map<Integer, StatusType> overflow = new HashMap<>();
+
+        for (final StatusType status : statuses) {
+            final int code = status.getStatusCode();
+
+            @Nullable final StatusType previous = code < MIN_CODE || code > MAX_CODE ?
+                    overflow.put(code, status) :
+                    replace(table, code - MIN_CODE, status);
+
+            if (previous != null) {
+                throw new IllegalArgumentException("Duplicate status codes are not allowed");
+            }
+        }
+
+        return new StatusRegistry(table, Collections.unmodifiableMap(overflow), UnknownStatus::new);
+    }
+
+    /**
+     * @param <E>   generic enum type
+     * @param types status type enums
+     * @return a registry of all constants of the given status types
+     * @throws IllegalArgumentException if there are duplicate status codes across all status types
+     */
+    @SafeVarargs
+    public static <E extends Enum<?> & StatusType> StatusRegistry of(final Class<? extends E>... types)
+            throws IllegalArgumentException {
+
+        final Map<Integer, StatusType> statuses = new HashMap<>();
+
+        for (final Class<? extends E> type : types) {
+            for (final E status : type.getEnumConstants()) {
+                if (statuses.putIfAbsent(status.getStatusCode(), status) != null) {
+                    throw new IllegalArgumentException("Duplicate status codes are not allowed");
+                }
+            }
+        }
+
+        return of(statuses.values().toArray(new StatusType[0]));
+    }
+
+    @Nullable
+    private static StatusType replace(final StatusType[] table, final int index, final StatusType status) {
+        @Nullable final StatusType previous = table[index];
+        table[index] = status;
+        return previous;
+    }
+
+    /**
+     * Replaces how unknown statuses are created. Unknown statuses are still created only once per code.
+     *
+     * @param unknown creates a status type for an unregistered code
+     * @return a copy of this registry using the given factory
+     */
+    public StatusRegistry withUnknownStatuses(final IntFunction<? extends StatusType> unknown) {
+        requireNonNull(unknown, "Unknown");
+        return new StatusRegistry(table, overflow, unknown);
+    }
+
+    /**
+     * @param code the status code
+     * @return the registered status type, or {@code null} if the code is not registered
+     */
+    @Nullable
+    public StatusType find(final int code) {
+        if (code < MIN_CODE || code > MAX_CODE) {
+            return overflow.isEmpty() ? null : overflow.get(code);
+        }
+        return table[code - MIN_CODE];
+    }
+
+    /**
+     * @param code the status code
+     * @return the registered status type, or an unknown status if the code is not registered
+     */
+    public StatusType resolve(final int code) {
+        @Nullable final StatusType status = find(code);
+        return status == null ? resolveUnknown(code) : status;
+    }
+
+    private StatusType resolveUnknown(final int code) {
+        if (code < MIN_CODE || code > MAX_CODE) {
+            // not worth interning, codes outside of the regular range are invalid anyway
+            return unknown.apply(code);
+        }
+
+        final int index = code - MIN_CODE;
+        @Nullable final StatusType interned = unknowns.get(index);
+
+        if (interned != null) {
+            return interned;
+        }
+
+        final StatusType status = unknown.apply(code);
+        return unknowns.compareAndSet(index, null, status) ? status : unknowns.get(index);
+    }
+
+}
@@ -2,15 +2,25 @@ package org.zalando.problem;
 
 import org.apiguardian.api.API;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.zalando.problem.spi.ArrayStackTraceProcessor;
+import org.zalando.problem.spi.StackFrameFilter;
+import org.zalando.problem.spi.StackTraceProcessor;
 
-import java.util.Collection;
+import java.io.ObjectStreamException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.util.IdentityHashMap;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Stream;
 
+import static java.lang.StackWalker.Option.RETAIN_CLASS_REFERENCE;
 import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
+import static java.util.Collections.newSetFromMap;
 import static java.util.stream.Collectors.joining;
 import static org.apiguardian.api.API.Status.STABLE;
-import static org.zalando.problem.spi.StackTraceProcessor.COMPOUND;
 
 /**
  * 
@@ -19,15 +29,191 @@ import static org.zalando.problem.spi.StackTraceProcessor.COMPOUND;
 @API(status = STABLE)
 public abstract class ThrowableProblem extends RuntimeException implements Problem, Exceptional {
 
+    private static final StackWalker WALKER = StackWalker.getInstance(RETAIN_CLASS_REFERENCE);
+
+    private static final boolean PROCESSING = ArrayStackTraceProcessor.COMPOUND != ArrayStackTraceProcessor.DEFAULT
+            || StackTraceProcessor.COMPOUND != StackTraceProcessor.DEFAULT;
+
+    /**
+     * Whether the captured stack trace still needs to be processed. It's set by {@link #fillInStackTrace()}, which
+     * runs as part of {@link Throwable}'s constructor, i.e. this field must not have an initializer.
+     */
+    private transient volatile boolean unprocessed;
+
+    private final transient boolean sampledOut;
+
+    /**
+     * Whether this problem was created by calling its constructor, which is the only way to set the cause of a
+     * problem. Deserializers that don't call it use {@link #initCause(Throwable)} instead.
+     */
+    private final boolean constructed;
+
+    @Nullable
+    private ThrowableProblem initializedCause;
+
     protected ThrowableProblem() {
         this(null);
     }
 
     protected ThrowableProblem(@Nullable final ThrowableProblem cause) {
-        super(cause);
+        this(cause, null, null);
+    }
+
+    /**
+     * Creates a problem that captures a stack trace only if the current {@link StackTracePolicy} says so.
+     *
+     * @param cause  the cause, if any
+     * @param type   the problem type, used to look up the stack trace policy
+     * @param status the problem status, used to look up the stack trace policy
+     * @see StackTracePolicy#getDefault()
+     */
+    protected ThrowableProblem(
+            @Nullable final ThrowableProblem cause,
+            @Nullable final URI type,
+            @Nullable final StatusType status) {
+        this(cause, StackTracePolicy.getDefault().decide(type == null ? DEFAULT_TYPE : type, status), true);
+    }
+
+    ThrowableProblem(
+            @Nullable final ThrowableProblem cause,
+            final StackTracePolicy.Decision decision,
+            final boolean enableSuppression) {
+        super(cause == null ? null : cause.toString(), cause, enableSuppression,
+                decision == StackTracePolicy.Decision.CAPTURE);
+        this.sampledOut = decision == StackTracePolicy.Decision.SAMPLE_OUT;
+        this.constructed = true;
+    }
+
+    /**
+     * Fills in the stack trace, either completely or, if the {@link StackTracePolicy} has a
+     * {@link StackTracePolicy#withMaxDepth(int) maximum depth}, by walking only as many frames as needed. Registered
+     * {@link org.zalando.problem.spi.StackTraceProcessor processors} are applied lazily, the first time the stack
+     * trace is being accessed.
+     *
+     * @return this problem
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        final int maxDepth = StackTracePolicy.getDefault().getMaxDepth();
+
+        if (maxDepth == 0) {
+            super.fillInStackTrace();
+        } else {
+            final Class<?> type = getClass();
 
-        final Collection<StackTraceElement> stackTrace = COMPOUND.process(asList(getStackTrace()));
-        setStackTrace(stackTrace.toArray(new StackTraceElement[0]));
+            super.setStackTrace(WALKER.walk(frames -> frames
+                    .dropWhile(frame -> isConstruction(frame, type))
+                    .filter(StackFrameFilter.COMPOUND::test)
+                    .limit(maxDepth)
+                    .map(StackWalker.StackFrame::toStackTraceElement)
+                    .toArray(StackTraceElement[]::new)));
+        }
+
+        unprocessed = PROCESSING;
+        return this;
+    }
+
+    /**
+     * Mimics {@link Throwable#fillInStackTrace()}, which omits frames that belong to the construction of the throwable
+     * itself.
+     */
+    private static boolean isConstruction(final StackWalker.StackFrame frame, final Class<?> type) {
+        final String method = frame.getMethodName();
+        return ("<init>".equals(method) || "fillInStackTrace".equals(method))
+                && frame.getDeclaringClass().isAssignableFrom(type);
+    }
+
+    @Override
+    public StackTraceElement[] getStackTrace() {
+        processStackTrace();
+        return super.getStackTrace();
+    }
+
+    @Override
+    public void setStackTrace(final StackTraceElement[] stackTrace) {
+        synchronized (this) {
+            super.setStackTrace(stackTrace);
+            unprocessed = false;
+        }
+    }
+
+    @Override
+    public void printStackTrace(final PrintStream stream) {
+        processStackTraces(this, newSetFromMap(new IdentityHashMap<>()));
+        super.printStackTrace(stream);
+    }
+
+    @Override
+    public void printStackTrace(final PrintWriter writer) {
+        processStackTraces(this, newSetFromMap(new IdentityHashMap<>()));
+        super.printStackTrace(writer);
+    }
+
+    /**
+     * Java serialization reads the stack trace directly, i.e. it needs to be processed beforehand.
+     *
+     * @return this problem
+     * @throws ObjectStreamException never
+     */
+    protected Object writeReplace() throws ObjectStreamException {
+        processStackTrace();
+        return this;
+    }
+
+    /**
+     * {@link Throwable#printStackTrace()} accesses the stack traces of causes and suppressed exceptions directly, i.e.
+     * all of them need to be processed beforehand.
+     */
+    private static void processStackTraces(final Throwable throwable, final Set<Throwable> seen) {
+        if (!seen.add(throwable)) {
+            return;
+        }
+
+        if (throwable instanceof ThrowableProblem) {
+            ((ThrowableProblem) throwable).processStackTrace();
+        }
+
+        for (final Throwable suppressed : throwable.getSuppressed()) {
+            processStackTraces(suppressed, seen);
+        }
+
+        @Nullable final Throwable cause = throwable.getCause();
+
+        if (cause != null) {
+            processStackTraces(cause, seen);
+        }
+    }
+
+    private void processStackTrace() {
+        if (unprocessed) {
+            synchronized (this) {
+                if (unprocessed) {
+                    super.setStackTrace(process(super.getStackTrace()));
+
+                    unprocessed = false;
+                }
+            }
+        }
+    }
+
+    private static StackTraceElement[] process(final StackTraceElement[] elements) {
+        if (elements.length == 0) {
+            return elements;
+        }
+
+        final int length = ArrayStackTraceProcessor.COMPOUND.process(elements, elements.length);
+        final StackTraceElement[] processed = length == elements.length ? elements : copyOf(elements, length);
+
+        if (StackTraceProcessor.COMPOUND == StackTraceProcessor.DEFAULT) {
+            return processed;
+        }
+
+        return StackTraceProcessor.COMPOUND.process(asList(processed)).toArray(new StackTraceElement[0]);
+    }
+
+    @Override
+    public boolean isStackTraceSampledOut() {
+        return sampledOut;
     }
 
     @Override
@@ -38,9 +224,43 @@ public abstract class ThrowableProblem extends RuntimeException implements Probl
     }
 
     @Override
-    public ThrowableProblem getCause() {
-        // cast is safe, since the only way to set this is our constructor
-        return (ThrowableProblem) super.getCause();
+    public synchronized ThrowableProblem getCause() {
+        @Nullable final Throwable cause = super.getCause();
+        // cast is safe, since the only ways to set this are our constructor and initCause
+        return cause == null ? initializedCause : (ThrowableProblem) cause;
+    }
+
+    /**
+     * Initializes the cause of a problem that was created without calling its constructor, e.g. by a deserializer.
+     * Problems that were constructed have their cause already, even if it's {@code null}, i.e. this fails just like
+     * {@link Throwable#initCause(Throwable)} does.
+     *
+     * @param cause the cause, if any
+     * @return this problem
+     * @throws IllegalArgumentException if the cause is this problem or not a {@link ThrowableProblem}
+     * @throws IllegalStateException if this problem was constructed or already has a cause
+     */
+    @Override
+    public synchronized ThrowableProblem initCause(@Nullable final Throwable cause) {
+        if (constructed) {
+            // fails, since constructors set the cause
+            return (ThrowableProblem) super.initCause(cause);
+        }
+
+        if (cause == this) {
+            throw new IllegalArgumentException("Self-causation not permitted");
+        }
+
+        if (cause != null && !(cause instanceof ThrowableProblem)) {
+            throw new IllegalArgumentException("Cause must be a problem");
+        }
+
+        if (getCause() != null) {
+            throw new IllegalStateException("Can't overwrite cause of " + this);
+        }
+
+        this.initializedCause = (ThrowableProblem) cause;
+        return this;
     }
 
     @Override
@@ -1,6 +1,4 @@
-package org.zalando.problem.gson;
-
-import org.zalando.problem.StatusType;
+package org.zalando.problem;
 
 final class UnknownStatus implements StatusType {
 
@@ -0,0 +1,60 @@
+package org.zalando.problem.spi;
+
+import org.apiguardian.api.API;
+
+import java.util.Collection;
+
+import static java.util.Arrays.asList;
+import static java.util.ServiceLoader.load;
+import static java.util.stream.StreamSupport.stream;
+import static org.apiguardian.api.API.Status.EXPERIMENTAL;
+
+/**
+ * Processes stack traces in place, i.e. without allocating intermediate collections. Implementations remove or
+ * replace elements within the first {@code length} elements of the given array and return the new length. They must
+ * not add elements.
+ *
+ * Registered processors are applied before any {@link StackTraceProcessor}.
+ *
+ * @see java.util.ServiceLoader
+ * @see StackTraceProcessor
+ */
+@API(status = EXPERIMENTAL)
+@FunctionalInterface
+public interface ArrayStackTraceProcessor {
+
+    ArrayStackTraceProcessor DEFAULT = (elements, length) -> length;
+    ArrayStackTraceProcessor COMPOUND = stream(load(ArrayStackTraceProcessor.class).spliterator(), false)
+            .reduce(DEFAULT, (first, second) -> (elements, length) ->
+                    second.process(elements, first.process(elements, length)));
+
+    /**
+     * @param elements the stack trace, only the first {@code length} elements are valid
+     * @param length   the number of valid elements
+     * @return the number of valid elements after processing, at most {@code length}
+     */
+    int process(final StackTraceElement[] elements, final int length);
+
+    /**
+     * Adapts a collection-based {@link StackTraceProcessor}. The adapted processor allocates as much as the original
+     * one and must not add elements.
+     *
+     * @param processor the processor to adapt
+     * @return an array-based view of the given processor
+     */
+    static ArrayStackTraceProcessor adapt(final StackTraceProcessor processor) {
+        return (elements, length) -> {
+            final Collection<StackTraceElement> processed = processor.process(asList(elements).subList(0, length));
+
+            if (processed.size() > length) {
+                throw new IllegalStateException("Processor must not add elements");
+            }
+
+            // copy first, since the result might be a view of the array
+            final StackTraceElement[] result = processed.toArray(new StackTraceElement[0]);
+            System.arraycopy(result, 0, elements, 0, result.length);
+            return result.length;
+        };
+    }
+
+}
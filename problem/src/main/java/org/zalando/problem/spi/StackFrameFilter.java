@@ -0,0 +1,22 @@
+package org.zalando.problem.spi;
+
+import static java.util.ServiceLoader.load;
+import static java.util.stream.StreamSupport.stream;
+
+/**
+ * Decides which frames are kept while stack traces are walked, i.e. when a
+ * {@link org.zalando.problem.StackTracePolicy#withMaxDepth(int) maximum depth} is configured. Rejected frames don't
+ * count towards the maximum depth.
+ *
+ * @see java.util.ServiceLoader
+ * @see StackTraceProcessor
+ */
+public interface StackFrameFilter {
+
+    StackFrameFilter DEFAULT = frame -> true;
+    StackFrameFilter COMPOUND = stream(load(StackFrameFilter.class).spliterator(), false)
+            .reduce(DEFAULT, (first, second) -> frame -> first.test(frame) && second.test(frame));
+
+    boolean test(final StackWalker.StackFrame frame);
+
+}
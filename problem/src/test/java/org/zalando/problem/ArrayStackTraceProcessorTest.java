@@ -0,0 +1,87 @@
+package org.zalando.problem;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.problem.spi.ArrayStackTraceProcessor;
+import org.zalando.problem.spi.StackTraceProcessor;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.hasItemInArray;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.zalando.problem.Status.BAD_REQUEST;
+
+final class ArrayStackTraceProcessorTest {
+
+    private final StackTraceElement foo = new StackTraceElement("org.example.Foo", "foo", "Foo.java", 1);
+    private final StackTraceElement bar = new StackTraceElement("org.junit.Bar", "bar", "Bar.java", 2);
+    private final StackTraceElement baz = new StackTraceElement("org.example.Baz", "baz", "Baz.java", 3);
+
+    @Test
+    void shouldApplyRegisteredProcessors() {
+        final Supplier<ThrowableProblem> supplier = () -> Problem.valueOf(BAD_REQUEST);
+        final ThrowableProblem problem = supplier.get();
+
+        final String[] methods = stream(problem.getStackTrace())
+                .map(StackTraceElement::getMethodName)
+                .toArray(String[]::new);
+
+        assertThat(methods, not(hasItemInArray(startsWith("lambda$"))));
+    }
+
+    @Test
+    void shouldProcessInPlace() {
+        final StackTraceElement lambda = new StackTraceElement("org.example.Foo", "lambda$foo$0", "Foo.java", 4);
+        final StackTraceElement[] elements = {foo, lambda, baz, bar};
+        final AtomicReference<StackTraceElement[]> processed = new AtomicReference<>();
+        final ArrayStackTraceProcessor unit = (array, length) -> {
+            processed.set(array);
+            return new LambdaStackTraceProcessor().process(array, length);
+        };
+
+        final int length = unit.process(elements, 3);
+
+        assertThat(length, is(2));
+        assertThat(processed.get(), is(sameInstance(elements)));
+        // compacted within the first three elements, the one beyond them is left alone
+        assertThat(elements, arrayContaining(foo, baz, baz, bar));
+    }
+
+    @Test
+    void shouldAdaptCollectionBasedProcessor() {
+        final ArrayStackTraceProcessor unit = ArrayStackTraceProcessor.adapt(new JunitStackTraceProcessor());
+        final StackTraceElement[] elements = {foo, bar, baz, bar};
+
+        final int length = unit.process(elements, 3);
+
+        assertThat(length, is(2));
+        assertThat(copyOf(elements, length), arrayContaining(foo, baz));
+    }
+
+    @Test
+    void shouldAdaptProcessorReturningView() {
+        final ArrayStackTraceProcessor unit = ArrayStackTraceProcessor.adapt(StackTraceProcessor.DEFAULT);
+        final StackTraceElement[] elements = {foo, bar, baz};
+
+        assertThat(unit.process(elements, 2), is(2));
+        assertThat(elements, arrayContaining(foo, bar, baz));
+    }
+
+    @Test
+    void shouldRejectGrowingProcessor() {
+        final ArrayStackTraceProcessor unit = ArrayStackTraceProcessor.adapt(elements ->
+                stream(new StackTraceElement[]{foo, bar, baz}).collect(toList()));
+
+        assertThrows(IllegalStateException.class, () -> unit.process(new StackTraceElement[]{foo, bar}, 2));
+    }
+
+}
@@ -0,0 +1,88 @@
+package org.zalando.problem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.zalando.problem.Status.BAD_REQUEST;
+import static org.zalando.problem.Status.Family.CLIENT_ERROR;
+
+final class BoundedStackTraceTest {
+
+    @BeforeEach
+    void limitDepth() {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing().withMaxDepth(3));
+    }
+
+    @AfterEach
+    void resetDefault() {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing());
+    }
+
+    @Test
+    void shouldCaptureTopFrames() {
+        final StackTraceElement[] stackTrace = Problem.valueOf(BAD_REQUEST).getStackTrace();
+
+        assertThat(stackTrace.length, is(lessThanOrEqualTo(3)));
+        assertThat(stackTrace[0].getClassName(), is(ProblemBuilder.class.getName()));
+        assertThat(stackTrace[0].getMethodName(), is("build"));
+    }
+
+    @Test
+    void shouldSkipConstructorFrames() {
+        final StackTraceElement[] stackTrace = new InsufficientFundsProblem(10, -20).getStackTrace();
+
+        assertThat(stackTrace[0].getClassName(), is(BoundedStackTraceTest.class.getName()));
+        assertThat(stackTrace[0].getMethodName(), is("shouldSkipConstructorFrames"));
+    }
+
+    @Test
+    void shouldFilterFramesWhileWalking() {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing().withMaxDepth(1));
+
+        final StackTraceElement[] stackTrace = Hidden.create().getStackTrace();
+
+        assertThat(stackTrace, is(arrayWithSize(1)));
+        assertThat(stackTrace[0].getMethodName(), is("shouldFilterFramesWhileWalking"));
+    }
+
+    @Test
+    void shouldApplyStackTraceProcessors() {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing().withMaxDepth(Integer.MAX_VALUE));
+
+        final StackTraceElement[] stackTrace = Problem.valueOf(BAD_REQUEST).getStackTrace();
+
+        assertThat(Arrays.stream(stackTrace).map(StackTraceElement::getClassName)
+                .filter(name -> name.startsWith("org.junit"))
+                .toArray(), is(emptyArray()));
+    }
+
+    @Test
+    void shouldNotCaptureOmittedStackTraces() {
+        StackTracePolicy.setDefault(StackTracePolicy.getDefault().withFamily(CLIENT_ERROR, false));
+
+        assertThat(Problem.valueOf(BAD_REQUEST).getStackTrace(), is(emptyArray()));
+    }
+
+    @Test
+    void shouldRejectNegativeMaxDepth() {
+        assertThrows(IllegalArgumentException.class, () -> StackTracePolicy.capturing().withMaxDepth(-1));
+    }
+
+    static final class Hidden {
+
+        static ThrowableProblem create() {
+            return new InsufficientFundsProblem(10, -20);
+        }
+
+    }
+
+}
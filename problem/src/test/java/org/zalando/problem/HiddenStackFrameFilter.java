@@ -0,0 +1,12 @@
+package org.zalando.problem;
+
+import org.zalando.problem.spi.StackFrameFilter;
+
+public final class HiddenStackFrameFilter implements StackFrameFilter {
+
+    @Override
+    public boolean test(final StackWalker.StackFrame frame) {
+        return !frame.getClassName().endsWith("$Hidden");
+    }
+
+}
@@ -3,13 +3,17 @@ package org.zalando.problem;
 import org.zalando.problem.spi.StackTraceProcessor;
 
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.stream.Collectors.toList;
 
 public final class JunitStackTraceProcessor implements StackTraceProcessor {
 
+    static final AtomicInteger INVOCATIONS = new AtomicInteger();
+
     @Override
     public Collection<StackTraceElement> process(final Collection<StackTraceElement> elements) {
+        INVOCATIONS.incrementAndGet();
         return elements.stream()
                 .filter(element -> !element.getClassName().startsWith("org.junit"))
                 .collect(toList());
@@ -0,0 +1,20 @@
+package org.zalando.problem;
+
+import org.zalando.problem.spi.ArrayStackTraceProcessor;
+
+public final class LambdaStackTraceProcessor implements ArrayStackTraceProcessor {
+
+    @Override
+    public int process(final StackTraceElement[] elements, final int length) {
+        int kept = 0;
+
+        for (int i = 0; i < length; i++) {
+            if (!elements[i].getMethodName().startsWith("lambda$")) {
+                elements[kept++] = elements[i];
+            }
+        }
+
+        return kept;
+    }
+
+}
@@ -0,0 +1,330 @@
+package org.zalando.problem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class ParameterMapTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 3, 8, 9, 17, 100})
+    void shouldBehaveLikeLinkedHashMap(final int size) {
+        final Map<String, Object> expected = new LinkedHashMap<>();
+        final ParameterMap.Builder builder = new ParameterMap.Builder();
+
+        for (int i = 0; i < size; i++) {
+            expected.put("key" + i, i);
+            builder.put("key" + i, i);
+        }
+
+        final ParameterMap unit = builder.build();
+
+        assertThat(unit, is(equalTo(expected)));
+        assertThat(unit.hashCode(), is(expected.hashCode()));
+        assertThat(unit.toString(), is(expected.toString()));
+        assertThat(new ArrayList<>(unit.keySet()), is(new ArrayList<>(expected.keySet())));
+
+        for (int i = 0; i < size; i++) {
+            assertThat(unit, hasEntry("key" + i, (Object) i));
+        }
+
+        assertThat(unit.containsKey("key" + size), is(false));
+        assertThat(unit.get("key" + size), is(nullValue()));
+    }
+
+    @Test
+    void shouldReplaceValuesInPlace() {
+        final ParameterMap.Builder builder = new ParameterMap.Builder();
+        builder.put("a", 1);
+        builder.put("b", 2);
+        builder.put("a", 3);
+
+        final ParameterMap unit = builder.build();
+
+        assertThat(unit.keySet(), contains("a", "b"));
+        assertThat(unit.get("a"), is(3));
+    }
+
+    @Test
+    void shouldReplaceValuesOfIndexedKeys() {
+        final ParameterMap.Builder builder = new ParameterMap.Builder();
+
+        for (int i = 0; i < 100; i++) {
+            builder.put("key" + i, i);
+        }
+
+        final ParameterMap first = builder.build();
+
+        builder.put("key50", -1);
+        builder.put(null, null);
+
+        final ParameterMap second = builder.build();
+
+        assertThat(first.size(), is(100));
+        assertThat(first.get("key50"), is(50));
+        assertThat(first.containsKey(null), is(false));
+        assertThat(second.size(), is(101));
+        assertThat(second.get("key50"), is(-1));
+        assertThat(second.containsKey(null), is(true));
+        assertThat(new ArrayList<>(second.keySet()).indexOf("key50"), is(50));
+    }
+
+    @Test
+    void shouldNotExposeKeysAppendedAfterBuilding() {
+        final ParameterMap.Builder builder = new ParameterMap.Builder();
+
+        for (int i = 0; i < 100; i++) {
+            builder.put("key" + i, i);
+        }
+
+        final ParameterMap first = builder.build();
+
+        builder.put("key100", 100);
+        builder.putInt("key101", 101);
+
+        final ParameterMap second = builder.build();
+
+        assertThat(first.size(), is(100));
+        assertThat(first.containsKey("key100"), is(false));
+        assertThat(first.get("key101"), is(nullValue()));
+        assertThat(second.size(), is(102));
+        assertThat(second, hasEntry("key100", (Object) 100));
+        assertThat(second, hasEntry("key101", (Object) 101));
+    }
+
+    @Test
+    void shouldSupportNullValues() {
+        final ParameterMap unit = ParameterMap.EMPTY.with("a", null);
+
+        assertThat(unit.containsKey("a"), is(true));
+        assertThat(unit.get("a"), is(nullValue()));
+    }
+
+    @Test
+    void shouldNotModifyBuiltMapWhenBuilderIsReused() {
+        final ParameterMap.Builder builder = new ParameterMap.Builder();
+        builder.put("a", 1);
+        final ParameterMap first = builder.build();
+
+        builder.put("a", 2);
+        builder.put("b", 3);
+        final ParameterMap second = builder.build();
+
+        assertThat(first.size(), is(1));
+        assertThat(first.get("a"), is(1));
+        assertThat(second.size(), is(2));
+        assertThat(second.get("a"), is(2));
+    }
+
+    @Test
+    void shouldCopyOnWith() {
+        final ParameterMap original = ParameterMap.EMPTY.with("a", 1);
+        final ParameterMap copy = original.with("b", 2);
+
+        assertThat(original.size(), is(1));
+        assertThat(copy.keySet(), contains("a", "b"));
+    }
+
+    @Test
+    void shouldBeImmutable() {
+        final ParameterMap unit = ParameterMap.EMPTY.with("a", 1);
+
+        assertThrows(UnsupportedOperationException.class, () -> unit.put("b", 2));
+        assertThrows(UnsupportedOperationException.class, () -> unit.remove("a"));
+        assertThrows(UnsupportedOperationException.class, unit::clear);
+        assertThrows(UnsupportedOperationException.class, () -> unit.entrySet().iterator().next().setValue(2));
+    }
+
+    @Test
+    void shouldReuseEmptyAndExistingMaps() {
+        final ParameterMap unit = ParameterMap.EMPTY.with("a", 1);
+
+        assertThat(ParameterMap.copyOf(null), is(sameInstance(ParameterMap.EMPTY)));
+        assertThat(ParameterMap.copyOf(new HashMap<>()), is(sameInstance(ParameterMap.EMPTY)));
+        assertThat(ParameterMap.copyOf(unit), is(sameInstance(unit)));
+    }
+
+    @Test
+    void shouldHandParametersOffFromBuilder() {
+        final ThrowableProblem problem = Problem.builder()
+                .withType(URI.create("https://example.org/out-of-stock"))
+                .with("product", "B00027Y5QG")
+                .build();
+
+        final Map<String, Object> parameters = problem.getParameters();
+
+        assertThat(parameters, is(sameInstance(problem.getParameters())));
+        assertThat(parameters, hasEntry("product", (Object) "B00027Y5QG"));
+        assertThat(Problem.valueOf(Status.NOT_FOUND).getParameters(), is(sameInstance(ParameterMap.EMPTY)));
+    }
+
+    @Test
+    void shouldCopyCustomParameters() {
+        final Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("product", "B00027Y5QG");
+
+        final ThrowableProblem problem = new AbstractThrowableProblem(null, null, null, null, null, null, parameters) {
+        };
+
+        parameters.put("price", 42);
+
+        assertThat(problem.getParameters(), is(not(equalTo(parameters))));
+        assertThat(problem.getParameters().keySet(), contains("product"));
+    }
+
+    @Test
+    void shouldSetParameters() {
+        final AbstractThrowableProblem problem = (AbstractThrowableProblem) Problem.builder().build();
+        final List<String> keys = new ArrayList<>();
+
+        problem.set("a", 1);
+        problem.set("b", 2);
+        problem.getParameters().forEach((key, value) -> keys.add(key));
+
+        assertThat(keys, contains("a", "b"));
+    }
+
+    @Test
+    void shouldSetParametersAfterAccess() {
+        final AbstractThrowableProblem problem = (AbstractThrowableProblem) Problem.builder()
+                .with("a", 1)
+                .build();
+
+        problem.set("b", 2);
+        final Map<String, Object> first = problem.getParameters();
+        problem.set("a", 3);
+        final Map<String, Object> second = problem.getParameters();
+
+        assertThat(first.keySet(), contains("a", "b"));
+        assertThat(first.get("a"), is(1));
+        assertThat(second.keySet(), contains("a", "b"));
+        assertThat(second.get("a"), is(3));
+        assertThat(problem.getParameters(), is(sameInstance(second)));
+    }
+
+    @Test
+    void shouldSerializeProblemsWithoutParameters() throws Exception {
+        final ThrowableProblem problem = roundTrip(Problem.valueOf(Status.NOT_FOUND));
+
+        assertThat(problem.getParameters(), is(sameInstance(ParameterMap.EMPTY)));
+    }
+
+    @Test
+    void shouldSerializeDecodedParameters() throws Exception {
+        final ThrowableProblem problem = roundTrip(Problem.builder()
+                .with("product", "B00027Y5QG")
+                .with("quantity", 3)
+                .with("available", false)
+                .with("violations", (RawParameter) () -> singletonList("too long"))
+                .build());
+
+        assertThat(problem.getParameters(), is(instanceOf(ParameterMap.class)));
+        assertThat(problem.getParameters().keySet(), contains("product", "quantity", "available", "violations"));
+        assertThat(problem.getParameters(), hasEntry("quantity", (Object) 3));
+        assertThat(problem.getParameters(), hasEntry("available", (Object) false));
+        assertThat(problem.getParameters(), hasEntry("violations", (Object) singletonList("too long")));
+    }
+
+    @Test
+    void shouldSerializeSetParameters() throws Exception {
+        final AbstractThrowableProblem original = (AbstractThrowableProblem) Problem.builder().build();
+        original.set("a", 1);
+
+        final AbstractThrowableProblem problem = (AbstractThrowableProblem) roundTrip(original);
+        problem.set("b", 2);
+
+        assertThat(original.getParameters().keySet(), contains("a"));
+        assertThat(problem.getParameters().keySet(), contains("a", "b"));
+    }
+
+    private static ThrowableProblem roundTrip(final ThrowableProblem problem) throws IOException,
+            ClassNotFoundException {
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(problem);
+        }
+
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (ThrowableProblem) input.readObject();
+        }
+    }
+
+    @Test
+    void shouldDecodeRawParametersOnAccess() {
+        final List<String> decoded = new ArrayList<>();
+        final RawParameter raw = () -> {
+            decoded.add("violations");
+            return singletonList("too long");
+        };
+
+        final ThrowableProblem problem = Problem.builder()
+                .with("violations", raw)
+                .build();
+
+        assertThat(decoded, is(empty()));
+        assertThat(problem.getParameters(), hasEntry("violations", singletonList("too long")));
+        assertThat(decoded, contains("violations"));
+    }
+
+    @Test
+    void shouldVisitRawParametersUndecoded() {
+        final RawParameter raw = () -> {
+            throw new AssertionError("decoded");
+        };
+
+        final List<Object> visited = new ArrayList<>();
+        ParameterVisitor.visitAll(Problem.builder().with("raw", raw).build().getParameters(),
+                new ParameterVisitor<RuntimeException>() {
+
+                    @Override
+                    public void visit(final String key, final Object value) {
+                        throw new AssertionError("decoded");
+                    }
+
+                    @Override
+                    public void visitRaw(final String key, final RawParameter value) {
+                        visited.add(value);
+                    }
+
+                });
+
+        assertThat(visited, contains(sameInstance(raw)));
+    }
+
+    @Test
+    void shouldDecodeRawParametersForVisitorsByDefault() {
+        final Map<String, Object> visited = new HashMap<>();
+        ParameterVisitor.visitAll(Problem.builder().with("raw", (RawParameter) () -> 1).build().getParameters(),
+                visited::put);
+
+        assertThat(visited, hasEntry("raw", 1));
+    }
+
+}
@@ -3,8 +3,12 @@ package org.zalando.problem;
 import org.junit.jupiter.api.Test;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasToString;
 import static org.hamcrest.Matchers.is;
@@ -92,6 +96,102 @@ class ProblemBuilderTest {
 
         assertThat(problem.getParameters(), hasEntry("foo", null));
     }
+
+    @Test
+    void shouldCreateProblemWithPrimitiveParameters() {
+        final ThrowableProblem problem = Problem.builder()
+                .withType(type)
+                .with("retryAfter", 30)
+                .with("offset", 9_000_000_000L)
+                .with("balance", 12.5)
+                .with("blocked", true)
+                .with("ratio", 0.5f)
+                .with("grade", 'A')
+                .with("priority", (byte) 3)
+                .with("port", (short) 8080)
+                .with("retryAfter", 60)
+                .build();
+
+        assertThat(problem.getParameters(), hasEntry("retryAfter", 60));
+        assertThat(problem.getParameters(), hasEntry("offset", 9_000_000_000L));
+        assertThat(problem.getParameters(), hasEntry("balance", 12.5));
+        assertThat(problem.getParameters(), hasEntry("blocked", true));
+        assertThat(problem.getParameters(), hasEntry("ratio", 0.5f));
+        assertThat(problem.getParameters(), hasEntry("grade", 'A'));
+        assertThat(problem.getParameters(), hasEntry("priority", (byte) 3));
+        assertThat(problem.getParameters(), hasEntry("port", (short) 8080));
+        assertThat(problem.getParameters().keySet(),
+                contains("retryAfter", "offset", "balance", "blocked", "ratio", "grade", "priority", "port"));
+    }
+
+    @Test
+    void shouldOverridePrimitiveParameterWithObject() {
+        final ThrowableProblem problem = Problem.builder()
+                .with("foo", 42)
+                .with("foo", "bar")
+                .build();
+
+        assertThat(problem.getParameters(), hasEntry("foo", "bar"));
+    }
+
+    @Test
+    void shouldVisitPrimitiveParametersWithoutBoxing() {
+        final ThrowableProblem problem = Problem.builder()
+                .with("int", 1)
+                .with("long", 2L)
+                .with("double", 3.0)
+                .with("boolean", true)
+                .with("object", "five")
+                .build();
+
+        final List<String> visited = new ArrayList<>();
+
+        ParameterVisitor.visitAll(problem.getParameters(), new ParameterVisitor<RuntimeException>() {
+
+            @Override
+            public void visit(final String key, final Object value) {
+                visited.add(key + "=" + value);
+            }
+
+            @Override
+            public void visitInt(final String key, final int value) {
+                visited.add(key + ":" + value);
+            }
+
+            @Override
+            public void visitLong(final String key, final long value) {
+                visited.add(key + ":" + value);
+            }
+
+            @Override
+            public void visitDouble(final String key, final double value) {
+                visited.add(key + ":" + value);
+            }
+
+            @Override
+            public void visitBoolean(final String key, final boolean value) {
+                visited.add(key + ":" + value);
+            }
+
+        });
+
+        assertThat(visited, contains("int:1", "long:2", "double:3.0", "boolean:true", "object=five"));
+    }
+
+    @Test
+    void shouldVisitBoxedParametersOfOtherMaps() {
+        final List<String> visited = new ArrayList<>();
+
+        ParameterVisitor.visitAll(Collections.singletonMap("int", 1),
+                (key, value) -> visited.add(key + "=" + value));
+
+        assertThat(visited, contains("int=1"));
+    }
+
+    @Test
+    void shouldThrowOnCustomPrimitiveStatus() {
+        assertThrows(IllegalArgumentException.class, () -> Problem.builder().with("status", 404));
+    }
     
     @Test
     void shouldCreateProblemWithCause() {
@@ -0,0 +1,313 @@
+package org.zalando.problem;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.hasToString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hobsoft.hamcrest.compose.ComposeMatchers.hasFeature;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class ProblemJsonReaderTest {
+
+    private final ProblemJsonReader unit = new ProblemJsonReader();
+
+    @Test
+    void shouldReadStandardMembers() throws IOException {
+        final ThrowableProblem problem = read("{" +
+                "\"type\":\"https://example.org/out-of-stock\"," +
+                "\"title\":\"Out of Stock\"," +
+                "\"status\":400," +
+                "\"detail\":\"Item B00027Y5QG is no longer available\"," +
+                "\"instance\":\"/orders/1234\"}");
+
+        assertThat(problem.getType(), hasToString("https://example.org/out-of-stock"));
+        assertThat(problem.getTitle(), is("Out of Stock"));
+        assertThat(problem.getStatus(), is(sameInstance(Status.BAD_REQUEST)));
+        assertThat(problem.getDetail(), is("Item B00027Y5QG is no longer available"));
+        assertThat(problem.getInstance(), hasToString("/orders/1234"));
+        assertThat(problem.getCause(), is(nullValue()));
+        assertThat(problem.getParameters(), is(anEmptyMap()));
+    }
+
+    @Test
+    void shouldReadNullMembers() throws IOException {
+        final ThrowableProblem problem = read(" \n\r\t{ \"type\" : null , \"title\":null,\"status\":null," +
+                "\"detail\":null,\"instance\":null,\"cause\":null }");
+
+        assertThat(problem.getType(), is(Problem.DEFAULT_TYPE));
+        assertThat(problem.getTitle(), is(nullValue()));
+        assertThat(problem.getStatus(), is(nullValue()));
+        assertThat(problem.getDetail(), is(nullValue()));
+        assertThat(problem.getInstance(), is(nullValue()));
+        assertThat(problem.getCause(), is(nullValue()));
+    }
+
+    @Test
+    void shouldReadEmptyProblem() throws IOException {
+        final ThrowableProblem problem = read("{}");
+
+        assertThat(problem.getTitle(), is(nullValue()));
+        assertThat(problem.getParameters(), is(anEmptyMap()));
+    }
+
+    @Test
+    void shouldReadCauses() throws IOException {
+        final ThrowableProblem problem = read("{\"title\":\"Outer\",\"cause\":{\"title\":\"Inner\"," +
+                "\"cause\":{\"status\":409}}}");
+
+        assertThat(problem.getCause(), hasFeature("title", Problem::getTitle, is("Inner")));
+        assertThat(problem.getCause().getCause(), hasFeature("status", Problem::getStatus, is(Status.CONFLICT)));
+    }
+
+    @Test
+    void shouldResolveStatusesUsingRegistry() throws IOException {
+        final StatusType custom = new ProblemJsonReader(StatusRegistry.of(Status.class))
+                .read("{\"status\":520}".getBytes(UTF_8))
+                .getStatus();
+
+        assertThat(custom, hasFeature("status code", StatusType::getStatusCode, is(520)));
+        assertThat(custom, is(instanceOf(UnknownStatus.class)));
+    }
+
+    @Test
+    void shouldReadScalarParameters() throws IOException {
+        final Map<String, Object> parameters = read("{\"int\":-42,\"zero\":0,\"negativeZero\":-0," +
+                "\"long\":12345678901,\"maxLong\":9223372036854775807,\"minLong\":-9223372036854775808," +
+                "\"big\":123456789012345678901234567890,\"double\":1.5,\"exponent\":1e3,\"upper\":-2.5E+1," +
+                "\"negative\":25E-1,\"true\":true,\"false\":false,\"null\":null,\"string\":\"foo\"}")
+                .getParameters();
+
+        assertThat(parameters.get("int"), is(-42));
+        assertThat(parameters.get("zero"), is(0));
+        assertThat(parameters.get("negativeZero"), is(0));
+        assertThat(parameters.get("long"), is(12345678901L));
+        assertThat(parameters.get("maxLong"), is(Long.MAX_VALUE));
+        assertThat(parameters.get("minLong"), is(Long.MIN_VALUE));
+        assertThat(parameters.get("big"), is(new BigInteger("123456789012345678901234567890")));
+        assertThat(parameters.get("double"), is(1.5));
+        assertThat(parameters.get("exponent"), is(1000.0));
+        assertThat(parameters.get("upper"), is(-25.0));
+        assertThat(parameters.get("negative"), is(2.5));
+        assertThat(parameters.get("true"), is(true));
+        assertThat(parameters.get("false"), is(false));
+        assertThat(parameters.get("null"), is(nullValue()));
+        assertThat(parameters.get("string"), is("foo"));
+    }
+
+    @Test
+    void shouldReadStructuredParameters() throws IOException {
+        final Map<String, Object> parameters = read("{\"list\":[1,12345678901,1.5,\"a\",true,false,null,[],{}]," +
+                "\"map\":{\"a\":{\"b\":[1]},\"c\":null},\"emptyList\":[],\"emptyMap\":{}}")
+                .getParameters();
+
+        assertThat(parameters.get("list"), is(Arrays.asList(1, 12345678901L, 1.5, "a", true, false, null,
+                Collections.emptyList(), Collections.emptyMap())));
+
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("a", Collections.singletonMap("b", Collections.singletonList(1)));
+        map.put("c", null);
+        assertThat(parameters.get("map"), is(map));
+
+        assertThat(parameters.get("emptyList"), is(Collections.emptyList()));
+        assertThat(parameters.get("emptyMap"), is(Collections.emptyMap()));
+    }
+
+    @Test
+    void shouldReadEscapesAndUnicode() throws IOException {
+        final ThrowableProblem problem = read("{\"title\":\"\\\"\\\\\\/\\b\\f\\n\\r\\t\\u00e4\\u20AC\\uD83D\\uDE00\"," +
+                "\"detail\":\"\u00e4\u20ac\uFFFD\uD83D\uDE00\",\"\u00fcber\":\"ascii\"}");
+
+        assertThat(problem.getTitle(), is("\"\\/\b\f\n\r\t\u00e4\u20ac\uD83D\uDE00"));
+        assertThat(problem.getDetail(), is("\u00e4\u20ac\uFFFD\uD83D\uDE00"));
+        assertThat(problem.getParameters().get("\u00fcber"), is("ascii"));
+    }
+
+    @Test
+    void shouldReadWhatWasWritten() throws IOException {
+        final ThrowableProblem problem = Problem.builder()
+                .withType(URI.create("https://example.org/problem"))
+                .withTitle("\u00c4rger \uD83D\uDE00")
+                .withStatus(Status.CONFLICT)
+                .withCause(Problem.valueOf(Status.BAD_REQUEST, "\"quoted\"\n"))
+                .with("int", 1)
+                .with("list", Arrays.asList("a", 1.5, null))
+                .build();
+
+        final ProblemJsonWriter writer = new ProblemJsonWriter();
+        final byte[] bytes = writer.toByteArray(problem);
+
+        assertThat(writer.toByteArray(unit.read(bytes)), is(bytes));
+    }
+
+    @Test
+    void shouldReadFromStreamsInSmallChunks() throws IOException {
+        final char[] chars = new char[5000];
+        Arrays.fill(chars, 'a');
+        final String title = new String(chars);
+
+        final InputStream stream = new FilterInputStream(new ByteArrayInputStream(
+                ("{\"title\":\"" + title + "\",\"detail\":\"a\u00e4\",\"long\":123456789012," +
+                        "\"double\":0.125e+1,\"list\":[true,null]} trailing").getBytes(UTF_8))) {
+
+            @Override
+            public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+                return super.read(bytes, offset, Math.min(length, 3));
+            }
+        };
+
+        final ThrowableProblem problem = unit.read(stream);
+
+        assertThat(problem.getTitle(), is(title));
+        assertThat(problem.getDetail(), is("a\u00e4"));
+        assertThat(problem.getParameters().get("long"), is(123456789012L));
+        assertThat(problem.getParameters().get("double"), is(1.25));
+        assertThat(problem.getParameters().get("list"), is(Arrays.asList(true, null)));
+    }
+
+    @Test
+    void shouldReadLargeStreams() throws IOException {
+        final char[] chars = new char[5000];
+        Arrays.fill(chars, 'a');
+        final String title = new String(chars);
+
+        final ThrowableProblem problem = unit.read(new ByteArrayInputStream(
+                ("{\"title\":\"" + title + "\"}").getBytes(UTF_8)));
+
+        assertThat(problem.getTitle(), is(title));
+    }
+
+    @Test
+    void shouldRejectTruncatedStreams() {
+        final InputStream stream = new ByteArrayInputStream("{\"title\":\"Foo".getBytes(UTF_8));
+
+        final IOException exception = assertThrows(IOException.class, () -> unit.read(stream));
+        assertThat(exception.getMessage(), is("Unexpected end of input at offset 13"));
+    }
+
+    @Test
+    void shouldReadFromHeapBufferAndAdvancePosition() throws IOException {
+        final byte[] bytes = "  {\"title\":\"Foo\"} {\"title\":\"Bar\"}".getBytes(UTF_8);
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1).slice();
+
+        assertThat(unit.read(buffer), hasFeature("title", Problem::getTitle, is("Foo")));
+        assertThat(buffer.position(), is(16));
+        assertThat(unit.read(buffer), hasFeature("title", Problem::getTitle, is("Bar")));
+        assertThat(buffer.hasRemaining(), is(false));
+    }
+
+    @Test
+    void shouldReadFromDirectBufferAndAdvancePosition() throws IOException {
+        final byte[] bytes = "{\"title\":\"Foo\"} ".getBytes(UTF_8);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+        buffer.flip();
+
+        assertThat(unit.read(buffer), hasFeature("title", Problem::getTitle, is("Foo")));
+        assertThat(buffer.position(), is(15));
+    }
+
+    @Test
+    void shouldLimitDepth() throws IOException {
+        final ProblemJsonReader limited = unit.withMaxDepth(3);
+
+        assertThat(limited.read("{\"a\":[{\"b\":1}]}".getBytes(UTF_8)).getParameters(), is(aMapWithSize(1)));
+        assertThat(limited.read("{\"cause\":{\"cause\":{}}}".getBytes(UTF_8)).getCause().getCause(),
+                hasFeature("parameters", Problem::getParameters, is(anEmptyMap())));
+
+        assertThrows(IOException.class, () -> limited.read("{\"a\":[[[]]]}".getBytes(UTF_8)));
+        assertThrows(IOException.class, () -> limited.read("{\"a\":{\"b\":{\"c\":{}}}}".getBytes(UTF_8)));
+        assertThrows(IOException.class, () -> limited.read("{\"cause\":{\"cause\":{\"cause\":{}}}}".getBytes(UTF_8)));
+    }
+
+    @Test
+    void shouldLimitDepthByDefault() {
+        final char[] chars = new char[2000];
+        Arrays.fill(chars, '[');
+        final String json = "{\"a\":" + new String(chars) + "}";
+
+        final IOException exception = assertThrows(IOException.class, () -> read(json));
+        assertThat(exception.getMessage(), is("Nesting depth exceeds 1000 at offset 1004"));
+    }
+
+    @Test
+    void shouldRejectNonPositiveMaxDepth() {
+        assertThrows(IllegalArgumentException.class, () -> unit.withMaxDepth(0));
+    }
+
+    @Test
+    void shouldRejectNulls() {
+        assertThrows(NullPointerException.class, () -> new ProblemJsonReader(null));
+        assertThrows(NullPointerException.class, () -> unit.read((InputStream) null));
+    }
+
+    @Test
+    void shouldRejectInvalidProblems() {
+        final String[] invalid = {
+                "", "[]", "null", "{", "{\"a\"}", "{\"a\":}", "{\"a\":1,}", "{\"a\":1 \"b\":2}", "{a:1}",
+                "{\"status\":\"404\"}", "{\"status\":404.0}", "{\"status\":4294967296}", "{\"type\":\"a b\"}",
+                "{\"type\":1}", "{\"title\":1}", "{\"cause\":1}", "{\"cause\":nul}",
+                "{\"a\":tru}", "{\"a\":fals}", "{\"a\":x}", "{\"a\":-}", "{\"a\":-\"}", "{\"a\":-x}",
+                "{\"a\":1.}", "{\"a\":1.,}", "{\"a\":1e}", "{\"a\":1e+}", "{\"a\":[1 2]}", "{\"a\":[1,]}",
+                "{\"a\":{\"b\" 1}}", "{\"a\":{\"b\":1,}}", "{\"a\":{1:1}}",
+                "{\"a\":\"\\x\"}", "{\"a\":\"\\u00g0\"}", "{\"a\":\"\\u00",
+                "{\"a\":\"\u0001\"}", "{\"a\":\"\\n\u0001\"}", "{\"a\":\"", "{\"a\":\"\\", "{\"a\":\"abc",
+        };
+
+        for (final String json : invalid) {
+            assertThrows(IOException.class, () -> read(json), json);
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidUtf8() {
+        final int[][] invalid = {
+                {0x80}, {0xF8, 0x80, 0x80, 0x80}, {0xC3, 0x28}, {0xC3},
+                // overlong encoding of '/'
+                {0xC0, 0xAF},
+                // encoded surrogate
+                {0xED, 0xA0, 0x80},
+                // beyond the largest code point
+                {0xF5, 0x80, 0x80, 0x80},
+        };
+
+        for (final int[] bytes : invalid) {
+            final byte[] json = new byte[bytes.length + 11];
+            System.arraycopy("{\"a\":\"".getBytes(UTF_8), 0, json, 0, 6);
+            for (int i = 0; i < bytes.length; i++) {
+                json[6 + i] = (byte) bytes[i];
+            }
+            System.arraycopy("\"}   ".getBytes(UTF_8), 0, json, 6 + bytes.length, 5);
+
+            assertThrows(IOException.class, () -> unit.read(json), Arrays.toString(bytes));
+        }
+    }
+
+    @Test
+    void shouldReportOffsetOfErrors() {
+        final IOException exception = assertThrows(IOException.class, () -> read("{\"a\":1,\n\"b\":}"));
+        assertThat(exception.getMessage(), is("Expected number at offset 12"));
+    }
+
+    private ThrowableProblem read(final String json) throws IOException {
+        return unit.read(json.getBytes(UTF_8));
+    }
+
+}
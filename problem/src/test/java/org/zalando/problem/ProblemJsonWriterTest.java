@@ -0,0 +1,208 @@
+package org.zalando.problem;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class ProblemJsonWriterTest {
+
+    private final ProblemJsonWriter unit = new ProblemJsonWriter();
+
+    @Test
+    void shouldWriteStandardMembers() {
+        final ThrowableProblem problem = Problem.builder()
+                .withType(URI.create("https://example.org/out-of-stock"))
+                .withTitle("Out of Stock")
+                .withStatus(Status.BAD_REQUEST)
+                .withDetail("Item B00027Y5QG is no longer available")
+                .withInstance(URI.create("/orders/1234"))
+                .build();
+
+        assertThat(write(problem), is("{" +
+                "\"type\":\"https://example.org/out-of-stock\"," +
+                "\"title\":\"Out of Stock\"," +
+                "\"status\":400," +
+                "\"detail\":\"Item B00027Y5QG is no longer available\"," +
+                "\"instance\":\"/orders/1234\"}"));
+    }
+
+    @Test
+    void shouldOmitDefaultTypeAndEmptyMembers() {
+        assertThat(write(Problem.builder().build()), is("{}"));
+        assertThat(write(Problem.builder().withType(Problem.DEFAULT_TYPE).withTitle("").withDetail("").build()),
+                is("{}"));
+    }
+
+    @Test
+    void shouldWriteProblemsThroughInterface() {
+        final Problem problem = new Problem() {
+            @Override
+            public URI getType() {
+                return null;
+            }
+
+            @Override
+            public String getTitle() {
+                return "Custom";
+            }
+
+            @Override
+            public Map<String, Object> getParameters() {
+                return Collections.singletonMap("foo", "bar");
+            }
+        };
+
+        assertThat(write(problem), is("{\"title\":\"Custom\",\"foo\":\"bar\"}"));
+    }
+
+    @Test
+    void shouldWriteCauses() {
+        final ThrowableProblem problem = Problem.builder()
+                .withTitle("Outer")
+                .withCause(Problem.builder()
+                        .withTitle("Inner")
+                        .withCause(Problem.valueOf(Status.CONFLICT))
+                        .with("foo", "bar")
+                        .build())
+                .with("bar", "foo")
+                .build();
+
+        assertThat(write(problem), is("{\"title\":\"Outer\",\"cause\":{\"title\":\"Inner\"," +
+                "\"cause\":{\"title\":\"Conflict\",\"status\":409},\"foo\":\"bar\"},\"bar\":\"foo\"}"));
+    }
+
+    @Test
+    void shouldWritePrimitiveParameters() {
+        final ThrowableProblem problem = Problem.builder()
+                .with("int", -42)
+                .with("zero", 0)
+                .with("min", Long.MIN_VALUE)
+                .with("max", Long.MAX_VALUE)
+                .with("double", 1.0E10)
+                .with("nan", Double.NaN)
+                .with("float", 1.5f)
+                .with("infinity", Float.POSITIVE_INFINITY)
+                .with("true", true)
+                .with("false", false)
+                .with("char", 'x')
+                .build();
+
+        assertThat(write(problem), is("{\"int\":-42,\"zero\":0,\"min\":-9223372036854775808," +
+                "\"max\":9223372036854775807,\"double\":1.0E10,\"nan\":\"NaN\",\"float\":1.5," +
+                "\"infinity\":\"Infinity\",\"true\":true,\"false\":false,\"char\":\"x\"}"));
+    }
+
+    @Test
+    void shouldWriteObjectParameters() {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("null", null);
+        map.put("list", Arrays.asList(1, "a", null));
+
+        final ThrowableProblem problem = Problem.builder()
+                .with("null", (Object) null)
+                .with("boolean", (Object) Boolean.TRUE)
+                .with("numbers", Arrays.asList((byte) 1, (short) 2, 3, 4L, 5.5, 6.5f, Double.NEGATIVE_INFINITY,
+                        Float.NaN, new BigDecimal("1E+3"), new BigInteger("12345678901234567890")))
+                .with("map", map)
+                .with("set", new TreeSet<>(Arrays.asList(2, 1)))
+                .with("ints", new int[]{1, 2})
+                .with("strings", new String[]{"a"})
+                .with("empty", new Object[0])
+                .with("code", Status.NOT_FOUND)
+                .with("enum", Thread.State.NEW)
+                .with("uri", URI.create("https://example.org"))
+                .with("builder", new StringBuilder("text"))
+                .build();
+
+        assertThat(write(problem), is("{\"null\":null,\"boolean\":true," +
+                "\"numbers\":[1,2,3,4,5.5,6.5,\"-Infinity\",\"NaN\",1E+3,12345678901234567890]," +
+                "\"map\":{\"null\":null,\"list\":[1,\"a\",null]},\"set\":[1,2],\"ints\":[1,2],\"strings\":[\"a\"]," +
+                "\"empty\":[],\"code\":404,\"enum\":\"NEW\",\"uri\":\"https://example.org\"," +
+                "\"builder\":\"text\"}"));
+    }
+
+    @Test
+    void shouldEscapeStrings() {
+        final ThrowableProblem problem = Problem.builder()
+                .withTitle("\"\\/\b\f\n\r\t\u0000\u001f <&> \u007f")
+                .withDetail("\u00e4\u20ac\uD83D\uDE00")
+                .with("surrogates", "\uD83D \uDE00 \uD83D")
+                .build();
+
+        assertThat(write(problem), is("{\"title\":\"\\\"\\\\/\\b\\f\\n\\r\\t\\u0000\\u001F <&> \u007f\"," +
+                "\"detail\":\"\u00e4\u20ac\uD83D\uDE00\",\"surrogates\":\"\\uD83D \\uDE00 \\uD83D\"}"));
+    }
+
+    @Test
+    void shouldWriteLargeProblems() throws IOException {
+        final char[] chars = new char[3000];
+        Arrays.fill(chars, '\u20ac');
+        final String detail = new String(chars);
+
+        final ProblemBuilder builder = Problem.builder().withDetail(detail);
+        for (int i = 0; i < 500; i++) {
+            builder.with("parameter" + i, i % 2 == 0 ? (Object) Long.MIN_VALUE : (Object) Arrays.asList(true, null));
+        }
+        final ThrowableProblem problem = builder.build();
+
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        unit.write(problem, stream);
+
+        final String json = stream.toString("UTF-8");
+        assertThat(json.startsWith("{\"detail\":\"" + detail + "\",\"parameter0\":-9223372036854775808,"), is(true));
+        assertThat(json.endsWith(",\"parameter499\":[true,null]}"), is(true));
+        assertThat(unit.toByteArray(problem), is(stream.toByteArray()));
+    }
+
+    @Test
+    void shouldWriteToBuffer() {
+        final ThrowableProblem problem = Problem.valueOf(Status.NOT_FOUND);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(64).put((byte) ' ');
+
+        unit.write(problem, buffer);
+        buffer.flip().get();
+
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        assertThat(new String(bytes, UTF_8), is("{\"title\":\"Not Found\",\"status\":404}"));
+    }
+
+    @Test
+    void shouldNotAdvanceBufferOnOverflow() {
+        final ThrowableProblem problem = Problem.valueOf(Status.NOT_FOUND);
+        final ByteBuffer buffer = ByteBuffer.allocate(16).put((byte) ' ');
+
+        assertThrows(BufferOverflowException.class, () -> unit.write(problem, buffer));
+        assertThat(buffer.position(), is(1));
+    }
+
+    @Test
+    void shouldRejectNulls() {
+        final ThrowableProblem problem = Problem.builder().build();
+
+        assertThrows(NullPointerException.class, () -> unit.toByteArray(null));
+        assertThrows(NullPointerException.class, () -> unit.write(problem, (ByteBuffer) null));
+        assertThrows(NullPointerException.class, () -> unit.write(problem, (ByteArrayOutputStream) null));
+    }
+
+    private String write(final Problem problem) {
+        return new String(unit.toByteArray(problem), UTF_8);
+    }
+
+}
@@ -0,0 +1,100 @@
+package org.zalando.problem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasToString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hobsoft.hamcrest.compose.ComposeMatchers.hasFeature;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.zalando.problem.Status.NOT_FOUND;
+import static org.zalando.problem.Status.TOO_MANY_REQUESTS;
+
+final class SharedProblemsTest {
+
+    @AfterEach
+    void resetDefault() {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing());
+    }
+
+    @Test
+    void shouldNotBeInstantiable() {
+        assertThrows(Exception.class, SharedProblems::new);
+    }
+
+    @Test
+    void shouldReturnSameInstance() {
+        final ThrowableProblem problem = Problem.shared(NOT_FOUND);
+
+        assertThat(Problem.shared(NOT_FOUND), is(sameInstance(problem)));
+        assertThat(Problem.shared(NOT_FOUND, null), is(sameInstance(problem)));
+        assertThat(Problem.shared(TOO_MANY_REQUESTS), is(not(sameInstance(problem))));
+    }
+
+    @Test
+    void shouldBeEquivalentToGenericProblem() {
+        final ThrowableProblem problem = Problem.shared(NOT_FOUND);
+
+        assertThat(problem, hasFeature("type", Problem::getType, hasToString("about:blank")));
+        assertThat(problem, hasFeature("title", Problem::getTitle, equalTo("Not Found")));
+        assertThat(problem, hasFeature("status", Problem::getStatus, equalTo(NOT_FOUND)));
+        assertThat(problem, hasFeature("detail", Problem::getDetail, is(nullValue())));
+        assertThat(problem, hasToString(Problem.valueOf(NOT_FOUND).toString()));
+    }
+
+    @Test
+    void shouldCachePerDetail() {
+        final ThrowableProblem problem = Problem.shared(NOT_FOUND, "Order not found");
+
+        assertThat(problem, hasFeature("detail", Problem::getDetail, is("Order not found")));
+        assertThat(Problem.shared(NOT_FOUND, "Order not found"), is(sameInstance(problem)));
+        assertThat(Problem.shared(NOT_FOUND, "Customer not found"), is(not(sameInstance(problem))));
+        assertThat(Problem.shared(TOO_MANY_REQUESTS, "Order not found"), is(not(sameInstance(problem))));
+    }
+
+    @Test
+    void shouldStopCachingTooManyDetails() {
+        for (int i = 0; i < 300; i++) {
+            Problem.shared(TOO_MANY_REQUESTS, "Retry in " + i + " seconds");
+        }
+
+        final ThrowableProblem problem = Problem.shared(TOO_MANY_REQUESTS, "Retry in 299 seconds");
+
+        assertThat(problem, hasFeature("detail", Problem::getDetail, is("Retry in 299 seconds")));
+        assertThat(Problem.shared(TOO_MANY_REQUESTS, "Retry in 299 seconds"), is(not(sameInstance(problem))));
+        assertThat(Problem.shared(TOO_MANY_REQUESTS, "Retry in 0 seconds"),
+                is(sameInstance(Problem.shared(TOO_MANY_REQUESTS, "Retry in 0 seconds"))));
+    }
+
+    @Test
+    void shouldBeImmutable() {
+        final ThrowableProblem problem = Problem.shared(NOT_FOUND);
+
+        problem.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("org.example.Foo", "bar", "Foo.java", 1)});
+        problem.addSuppressed(new IllegalStateException());
+
+        assertThat(problem, hasFeature("stack trace", Throwable::getStackTrace, is(emptyArray())));
+        assertThat(problem, hasFeature("suppressed", Throwable::getSuppressed, is(emptyArray())));
+        assertThrows(IllegalStateException.class, () -> problem.initCause(new IllegalStateException()));
+        assertThrows(UnsupportedOperationException.class, () -> problem.getParameters().put("foo", "bar"));
+    }
+
+    @Test
+    void shouldIgnoreStackTracePolicy() {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing()
+                .withSampler((type, status) -> {
+                    throw new AssertionError("Unexpected sampling");
+                }));
+
+        assertThat(Problem.shared(NOT_FOUND, "Ignored policy"),
+                hasFeature("sampled out", Exceptional::isStackTraceSampledOut, is(false)));
+    }
+
+}
@@ -0,0 +1,72 @@
+package org.zalando.problem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class StackTraceFormatterTest {
+
+    @BeforeEach
+    void clearCache() {
+        StackTraceFormatter.clear();
+    }
+
+    @Test
+    void shouldNotBeInstantiable() {
+        assertThrows(Exception.class, StackTraceFormatter::new);
+    }
+
+    @Test
+    void shouldFormatLikeToString() {
+        for (final StackTraceElement frame : new Exception().getStackTrace()) {
+            assertThat(StackTraceFormatter.format(frame), is(frame.toString()));
+        }
+    }
+
+    @Test
+    void shouldReuseFormattedFrames() {
+        final StackTraceElement frame = new StackTraceElement("org.example.Example", "execute", "Example.java", 17);
+        final String formatted = StackTraceFormatter.format(frame);
+
+        assertThat(StackTraceFormatter.format(
+                new StackTraceElement("org.example.Example", "execute", "Example.java", 17)),
+                is(sameInstance(formatted)));
+    }
+
+    @Test
+    void shouldFormatFramesBeyondCacheSize() {
+        for (int line = 0; line < 5000; line++) {
+            final StackTraceElement frame = new StackTraceElement("org.example.Generated", "run", null, line);
+            assertThat(StackTraceFormatter.format(frame), is(frame.toString()));
+        }
+    }
+
+    @Test
+    void shouldKeepCachingFramesBeyondCacheSize() {
+        for (int line = 0; line < 5000; line++) {
+            StackTraceFormatter.format(new StackTraceElement("org.example.Generated", "run", null, line));
+        }
+
+        final StackTraceElement frame = new StackTraceElement("org.example.Example", "execute", "Example.java", 17);
+        final String formatted = StackTraceFormatter.format(frame);
+
+        assertThat(StackTraceFormatter.format(
+                new StackTraceElement("org.example.Example", "execute", "Example.java", 17)),
+                is(sameInstance(formatted)));
+    }
+
+    @Test
+    void shouldLimitLength() {
+        final StackTraceElement[] stackTrace = new Exception().getStackTrace();
+
+        assertThat(StackTraceFormatter.length(stackTrace, 0), is(stackTrace.length));
+        assertThat(StackTraceFormatter.length(stackTrace, 1), is(1));
+        assertThat(StackTraceFormatter.length(stackTrace, Integer.MAX_VALUE), is(stackTrace.length));
+        assertThat(StackTraceFormatter.length(new StackTraceElement[0], 3), is(0));
+    }
+
+}
@@ -0,0 +1,137 @@
+package org.zalando.problem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.zalando.problem.Status.Family;
+
+import java.net.URI;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hobsoft.hamcrest.compose.ComposeMatchers.hasFeature;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.zalando.problem.Status.BAD_REQUEST;
+import static org.zalando.problem.Status.CONFLICT;
+import static org.zalando.problem.Status.INTERNAL_SERVER_ERROR;
+import static org.zalando.problem.Status.NOT_FOUND;
+
+final class StackTracePolicyTest {
+
+    private final URI type = URI.create("https://example.org/out-of-stock");
+
+    @AfterEach
+    void resetDefault() {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing());
+    }
+
+    @Test
+    void shouldCaptureByDefault() {
+        assertThat(StackTracePolicy.getDefault(), is(sameInstance(StackTracePolicy.capturing())));
+        assertThat(StackTracePolicy.getDefault().isCaptured(null, null), is(true));
+    }
+
+    @Test
+    void shouldOmit() {
+        assertThat(StackTracePolicy.omitting().isCaptured(type, NOT_FOUND), is(false));
+    }
+
+    @Test
+    void shouldApplyFamily() {
+        final StackTracePolicy policy = StackTracePolicy.capturing()
+                .withFamily(Family.CLIENT_ERROR, false);
+
+        assertThat(policy.isCaptured(null, NOT_FOUND), is(false));
+        assertThat(policy.isCaptured(null, INTERNAL_SERVER_ERROR), is(true));
+        assertThat(policy.isCaptured(null, null), is(true));
+    }
+
+    @Test
+    void shouldPreferStatusOverFamily() {
+        final StackTracePolicy policy = StackTracePolicy.capturing()
+                .withFamily(Family.CLIENT_ERROR, false)
+                .withStatus(CONFLICT, true);
+
+        assertThat(policy.isCaptured(null, CONFLICT), is(true));
+        assertThat(policy.isCaptured(null, BAD_REQUEST), is(false));
+    }
+
+    @Test
+    void shouldPreferTypeOverStatus() {
+        final StackTracePolicy policy = StackTracePolicy.omitting()
+                .withStatus(CONFLICT, false)
+                .withType(type, true);
+
+        assertThat(policy.isCaptured(type, CONFLICT), is(true));
+        assertThat(policy.isCaptured(URI.create("https://example.org/other"), CONFLICT), is(false));
+    }
+
+    @Test
+    void shouldNotModifyOriginal() {
+        final StackTracePolicy policy = StackTracePolicy.capturing();
+        policy.withFamily(Family.CLIENT_ERROR, false);
+
+        assertThat(policy.isCaptured(null, NOT_FOUND), is(true));
+    }
+
+    @Test
+    void shouldNotAllowNullDefault() {
+        assertThrows(NullPointerException.class, () -> StackTracePolicy.setDefault(null));
+    }
+
+    @Test
+    void shouldBuildProblemWithoutStackTrace() {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing()
+                .withFamily(Family.CLIENT_ERROR, false));
+
+        final ThrowableProblem problem = Problem.builder()
+                .withType(type)
+                .withTitle("Out of Stock")
+                .withStatus(BAD_REQUEST)
+                .build();
+
+        assertThat(problem, hasFeature("stack trace", Throwable::getStackTrace, is(emptyArray())));
+
+        problem.setStackTrace(new StackTraceElement[]{
+                new StackTraceElement("org.example.Foo", "bar", "Foo.java", 1)});
+
+        assertThat(problem, hasFeature("stack trace", Throwable::getStackTrace, is(emptyArray())));
+    }
+
+    @Test
+    void shouldApplyDefaultTypeToProblemsWithoutType() {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing()
+                .withType(Problem.DEFAULT_TYPE, false));
+
+        final ThrowableProblem problem = Problem.builder()
+                .withTitle("Out of Stock")
+                .withStatus(BAD_REQUEST)
+                .build();
+
+        assertThat(problem, hasFeature("stack trace", Throwable::getStackTrace, is(emptyArray())));
+    }
+
+    @Test
+    void shouldCreateGenericProblemWithoutStackTrace() {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing()
+                .withStatus(NOT_FOUND, false));
+
+        assertThat(Problem.valueOf(NOT_FOUND).getStackTrace(), is(emptyArray()));
+        assertThat(Problem.valueOf(INTERNAL_SERVER_ERROR).getStackTrace(), is(not(arrayWithSize(0))));
+    }
+
+    @Test
+    void shouldDetermineFamily() {
+        assertThat(Family.familyOf(100), is(Family.INFORMATIONAL));
+        assertThat(Family.familyOf(204), is(Family.SUCCESSFUL));
+        assertThat(Family.familyOf(301), is(Family.REDIRECTION));
+        assertThat(Family.familyOf(404), is(Family.CLIENT_ERROR));
+        assertThat(Family.familyOf(503), is(Family.SERVER_ERROR));
+        assertThat(Family.familyOf(666), is(Family.OTHER));
+        assertThat(Family.familyOf(42), is(Family.OTHER));
+    }
+
+}
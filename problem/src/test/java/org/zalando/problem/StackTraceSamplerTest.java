@@ -0,0 +1,137 @@
+package org.zalando.problem;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hobsoft.hamcrest.compose.ComposeMatchers.hasFeature;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.zalando.problem.Status.BAD_REQUEST;
+import static org.zalando.problem.Status.INTERNAL_SERVER_ERROR;
+import static org.zalando.problem.Status.NOT_FOUND;
+
+final class StackTraceSamplerTest {
+
+    private final URI type = URI.create("https://example.org/out-of-stock");
+
+    @AfterEach
+    void resetDefault() {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing());
+    }
+
+    @Test
+    void shouldSampleOneInN() {
+        final StackTraceSampler unit = StackTraceSampler.oneIn(3);
+
+        assertThat(unit.sample(type, NOT_FOUND), is(true));
+        assertThat(unit.sample(type, NOT_FOUND), is(false));
+        assertThat(unit.sample(type, NOT_FOUND), is(false));
+        assertThat(unit.sample(type, NOT_FOUND), is(true));
+    }
+
+    @Test
+    void shouldSampleTypesAndStatusesIndependently() {
+        final StackTraceSampler unit = StackTraceSampler.oneIn(2);
+
+        assertThat(unit.sample(type, NOT_FOUND), is(true));
+        assertThat(unit.sample(type, BAD_REQUEST), is(true));
+        assertThat(unit.sample(null, NOT_FOUND), is(true));
+        assertThat(unit.sample(null, null), is(true));
+        assertThat(unit.sample(type, NOT_FOUND), is(false));
+        assertThat(unit.sample(null, null), is(false));
+    }
+
+    @Test
+    void shouldShareCounterBeyondCapacity() {
+        final StackTraceSampler unit = new CountingStackTraceSampler(2, 1);
+
+        assertThat(unit.sample(type, NOT_FOUND), is(true));
+        assertThat(unit.sample(URI.create("https://example.org/a"), NOT_FOUND), is(true));
+        assertThat(unit.sample(URI.create("https://example.org/b"), NOT_FOUND), is(false));
+        assertThat(unit.sample(type, NOT_FOUND), is(false));
+    }
+
+    @Test
+    void shouldRejectNonPositiveInterval() {
+        assertThrows(IllegalArgumentException.class, () -> StackTraceSampler.oneIn(0));
+    }
+
+    @Test
+    void shouldLimitPerSecond() {
+        final AtomicLong clock = new AtomicLong(SECONDS.toNanos(42));
+        final StackTraceSampler unit = new RateLimitingStackTraceSampler(2, clock::get);
+
+        assertThat(unit.sample(type, NOT_FOUND), is(true));
+        assertThat(unit.sample(type, NOT_FOUND), is(true));
+        assertThat(unit.sample(type, NOT_FOUND), is(false));
+        assertThat(unit.sample(type, INTERNAL_SERVER_ERROR), is(true));
+
+        clock.addAndGet(MILLISECONDS.toNanos(999));
+        assertThat(unit.sample(type, NOT_FOUND), is(false));
+
+        clock.addAndGet(MILLISECONDS.toNanos(1));
+        assertThat(unit.sample(type, NOT_FOUND), is(true));
+        assertThat(unit.sample(type, NOT_FOUND), is(true));
+        assertThat(unit.sample(type, NOT_FOUND), is(false));
+    }
+
+    @Test
+    void shouldShareLimitBeyondCapacity() {
+        final AtomicLong clock = new AtomicLong(SECONDS.toNanos(42));
+        final StackTraceSampler unit = new RateLimitingStackTraceSampler(1, clock::get, 1);
+
+        assertThat(unit.sample(type, NOT_FOUND), is(true));
+        assertThat(unit.sample(URI.create("https://example.org/a"), NOT_FOUND), is(true));
+        assertThat(unit.sample(URI.create("https://example.org/b"), NOT_FOUND), is(false));
+    }
+
+    @Test
+    void shouldNeverSampleWithoutPermits() {
+        final StackTraceSampler unit = StackTraceSampler.perSecond(0);
+
+        assertThat(unit.sample(type, NOT_FOUND), is(false));
+    }
+
+    @Test
+    void shouldRejectNegativePermits() {
+        assertThrows(IllegalArgumentException.class, () -> StackTraceSampler.perSecond(-1));
+    }
+
+    @Test
+    void shouldMarkSampledOutProblems() {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing()
+                .withSampler(StackTraceSampler.oneIn(2)));
+
+        final ThrowableProblem first = Problem.valueOf(INTERNAL_SERVER_ERROR);
+        final ThrowableProblem second = Problem.valueOf(INTERNAL_SERVER_ERROR);
+
+        assertThat(first, hasFeature("stack trace", Throwable::getStackTrace, is(not(arrayWithSize(0)))));
+        assertThat(first, hasFeature("sampled out", Exceptional::isStackTraceSampledOut, is(false)));
+        assertThat(second, hasFeature("stack trace", Throwable::getStackTrace, is(emptyArray())));
+        assertThat(second, hasFeature("sampled out", Exceptional::isStackTraceSampledOut, is(true)));
+    }
+
+    @Test
+    void shouldNotConsultSamplerForOmittedStackTraces() {
+        StackTracePolicy.setDefault(StackTracePolicy.capturing()
+                .withStatus(NOT_FOUND, false)
+                .withSampler((type, status) -> {
+                    throw new AssertionError("Unexpected sampling");
+                }));
+
+        final ThrowableProblem problem = Problem.valueOf(NOT_FOUND);
+
+        assertThat(problem, hasFeature("stack trace", Throwable::getStackTrace, is(emptyArray())));
+        assertThat(problem, hasFeature("sampled out", Exceptional::isStackTraceSampledOut, is(false)));
+    }
+
+}
@@ -0,0 +1,92 @@
+package org.zalando.problem;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hobsoft.hamcrest.compose.ComposeMatchers.hasFeature;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class StatusRegistryTest {
+
+    private final StatusType custom = new StatusType() {
+        @Override
+        public int getStatusCode() {
+            return 520;
+        }
+
+        @Override
+        public String getReasonPhrase() {
+            return "Web Server Returned an Unknown Error";
+        }
+    };
+
+    private final StatusType outOfRange = new StatusType() {
+        @Override
+        public int getStatusCode() {
+            return 999;
+        }
+
+        @Override
+        public String getReasonPhrase() {
+            return "Out of Range";
+        }
+    };
+
+    @Test
+    void shouldResolveEnumStatuses() {
+        final StatusRegistry unit = StatusRegistry.of(Status.class);
+
+        assertThat(unit.resolve(404), is(sameInstance(Status.NOT_FOUND)));
+        assertThat(unit.find(404), is(sameInstance(Status.NOT_FOUND)));
+        assertThat(unit.find(520), is(nullValue()));
+    }
+
+    @Test
+    void shouldResolveNonEnumStatuses() {
+        final StatusRegistry unit = StatusRegistry.of(Status.NOT_FOUND, custom, outOfRange);
+
+        assertThat(unit.resolve(404), is(sameInstance(Status.NOT_FOUND)));
+        assertThat(unit.resolve(520), is(sameInstance(custom)));
+        assertThat(unit.resolve(999), is(sameInstance(outOfRange)));
+    }
+
+    @Test
+    void shouldInternUnknownStatuses() {
+        final StatusRegistry unit = StatusRegistry.of(Status.class);
+        final StatusType status = unit.resolve(599);
+
+        assertThat(status, hasFeature("status code", StatusType::getStatusCode, is(599)));
+        assertThat(status, hasFeature("reason phrase", StatusType::getReasonPhrase, is("Unknown")));
+        assertThat(unit.resolve(599), is(sameInstance(status)));
+        assertThat(unit.resolve(520), is(not(sameInstance(status))));
+    }
+
+    @Test
+    void shouldNotInternCodesOutOfRange() {
+        final StatusRegistry unit = StatusRegistry.of(Status.class);
+
+        assertThat(unit.resolve(8080), hasFeature("status code", StatusType::getStatusCode, is(8080)));
+        assertThat(unit.resolve(-1), hasFeature("status code", StatusType::getStatusCode, is(-1)));
+    }
+
+    @Test
+    void shouldUseCustomUnknownStatuses() {
+        final StatusRegistry unit = StatusRegistry.of(Status.class)
+                .withUnknownStatuses(code -> custom);
+
+        assertThat(unit.resolve(520), is(sameInstance(custom)));
+        assertThat(StatusRegistry.of(Status.class).resolve(520), is(instanceOf(UnknownStatus.class)));
+    }
+
+    @Test
+    void shouldRejectDuplicateCodes() {
+        assertThrows(IllegalArgumentException.class, () -> StatusRegistry.of(Status.NOT_FOUND, Status.NOT_FOUND));
+        assertThrows(IllegalArgumentException.class, () -> StatusRegistry.of(outOfRange, outOfRange));
+    }
+
+}
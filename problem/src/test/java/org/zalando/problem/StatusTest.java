@@ -3,7 +3,9 @@ package org.zalando.problem;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -11,6 +13,7 @@ import static org.hamcrest.Matchers.emptyOrNullString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hobsoft.hamcrest.compose.ComposeMatchers.hasFeature;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -47,4 +50,24 @@ final class StatusTest {
         assertThrows(IllegalArgumentException.class, () -> Status.valueOf(111));
     }
 
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 0, 99, 111, 199, 599, 600, 999})
+    void shouldNotFindNonExistingCode(final int code) {
+        assertThat(Status.find(code), is(Optional.empty()));
+        assertThrows(IllegalArgumentException.class, () -> Status.valueOf(code));
+    }
+
+    @Test
+    void shouldFindEveryStatus() {
+        Stream.of(Status.values()).forEach(status -> {
+            assertThat(Status.find(status.getStatusCode()), is(Optional.of(status)));
+            assertThat(Status.valueOf(status.getStatusCode()), is(status));
+        });
+    }
+
+    @Test
+    void shouldNotAllocateWhenFinding() {
+        assertThat(Status.find(404), is(sameInstance(Status.find(404))));
+    }
+
 }
@@ -6,14 +6,18 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URI;
 
+import static java.util.Arrays.stream;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItemInArray;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.startsWith;
 import static org.hobsoft.hamcrest.compose.ComposeMatchers.hasFeature;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.zalando.problem.Status.BAD_REQUEST;
 
 final class ThrowableProblemTest {
@@ -45,6 +49,14 @@ final class ThrowableProblemTest {
         assertThat(problem, hasFeature("cause", ThrowableProblem::getCause, nullValue()));
     }
 
+    @Test
+    void shouldNotInitializeCauseOfConstructedProblem() {
+        final ThrowableProblem problem = Problem.builder().build();
+
+        assertThrows(IllegalStateException.class, () -> problem.initCause(Problem.valueOf(BAD_REQUEST)));
+        assertThat(problem, hasFeature("cause", ThrowableProblem::getCause, nullValue()));
+    }
+
     @Test
     void shouldReturnTitleAsMessage() {
         final ThrowableProblem problem = Problem.builder()
@@ -125,6 +137,44 @@ final class ThrowableProblemTest {
         assertThat(stacktrace, not(containsString("org.junit")));
     }
 
+    @Test
+    void shouldProcessStackTraceLazily() {
+        final int before = JunitStackTraceProcessor.INVOCATIONS.get();
+
+        final ThrowableProblem problem = Problem.valueOf(BAD_REQUEST);
+        assertThat(JunitStackTraceProcessor.INVOCATIONS.get(), is(before));
+
+        assertThat(stream(problem.getStackTrace()).map(StackTraceElement::getClassName).toArray(String[]::new),
+                not(hasItemInArray(startsWith("org.junit"))));
+        assertThat(JunitStackTraceProcessor.INVOCATIONS.get(), is(before + 1));
+
+        problem.getStackTrace();
+        assertThat(JunitStackTraceProcessor.INVOCATIONS.get(), is(before + 1));
+    }
+
+    @Test
+    void shouldProcessCausesBeforePrinting() {
+        final ThrowableProblem cause = Problem.valueOf(BAD_REQUEST);
+        final ThrowableProblem problem = Problem.builder()
+                .withTitle("Preauthorization Failed")
+                .withCause(cause)
+                .build();
+
+        final int before = JunitStackTraceProcessor.INVOCATIONS.get();
+        getStackTrace(problem);
+        assertThat(JunitStackTraceProcessor.INVOCATIONS.get(), is(before + 2));
+    }
+
+    @Test
+    void shouldNotProcessExplicitStackTrace() {
+        final StackTraceElement element = new StackTraceElement("org.junit.Foo", "bar", "Foo.java", 1);
+        final ThrowableProblem problem = Problem.valueOf(BAD_REQUEST);
+
+        problem.setStackTrace(new StackTraceElement[]{element});
+
+        assertThat(problem.getStackTrace(), is(arrayContaining(element)));
+    }
+
     private String getStackTrace(final Throwable throwable) {
         final StringWriter writer = new StringWriter();
         throwable.printStackTrace(new PrintWriter(writer));
@@ -1,4 +1,4 @@
-package org.zalando.problem.gson;
+package org.zalando.problem;
 
 import org.junit.jupiter.api.Test;
 